@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * the values bound to alpha symbols (α, β ...) while a rule with alpha values is matched at one place
+ * 		-- in their 'deep' form, as FeatMatrix holds them : 0 negative, 2 positive, 9 despecified (see FeatMatrix.applyAlphaValues())
+ * each alpha symbol has a fixed slot (see slotOf()), given to it when a FeatMatrix using it is built,
+ * 		so that a frame is a fixed array indexed by slot : binding and looking up values allocates nothing.
+ * a frame is held by one match attempt at a time -- the alpha classes use the frame of their thread (see forThisThread()), clearing it between places --
+ * 		and the values are never written into the rule's own FeatMatrix objects : 
+ * 		the frame holds its own copies of those it is asked about (see of()), with the values bound so far applied,
+ * 		so that a rule is only read while it is matched, and can be matched on any number of threads at once.
+ * 		as a thread keeps its frame, each copy is only made once per thread, and clearing or applying values to it are mask operations (see FeatMatrix).
+ */
+public class AlphaBindings {
+
+	public static final int MAX_SLOTS = 64; // one bit of a long each, for bound
+	private static final HashMap<Character, Integer> SLOTS = new HashMap<Character, Integer>(); // guarded by the class
+	private static volatile char[] symbsBySlot = new char[0]; // copy-on-write, so it can be read without locking
+	private static final ThreadLocal<AlphaBindings> FRAMES = ThreadLocal.withInitial(AlphaBindings::new); 
+
+	private final char[] vals = new char[MAX_SLOTS];
+	private long bound; // bit slot set if the symbol of that slot has a value
+	
+	// this frame's copy of a FeatMatrix with alpha values, and the slots bound when values were last applied to it
+	private static final class View
+	{
+		final FeatMatrix fm; 
+		long applied; 
+		View(FeatMatrix fm)	{	this.fm = fm;	}
+	}
+	private IdentityHashMap<RestrictPhone, View> views; // by the rule's own FeatMatrix -- made when first needed
+	private View[] applied = new View[4]; // the views with values applied, to reset on clear()
+	private int numApplied; 
+	private AlphaBindings scratch; // see scratchCopy() -- made when first needed
+
+	/**
+	 * @return the frame of the current thread, cleared -- for a realize() to bind the values of its match attempts in
+	 * 		it must not be held past the call that asked for it, as the next call on the thread gets the same frame. 
+	 */
+	public static AlphaBindings forThisThread()
+	{
+		AlphaBindings frame = FRAMES.get(); 
+		frame.clear(); 
+		return frame; 
+	}
+
+	/**
+	 * @return the slot of the alpha symbol @param symb, giving it the next one if it has none yet
+	 */
+	public static synchronized int slotOf(char symb)
+	{
+		Integer slot = SLOTS.get(symb);
+		if (slot != null)	return slot;
+		if (SLOTS.size() >= MAX_SLOTS)
+			throw new RuntimeException("ERROR: at most "+MAX_SLOTS+" distinct alpha symbols are supported, tried to add '"+symb+"'");
+		slot = SLOTS.size();
+		SLOTS.put(symb, slot);
+		char[] grown = Arrays.copyOf(symbsBySlot, slot + 1);
+		grown[slot] = symb;
+		symbsBySlot = grown;
+		return slot;
+	}
+
+	// @return the alpha symbol of @param slot
+	public static char symbOf(int slot)	{	return symbsBySlot[slot];	}
+
+	public boolean isBound(int slot)	{	return (bound & (1L << slot)) != 0;	}
+
+	// @return the value bound at @param slot -- only meaningful if isBound(slot)
+	public char get(int slot)	{	return vals[slot];	}
+
+	// @return the value bound to alpha symbol @param symb, or '1' if it has none
+	public char get(char symb)
+	{
+		char[] symbs = symbsBySlot; 
+		for (int slot = 0; slot < symbs.length; slot++)
+			if (symbs[slot] == symb)	return isBound(slot) ? vals[slot] : '1'; 
+		return '1'; 
+	}
+
+	// binds @param val to @param slot, replacing any value it had
+	public void bind(int slot, char val)
+	{
+		vals[slot] = val;
+		bound |= 1L << slot;
+	}
+
+	// binds all the values of @param other here, replacing those of the same slots
+	public void putAll(AlphaBindings other)
+	{
+		for (long b = other.bound; b != 0; b &= b - 1)
+		{
+			int slot = Long.numberOfTrailingZeros(b);
+			vals[slot] = other.vals[slot];
+		}
+		bound |= other.bound;
+	}
+
+	// makes these the same bindings as @param other
+	public void copyFrom(AlphaBindings other)
+	{
+		clear(); 
+		System.arraycopy(other.vals, 0, vals, 0, MAX_SLOTS);
+		bound = other.bound;
+	}
+
+	/**
+	 * @return a second frame, kept by this one, made the same bindings as it
+	 * 		-- for values bound only tentatively, e.g. for one target (see SChangePhoneAlpha.posteriorMatch()), without making a frame each time 
+	 * 		it is only valid until the next call of this. 
+	 */
+	public AlphaBindings scratchCopy()
+	{
+		if (scratch == null)	scratch = new AlphaBindings(); 
+		scratch.copyFrom(this); 
+		return scratch; 
+	}
+
+	/**
+	 * @return @param restr as it is in this match attempt : if it is a FeatMatrix with alpha values, 
+	 * 		this frame's own copy of it, with all the values bound so far applied -- otherwise @param restr itself
+	 */
+	public RestrictPhone of(RestrictPhone restr)
+	{
+		if (!(restr instanceof FeatMatrix) || !restr.has_alpha_specs())	return restr; 
+		return viewOf(restr).fm; 
+	}
+	
+	private View viewOf(RestrictPhone restr)
+	{
+		if (views == null)	views = new IdentityHashMap<RestrictPhone, View>(); 
+		View view = views.get(restr); 
+		if (view == null)	views.put(restr, view = new View(new FeatMatrix((FeatMatrix) restr))); 
+		if ((bound & ~view.applied) != 0)
+		{
+			view.fm.applyAlphaValues(this); 
+			markApplied(view); 
+		}
+		return view; 
+	}
+	
+	// notes that all the values bound so far have been applied to @param view
+	private void markApplied(View view)
+	{
+		if (view.applied == 0)
+		{
+			if (numApplied == applied.length)	applied = Arrays.copyOf(applied, 2 * numApplied); 
+			applied[numApplied++] = view; 
+		}
+		view.applied = bound; 
+	}
+	
+	/**
+	 * binds here the values that @param inp has for the alpha symbols of @param restr that are still unset in this frame
+	 * @return whether any were bound -- see FeatMatrix.extractAndApplyAlphaValues()
+	 */
+	public boolean extract(RestrictPhone restr, SequentialPhonic inp)
+	{
+		if (!(restr instanceof FeatMatrix) || !restr.has_alpha_specs())	return restr.extractAndApplyAlphaValues(inp, this); 
+		View view = viewOf(restr); 
+		boolean extracted = view.fm.extractAndApplyAlphaValues(inp, this); 
+		if (bound != 0)	markApplied(view); // it applies all of them
+		return extracted; 
+	}
+	
+	// clears the values bound, and returns the copies of this frame to the rule's values -- for the next match attempt
+	public void clear()
+	{
+		bound = 0; 
+		for (int vi = 0; vi < numApplied; vi++)
+		{
+			applied[vi].fm.resetAlphaValues(); 
+			applied[vi].applied = 0; 
+			applied[vi] = null; 
+		}
+		numApplied = 0; 
+	}
+
+	public boolean isEmpty()	{	return bound == 0;	}
+
+	public int size()	{	return Long.bitCount(bound);	}
+
+	@Override
+	public String toString()
+	{
+		String output = "{";
+		for (long b = bound; b != 0; b &= b - 1)
+		{
+			int slot = Long.numberOfTrailingZeros(b);
+			output += (output.length() > 1 ? ", " : "") + symbOf(slot) + "=" + vals[slot];
+		}
+		return output + "}";
+	}
+}
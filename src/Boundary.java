@@ -1,10 +1,9 @@
-import java.util.HashMap;
 import java.util.List;
 
 public class Boundary extends PseudoPhone {
 	
 	public Boundary (String t)
-	{	type = t;	}
+	{	type = t; kind = Kind.ofBoundType(t);	}
 	
 	public String print() 
 	{
@@ -15,16 +14,13 @@ public class Boundary extends PseudoPhone {
 	}
 	
 	public boolean compare(List<SequentialPhonic> phonSeq, int ind)
-	{	
-		if(type.equals("non word bound"))
-			return phonSeq.get(ind).getType().equals("word bound") == false; 
-		return phonSeq.get(ind).getType().equals(type); 	
-	}
+	{	return compare(phonSeq.get(ind));	}
 
 	public boolean compare(SequentialPhonic cand) 
-	{	if(type.equals("non word bound"))
-			return cand.getType().equals("word bound") == false; 
-		return cand.getType().equals(type);	
+	{	if(kind == Kind.NON_WORD_BOUND)
+			return cand.getKind() != Kind.WORD_BOUND; 
+		if(kind == Kind.OTHER_BOUND)	return type.equals(cand.getType()); 
+		return cand.getKind() == kind;	
 	}
 	
 	public boolean comparePreAlpha(SequentialPhonic cand)	
@@ -45,13 +41,13 @@ public class Boundary extends PseudoPhone {
 	{	return new Boundary(type);	}
 
 	@Override
-	public void applyAlphaValues(HashMap<String, String> alphVals) {
+	public void applyAlphaValues(AlphaBindings alphVals) {
 		/* do nothing*/
 	}
 
 	@Override
-	public HashMap<String, String> extractAndApplyAlphaValues(SequentialPhonic inp) {
-		return null;
+	public boolean extractAndApplyAlphaValues(SequentialPhonic inp, AlphaBindings into) {
+		return false;
 	}
 
 	@Override
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * compiled form of a SequentialFilter with neither parens nor alpha values -- i.e. a fixed sequence of place restrictions --
+ * 		that finds every place of an input where it matches in one scan of the input, rather than a walk from each place.
+ * it is a bit-parallel automaton : for a prior context, scanning left to right, bit i of its state is set
+ * 		if restrictions 0 to i can be matched ending at the place scanned, or before it with only bounds restriction i passes over since;
+ * 		for a posterior context, scanning right to left, if restrictions i to the last can be matched starting there, likewise.
+ * 		at each place it is updated with two masks of the element there, computed once per phone :
+ * 		the restrictions that match it, and those that pass over it (see SequentialFilter.passesOverBound()).
+ * as in SequentialFilter's matchers, whether a bound is passed over depends on the restriction to be matched next going away from the target,
+ * 		so the places found are exactly those isPriorMatch() and isPosteriorMatch() would accept.
+ * the masks of phones are filled as they are met, into a table that is only ever replaced by a larger copy once it is filled in,
+ * 		so one instance serves all threads realizing a rule at once, as the filter holding it does (cf. FeatMatrix's match bits).
+ */
+public class ContextAutomaton {
+
+	public static final int MAX_PLACES = 63; // one bit of a long each, with the top bit marking the masks of phones known
+	private static final long KNOWN = 1L << 63;
+
+	private final SequentialFilter filter;
+	private final int numPlaces;
+	private final long[] pseudoMatches = new long[4], pseudoPassed = new long[4]; // by ~code in PhonSeq
+	private volatile AtomicLongArray phoneMatches = new AtomicLongArray(0); // by phone id, each mask | KNOWN once filled -- phones are never passed over
+
+	public ContextAutomaton(SequentialFilter filter)
+	{
+		this.filter = filter;
+		numPlaces = filter.getPlaceRestrs().size();
+		if (numPlaces == 0 || numPlaces > MAX_PLACES)
+			throw new RuntimeException("ERROR: a context automaton needs from 1 to "+MAX_PLACES+" places, not "+numPlaces);
+		for (int pi = 0; pi < 4; pi++)
+		{
+			SequentialPhonic ph = PhonSeq.decode(~pi);
+			pseudoMatches[pi] = matchesOf(ph);
+			for (int ri = 0; ri < numPlaces; ri++)
+				if (filter.passesOverBound(ph, ri))	pseudoPassed[pi] |= 1L << ri;
+		}
+	}
+
+	// @return the mask of the place restrictions that match @param ph, rather than passing over it
+	private long matchesOf(SequentialPhonic ph)
+	{
+		List<RestrictPhone> placeRestrs = filter.getPlaceRestrs();
+		long mask = 0;
+		for (int ri = 0; ri < numPlaces; ri++)
+			if (!filter.passesOverBound(ph, ri) && placeRestrs.get(ri).compare(ph))	mask |= 1L << ri;
+		return mask;
+	}
+
+	// @return the mask of the place restrictions that match the element with @param code in a PhonSeq
+	long matches(int code)
+	{
+		if (code < 0)	return pseudoMatches[~code];
+		AtomicLongArray table = phoneMatches;
+		long entry = code < table.length() ? table.get(code) : 0;
+		if (entry == 0)
+		{
+			entry = matchesOf(Phone.byId(code)) | KNOWN;
+			store(code, entry);
+		}
+		return entry & ~KNOWN;
+	}
+
+	// sets the entry of @param code to @param entry, growing the table into a new one first if need be
+	private synchronized void store(int code, long entry)
+	{
+		AtomicLongArray table = phoneMatches;
+		if (code >= table.length())
+		{
+			AtomicLongArray grown = new AtomicLongArray(Math.max(code + 1, 2 * table.length()));
+			for (int i = 0; i < table.length(); i++)	grown.set(i, table.get(i));
+			grown.set(code, entry);
+			phoneMatches = grown;
+		}
+		else	table.set(code, entry);
+	}
+
+	// @return the mask of the place restrictions that pass over the element with @param code in a PhonSeq
+	long passed(int code)	{	return code < 0 ? pseudoPassed[~code] : 0;	}
+
+	int numPlaces()	{	return numPlaces;	}
+
+	/**
+	 * @return @param sites, or a larger array if it is too small for @param input,
+	 * 		with bit p (of sites[p / 64]) set iff the filter matches as a prior context of a target starting at place p of the input, and no others.
+	 */
+	public long[] priorSites(PhonSeq input, long[] sites)
+	{
+		int size = input.size();
+		sites = cleared(sites, size + 1);
+		long last = 1L << (numPlaces - 1), state = 0;
+		for (int ci = 0; ci < size; ci++)
+		{
+			int code = input.codeAt(ci);
+			state = (state & passed(code)) | (((state << 1) | 1) & matches(code));
+			if ((state & last) != 0)	sites[(ci + 1) >>> 6] |= 1L << (ci + 1);
+		}
+		return sites;
+	}
+
+	/**
+	 * @return @param sites, or a larger array if it is too small for @param input,
+	 * 		with bit p set iff the filter matches as a posterior context starting at place p of the input, and no others.
+	 */
+	public long[] posteriorSites(PhonSeq input, long[] sites)
+	{
+		int size = input.size();
+		sites = cleared(sites, size + 1);
+		long last = 1L << (numPlaces - 1), state = 0;
+		for (int ci = size - 1; ci >= 0; ci--)
+		{
+			int code = input.codeAt(ci);
+			state = (state & passed(code)) | (((state >>> 1) | last) & matches(code));
+			if ((state & 1) != 0)	sites[ci >>> 6] |= 1L << ci;
+		}
+		return sites;
+	}
+
+	// @return @param sites emptied, or a new array if it has fewer than @param bits bits
+	private static long[] cleared(long[] sites, int bits)
+	{
+		int words = (bits + 63) >>> 6;
+		if (sites == null || sites.length < words)	return new long[words];
+		Arrays.fill(sites, 0, words, 0);
+		return sites;
+	}
+}
@@ -0,0 +1,144 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * compact log of the derivation of each etymon over a Simulation
+ * rather than building the text of each derivation as the simulation goes,
+ * 		only events are stored for each etymon, as pairs of ints : (event code, form id)
+ * 		where the form is the one resulting from the event, interned in a FormPool.
+ * an event code >= 0 is the index of the rule that changed the etymon,
+ * 		while a negative code -(1 + i) marks hitting a stage (or the end), i being the index of its label in a second FormPool.
+ * the text of a derivation is only rendered on demand (render()), in exactly the same format that used to be built directly :
+ * 		the initial form, then one line per event :
+ * 			"[form] | [rule index] : [rule]" for a rule that changed the etymon
+ * 			"[stage name] stage form : [form]" for a stage
+ * 			"Final form : [form]" at the end of the simulation
+ * it is not synchronized : in a parallel simulation, each worker logs into a buffer of its own (see newBuffer()),
+ * 		and the buffers are merged into the log once the workers are done (see merge()).
+ */
+public class DerivationLog {
+
+	private final String[] initForms; // first line of each derivation
+	private final String[] ruleLabels; // printed form of each rule, computed only once per rule
+	private final FormPool forms, labels;
+
+	private final int[][] events; // for each etymon, its (code, form id) pairs, one after the other
+	private final int[] eventsLen; // number of ints in use in each etymon's events array
+
+	private final static int INIT_EVENTS_CAPACITY = 8;
+	private final static String FINAL_LABEL = "Final form : ";
+
+	/**
+	 * @param initForms -- first line of the derivation of each etymon, typically its input form
+	 * @param ruleLabels -- printed form of each rule of the cascade, by index
+	 */
+	public DerivationLog(String[] initForms, String[] ruleLabels)
+	{
+		this.initForms = initForms;
+		this.ruleLabels = ruleLabels;
+		forms = new FormPool();
+		labels = new FormPool();
+		events = new int[initForms.length][];
+		eventsLen = new int[initForms.length];
+	}
+
+	public void logRuleEffect(int etID, int ruleInd, String resultForm)
+	{	addEvent(etID, ruleInd, resultForm);	}
+
+	public void logStageForm(int etID, String stageName, String form)
+	{	addEvent(etID, -1 - labels.intern(stageName+" stage form : "), form);	}
+
+	public void logFinalForm(int etID, String form)
+	{	addEvent(etID, -1 - labels.intern(FINAL_LABEL), form);	}
+
+	private void addEvent(int etID, int code, String form)
+	{	addEvent(etID, code, forms.intern(form));	}
+
+	private void addEvent(int etID, int code, int formId)
+	{
+		int[] etEvents = events[etID];
+		int len = eventsLen[etID];
+		if (etEvents == null)	etEvents = events[etID] = new int[INIT_EVENTS_CAPACITY];
+		else if (len + 2 > etEvents.length)	etEvents = events[etID] = Arrays.copyOf(etEvents, etEvents.length * 2);
+		etEvents[len] = code;
+		etEvents[len + 1] = formId;
+		eventsLen[etID] = len + 2;
+	}
+
+	// @return an empty log for the same etyma and rules, to be merged into this one later
+	public DerivationLog newBuffer()	{	return new DerivationLog(initForms, ruleLabels);	}
+
+	// appends the events of each etymon in @param buffers (see newBuffer()) to its events in this log
+		// each etymon must have been logged into at most one of the buffers.
+	public void merge(List<DerivationLog> buffers)
+	{
+		for (DerivationLog buf : buffers)
+		{
+			int[] formIds = forms.internAll(buf.forms), labelIds = labels.internAll(buf.labels);
+			for (int eti = 0; eti < events.length; eti++)
+				for (int evi = 0; evi < buf.eventsLen[eti]; evi += 2)
+				{
+					int code = buf.events[eti][evi];
+					addEvent(eti, code >= 0 ? code : -1 - labelIds[-1 - code], formIds[buf.events[eti][evi + 1]]);
+				}
+		}
+	}
+
+	// @return the text of the derivation of the etymon with index @param etID
+	public String render(int etID)
+	{
+		StringBuilder out = new StringBuilder(initForms[etID]);
+		int[] etEvents = events[etID];
+		for (int evi = 0; evi < eventsLen[etID]; evi += 2)
+		{
+			int code = etEvents[evi];
+			String form = forms.getForm(etEvents[evi + 1]);
+			out.append('\n');
+			if (code >= 0)	out.append(form).append(" | ").append(code).append(" : ").append(ruleLabels[code]);
+			else	out.append(labels.getForm(-1 - code)).append(form);
+		}
+		return out.toString();
+	}
+
+	public String[] renderAll()
+	{
+		String[] out = new String[initForms.length];
+		for (int eti = 0; eti < out.length; eti++)	out[eti] = render(eti);
+		return out;
+	}
+
+	// number of distinct forms stored
+	public int numForms()	{	return forms.size();	}
+	
+	// for checkpoints (see Simulation.writeCheckpoint()) : the events of each etymon, and the pools 
+		// the initial forms and rule labels are not written, as they are those of the simulation being restored. 
+	public void writeTo(DataOutputStream out) throws IOException
+	{
+		out.writeInt(events.length);
+		for (int eti = 0; eti < events.length; eti++)
+		{
+			out.writeInt(eventsLen[eti]);
+			for (int evi = 0; evi < eventsLen[eti]; evi++)	out.writeInt(events[eti][evi]);
+		}
+		forms.writeTo(out);
+		labels.writeTo(out);
+	}
+	
+	// replaces the events of this log with those written by writeTo()
+	public void readFrom(DataInputStream in) throws IOException
+	{
+		if (in.readInt() != events.length)	throw new RuntimeException("Error: derivation log of checkpoint is for a different number of etyma");
+		for (int eti = 0; eti < events.length; eti++)
+		{
+			int len = in.readInt();
+			events[eti] = len == 0 ? null : new int[Math.max(INIT_EVENTS_CAPACITY, len)];
+			for (int evi = 0; evi < len; evi++)	events[eti][evi] = in.readInt();
+			eventsLen[eti] = len;
+		}
+		forms.readFrom(in);
+		labels.readFrom(in);
+	}
+}
@@ -12,6 +12,10 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * main class for diachronic derivation system
@@ -29,6 +33,7 @@ public class DiachronicSimulator {
 	
 	private static HashMap<String, String> phoneSymbToFeatsMap;
 	private static HashMap<String, String[]> diacriticMap; 
+	private static PhoneRegistry phoneRegistry; // resolves the phone symbols of the lexicon file -- see parseLexPhon()
 	private static HashMap<String, String[]> featImplications; 
 	private static Etymon[] inputForms;
 	private static Lexicon goldOutputLexicon;
@@ -58,6 +63,13 @@ public class DiachronicSimulator {
 	private static String lexFileLoc;
 	
 	private static double id_wt; 
+	private static int num_threads; 
+	private static boolean etymon_major; 
+	private static int realize_cache_size; 
+	private static String checkpointLoc, resumeLoc; // null if not checkpointing, not resuming 
+	private static int checkpoint_every; 
+	private static String cacheLoc; // null if not caching simulation states across runs
+	private static int cache_max_mb, cache_every; 
 	private static boolean DEBUG_RULE_PROCESSING, DEBUG_STAGES, print_changes_each_rule, stage_pause, ignore_stages, 
 		no_feat_impls, no_symb_diacritics, skip_file_creation, VERBOSE, contextualize_FED; 
 	
@@ -647,6 +659,10 @@ public class DiachronicSimulator {
 		int lfli =  0 ; //"lex file line index"
 		if (lexiconHasHeader)	lexFileLines.remove(0); 
 		
+		phoneRegistry = new PhoneRegistry(phoneSymbToFeatsMap, featIndices, no_symb_diacritics ? null : diacriticMap); 
+		List<String> lexForms = new ArrayList<String>(); // all the forms to parse, in the order of the file
+		int formsPerLine = 1 + (justInput ? 0 : NUM_GOLD_STAGES + (hasGoldOutput ? 1 : 0)); 
+		
 		while(lfli < NUM_ETYMA)
 		{
 			String theLine = lexFileLines.get(lfli);
@@ -655,18 +671,41 @@ public class DiachronicSimulator {
 				throw new RuntimeException("ERROR: incorrect number of columns in line "+lfli);
 			
 			initStrForms[lfli] = justInput ? theLine : theLine.split(""+UTILS.LEX_DELIM)[0]; 
-			inputForms[lfli] = parseLexPhon(initStrForms[lfli]);
+			lexForms.add(initStrForms[lfli]); 
 			if (!justInput)
 			{
 				String[] forms = theLine.split(""+UTILS.LEX_DELIM); 
-				if(NUM_GOLD_STAGES > 0)
-					for (int gsi = 0 ; gsi < NUM_GOLD_STAGES ; gsi++)
-						goldForms[gsi][lfli] = parseLexPhon(forms[gsi+1]);
-				if (hasGoldOutput)
-					goldResults[lfli] = parseLexPhon(forms[NUM_GOLD_STAGES+1]);
+				for (int fi = 1; fi < formsPerLine; fi++)	lexForms.add(forms[fi]); 
 			}
 			lfli++;
-		}		
+		}
+		
+		// the symbols are all resolved first, at once, so that each line is then parsed independently of the others 
+			// and they can be parsed by several threads at once (see PhoneRegistry). 
+		phoneRegistry.resolveAll(lexForms); 
+		IntConsumer parseLine = li -> {
+			inputForms[li] = parseLexPhon(lexForms.get(li * formsPerLine)); 
+			if (!justInput)
+			{
+				for (int gsi = 0 ; gsi < NUM_GOLD_STAGES ; gsi++)
+					goldForms[gsi][li] = parseLexPhon(lexForms.get(li * formsPerLine + gsi + 1));
+				if (hasGoldOutput)
+					goldResults[li] = parseLexPhon(lexForms.get(li * formsPerLine + NUM_GOLD_STAGES + 1));
+			}
+		}; 
+		if (num_threads > 1)
+		{
+			ForkJoinPool parsePool = new ForkJoinPool(num_threads); 
+			try {
+				parsePool.submit(() -> IntStream.range(0, NUM_ETYMA).parallel().forEach(parseLine)).get(); 
+			} catch (InterruptedException | ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException)	throw (RuntimeException) e.getCause(); 
+				throw new RuntimeException("Error while parsing the lexicon file", e); 
+			} finally {
+				parsePool.shutdown(); 
+			}
+		}
+		else	for (lfli = 0; lfli < NUM_ETYMA; lfli++)	parseLine.accept(lfli); 
 
 		//NOTE keeping gold lexica around solely for purpose of initializing Simulation objects at this point.
 		if(NUM_GOLD_STAGES > 0)
@@ -689,10 +728,50 @@ public class DiachronicSimulator {
 				theSimulation.setInputStageName(inputName);
 		theSimulation.setStepPrinterval(UTILS.PRINTERVAL); 
 		theSimulation.setOpacity(!print_changes_each_rule);
+		theSimulation.setNumThreads(num_threads);
+		theSimulation.setEtymonMajor(etymon_major);
+		theSimulation.setRealizationCacheSize(realize_cache_size);
+		if (checkpointLoc != null)	theSimulation.setCheckpointing(new File(checkpointLoc), checkpoint_every);
 
 		goldStageInd = 0; blackStageInd=0;
 			//index IN THE ARRAYS that the next stage to look for will be at .
 		
+		if (cacheLoc != null)
+		{
+			PrefixStateCache prefixCache; 
+			try {
+				prefixCache = new PrefixStateCache(new File(cacheLoc), (long) cache_max_mb << 20, 
+						PrefixStateCache.digestContext(Arrays.asList(lexFileLoc, symbDefsLoc, 
+								no_feat_impls ? null : featImplsLoc, no_symb_diacritics ? null : symbDiacriticsLoc), 
+							"no_feat_impls="+no_feat_impls+";no_symb_diacritics="+no_symb_diacritics)); 
+			}
+			catch (IOException e) {
+				throw new RuntimeException("Error: could not read input files to set up state cache : "+e.getMessage()); 
+			}
+			theSimulation.setPrefixCache(prefixCache, cache_every);
+			if (resumeLoc == null)
+			{
+				int resumedAt = prefixCache.resume(theSimulation); 
+				if (resumedAt > 0)
+				{
+					goldStageInd = theSimulation.getGoldStageInd(); 
+					blackStageInd = theSimulation.getBlackStageInd(); 
+					System.out.println("Resuming simulation from cached state at rule "+resumedAt); 
+				}
+			}
+		}
+		
+		if (resumeLoc != null)
+		{
+			try {	theSimulation.restoreCheckpoint(new File(resumeLoc));	}
+			catch (IOException e) {
+				throw new RuntimeException("Error: could not resume from checkpoint "+resumeLoc+" : "+e.getMessage()); 
+			}
+			goldStageInd = theSimulation.getGoldStageInd(); 
+			blackStageInd = theSimulation.getBlackStageInd(); 
+			System.out.println("Resuming simulation from checkpoint "+resumeLoc+" at rule "+theSimulation.getInstant()); 
+		}
+		
 		File dir = new File(""+runPrefix); 
 		if (!skip_file_creation) {
 			dir.mkdir(); 
@@ -761,6 +840,9 @@ public class DiachronicSimulator {
 		}
 		
 		System.out.println("Simulation complete.");
+		if (VERBOSE && theSimulation.getRealizationCache() != null)
+			System.out.println(theSimulation.getRealizationCache().statsReport()); 
+		if (VERBOSE)	System.out.println(theSimulation.prefilterReport()); 
 		
 		if (!skip_file_creation) {  
 			System.out.println("making derivation files in "+dir);
@@ -802,6 +884,7 @@ public class DiachronicSimulator {
 				}
 			}
 		}
+		theSimulation.shutdownWorkers(); 
 		System.out.println("Thank you for using DiaSim"); 
 		inp.close();
 	}
@@ -868,7 +951,7 @@ public class DiachronicSimulator {
 				
 				for(SequentialPhonic ph : phs)
 				{
-					if(ph.getType().equals("phone"))
+					if(ph.isPhone())
 					{
 						if(!phonesSeenInWord.contains(ph.print()))
 						{
@@ -920,57 +1003,14 @@ public class DiachronicSimulator {
 				phones.add(new Boundary(toPhone.equals("#") ? "word bound" : "morph bound"));
 			else
 			{
-				if (!phoneSymbToFeatsMap.containsKey(toPhone))
-				{
-					boolean invalid_phone_error = true; 
-					
-					/**
-					 * if the symbol isn't present in symbolDefs but it is a diacritic-marked variant of a symbol in it, 
-					 * it will be rescued here, by adding a new symbol to phoneSymbToFeatsMap
-					 * 	with feats a modified version of the basis according to the feature specifications
-					 * 	that are associated to that diacritic in diacriticMap
-					 *  if a phone already exists with that feature set, it will simply be replaced with that one. 
-					 * at present it can only have one diacritic added onto it here. 
-					*/
-					if (!no_symb_diacritics)
-					{
-						List<String> diacritsLeft = new ArrayList<String>(diacriticMap.keySet()); 
-						while (diacritsLeft.size()>0)
-						{
-							String diacrit = diacritsLeft.remove(0); 
-							if (toPhone.contains(diacrit))
-							{
-								String rest_of_phone = toPhone+""; 
-								rest_of_phone = toPhone.replace(diacrit,""); 
-								if(phoneSymbToFeatsMap.containsKey(rest_of_phone))
-								{
-									invalid_phone_error = false; 
-									String int_feats = phoneSymbToFeatsMap.get(rest_of_phone); 
-									for (String feat_spec : diacriticMap.get(diacrit)) 
-									{
-										String feat_here = feat_spec.substring(1); 
-										if (featIndices.containsKey(feat_here))
-										{
-											int featIndex = featIndices.get(feat_here); 
-											String insertion = ""+UTILS.getFeatspecIntFromMark(feat_spec.charAt(0)); 
-											int_feats = int_feats.substring(0,featIndex) + insertion + int_feats.substring(featIndex+1); 
-										}
-										else throw new RuntimeException("Error: unrecognized feature value, "+feat_spec.substring(1)+", in diacriticized(?) phone :"+toPhone);									
-									}
-									//checking first if there is already a phone with this feature vector -- because adding another phone with the same feature vector will cause errors down the line.
-									if(phoneSymbToFeatsMap.containsValue(int_feats))
-										toPhone = UTILS.getKeyFromValue(phoneSymbToFeatsMap, int_feats); 
-									else	phoneSymbToFeatsMap.put(toPhone, int_feats); 
-								}
-							}
-						}
-					}
-					if (invalid_phone_error)
-						throw new RuntimeException("ERROR: tried to declare a phone in a word in the lexicon using an invalid symbol.\n"
-								+ "Symbol is : '"+toPhone+"', length = "+toPhone.length()
-								+ "\nLex phon is :"+toLexem);
-				}
-				phones.add(new Phone(phoneSymbToFeatsMap.get(toPhone), featIndices, phoneSymbToFeatsMap));
+				/**
+				 * if the symbol isn't present in symbolDefs but it is a diacritic-marked variant of a symbol in it, 
+				 * it will be rescued by the registry, by adding a new symbol to phoneSymbToFeatsMap
+				 * 	with feats a modified version of the basis according to the feature specifications
+				 * 	that are associated to its diacritics in diacriticMap
+				 *  if a phone already exists with that feature set, it will simply be replaced with that one. 
+				 */
+				phones.add(phoneRegistry.get(toPhone, toLexem));
 			}
 		}
 		return new Etymon(phones);
@@ -1525,7 +1565,7 @@ public class DiachronicSimulator {
 			List<SequentialPhonic> phs = lexList[li].getPhonologicalRepresentation();
 			for (SequentialPhonic ph : phs)
 			{
-				if(ph.getType().equals("phone"))
+				if(ph.isPhone())
 				{					
 					totalLevenshtein[phonemeIndices.get(ph.print())] += 
 							ErrorAnalysis.levenshteinDistance(theSimulation.getCurrentResult().getByID(li),
@@ -1570,7 +1610,7 @@ public class DiachronicSimulator {
 			List<SequentialPhonic> phs = lexList[li].getPhonologicalRepresentation();
 			for (SequentialPhonic ph : phs)
 			{
-				if(ph.getType().equals("phone"))
+				if(ph.isPhone())
 				{
 					distMeasure.compute(theSimulation.getCurrentResult().getByID(li),
 							goldOutputLexicon.getByID(li));
@@ -1602,6 +1642,15 @@ public class DiachronicSimulator {
 	//        -symbols, -impl (feature implications file location), 
 	//        -rules (cascade location), -diacrit (diacritics file location), 
 	//        -idcost (insertion/deletion cost)
+	//        -threads (number of threads to apply each rule to the lexicon with; default 1)
+	//        -etymon_major (push each etymon through the whole cascade in turn rather than each rule through the whole lexicon)
+	//        -realize_cache (number of (rule, form) realizations to cache; default 0, i.e. no cache)
+	//        -checkpoint (file to write a checkpoint of the simulation to at each stage)
+	//        -checkpoint_every (number of rules after which to write a checkpoint as well; default 0, i.e. only at stages)
+	//        -resume (checkpoint file to resume the simulation from -- other arguments must be as for the checkpointed run)
+	//        -cache (directory of states cached across runs, resumed from when a cascade only changes after them)
+	//        -cache_max_mb (maximum size of that cache in megabytes; default 1024)
+	//        -cache_every (number of rules after which to cache a state as well as at stages; default 0, i.e. only at stages) 
 	//		  -simple_FED (use constant value rather than contextual similarity calculation for insertion/deletion cost in FED) 
 	//		  -debug_stages: debug stage processing 
 	//
@@ -1621,6 +1670,13 @@ public class DiachronicSimulator {
 		featImplsLoc = "FeatImplications"; 
 		symbDiacriticsLoc = "currentSymbolDiacriticDefs.txt";
 		id_wt = 0.5; 
+		num_threads = 1; 
+		etymon_major = false; 
+		realize_cache_size = 0; 
+		checkpointLoc = null; resumeLoc = null; 
+		checkpoint_every = 0; 
+		cacheLoc = null; 
+		cache_max_mb = 1024; cache_every = 0; 
 		
 		
 		DEBUG_RULE_PROCESSING = false; DEBUG_STAGES = false; 
@@ -1701,6 +1757,65 @@ public class DiachronicSimulator {
 				if (VERBOSE)	System.out.println("insertion/deletion cost ratio to substitution: "+id_wt); 
 			}
 			
+			//number of threads rules are applied to the lexicon with
+			else if (arg.equals("-threads"))
+			{
+				if (i < args.length)	num_threads = Integer.parseInt(args[i++]);
+				else	System.err.println("-threads requires a number of threads");
+				if (VERBOSE)	System.out.println("number of threads: "+num_threads); 
+			}
+			
+			else if (arg.equals("-etymon_major"))
+				etymon_major = true; 
+			
+			//number of rule realizations cached
+			else if (arg.equals("-realize_cache"))
+			{
+				if (i < args.length)	realize_cache_size = Integer.parseInt(args[i++]);
+				else	System.err.println("-realize_cache requires a number of cached realizations");
+				if (VERBOSE)	System.out.println("realization cache size: "+realize_cache_size); 
+			}
+			
+			//checkpointing and resuming
+			else if (arg.equals("-checkpoint"))
+			{
+				if (i < args.length)	checkpointLoc = args[i++];
+				else	System.err.println("-checkpoint requires a file location");
+				if (VERBOSE)	System.out.println("checkpoint file: "+checkpointLoc); 
+			}
+			else if (arg.equals("-checkpoint_every"))
+			{
+				if (i < args.length)	checkpoint_every = Integer.parseInt(args[i++]);
+				else	System.err.println("-checkpoint_every requires a number of rules");
+				if (VERBOSE)	System.out.println("checkpoint every "+checkpoint_every+" rules"); 
+			}
+			else if (arg.equals("-resume"))
+			{
+				if (i < args.length)	resumeLoc = args[i++];
+				else	System.err.println("-resume requires a checkpoint file location");
+				if (VERBOSE)	System.out.println("resuming from checkpoint: "+resumeLoc); 
+			}
+			
+			//caching states across runs
+			else if (arg.equals("-cache"))
+			{
+				if (i < args.length)	cacheLoc = args[i++];
+				else	System.err.println("-cache requires a directory location");
+				if (VERBOSE)	System.out.println("state cache directory: "+cacheLoc); 
+			}
+			else if (arg.equals("-cache_max_mb"))
+			{
+				if (i < args.length)	cache_max_mb = Integer.parseInt(args[i++]);
+				else	System.err.println("-cache_max_mb requires a size in megabytes");
+				if (VERBOSE)	System.out.println("state cache maximum size: "+cache_max_mb+" MB"); 
+			}
+			else if (arg.equals("-cache_every"))
+			{
+				if (i < args.length)	cache_every = Integer.parseInt(args[i++]);
+				else	System.err.println("-cache_every requires a number of rules");
+				if (VERBOSE)	System.out.println("caching state every "+cache_every+" rules"); 
+			}
+			
 			else if (arg.equals("-simple_FED"))
 				contextualize_FED = false; 
 			
@@ -1761,7 +1876,7 @@ public class DiachronicSimulator {
 		}
 		
 		if (i != args.length) //|| no_prefix)
-            throw new Error("Usage: DerivationSimulation [-verbose] [-resphi] [-idcost cost] [-rules afile] [-lex afile] [-symbols afile] [-impl afile] [-diacritics afile] [-out prefix]"); 	
+            throw new Error("Usage: DerivationSimulation [-verbose] [-resphi] [-idcost cost] [-threads n] [-etymon_major] [-realize_cache n] [-checkpoint afile] [-checkpoint_every n] [-resume afile] [-cache adir] [-cache_max_mb n] [-cache_every n] [-rules afile] [-lex afile] [-symbols afile] [-impl afile] [-diacritics afile] [-out prefix]"); 	
 	}
 	
 	private static void printRuleAt(int theInd)
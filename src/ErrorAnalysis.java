@@ -6,6 +6,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Arrays; // used for occasional debugging print statements with arrays, not used otherwise.
 import java.util.Collections;
 
@@ -146,7 +147,7 @@ public class ErrorAnalysis {
 		PRESENT_ETS = new int[EVAL_SAMP_SIZE];
 		int fi = 0;
 		for (int i = 0 ; i < TOTAL_ETYMA; i++)
-		{	if (!theRes.getByID(i).print().equals(UTILS.ABSENT_REPR))
+		{	if (!theRes.getByID(i).isAbsent())
 			{	FILTER[fi] = i;
 				PRESENT_ETS[fi] = i;
 				fi++;
@@ -182,17 +183,17 @@ public class ErrorAnalysis {
 			for(int rphi = 0 ; rphi < resPhInventory.length; rphi++)
 			{
 				Etymon currEt = theRes.getByID(i);
-				isPhInResEt[rphi][i] = (currEt.toString().equals(UTILS.ABSENT_REPR)) ? 
+				isPhInResEt[rphi][i] = (currEt.isAbsent()) ? 
 						false : (currEt.findPhone(resPhInventory[rphi]) != -1);
 			}
 			for (int gphi = 0 ; gphi < goldPhInventory.length; gphi++)
 			{
 				Etymon currEt = theGold.getByID(i);
-				isPhInGoldEt[gphi][i] = (currEt.toString().equals(UTILS.ABSENT_REPR)) ?
+				isPhInGoldEt[gphi][i] = (currEt.isAbsent()) ?
 						false : (currEt.findPhone(goldPhInventory[gphi]) != -1);
 			}
 			
-			if (!theRes.getByID(i).print().equals(UTILS.ABSENT_REPR) && !theGold.getByID(i).print().equals(UTILS.ABSENT_REPR))
+			if (!theRes.getByID(i).isAbsent() && !theGold.getByID(i).isAbsent())
 			{	
 				levDists[i] = levenshteinDistance(theRes.getByID(i), theGold.getByID(i));
 				isHit[i] = (levDists[i] == 0); 
@@ -283,7 +284,7 @@ public class ErrorAnalysis {
 			Etymon currEt = PIV_PT_LEX.getByID(ei);
 			for(int pvi = 0 ; pvi < pivotPhInventory.length; pvi++)
 			{
-				if(!currEt.toString().equals(UTILS.ABSENT_REPR))
+				if(!currEt.isAbsent())
 					isPhInPivEt[pvi][ei] = (currEt.findPhone(pivotPhInventory[pvi]) != -1);
 				else	isPhInPivEt[pvi][ei] = false;
 				if(isPhInPivEt[pvi][ei])	pivPhCts[pvi] += 1; 
@@ -1170,10 +1171,17 @@ public class ErrorAnalysis {
 		errorRateByPivotPhone = new double[pivotPhInventory.length];
 				
 		//determining what etyma are in the subsample
+			// etyma lacking the feature values of the places the filter must match can be ruled out with the lexicon's index
+			// (see RuleSignature) -- unless the filter has no such places, which filtCheck does not allow anyways. 
+		BitSet filtCandidates = filterSeq.getMinSize() == 0 ? null 
+				: PIV_PT_LEX.getCandidateEtyma(new RuleSignature(
+						Collections.singletonList(filterSeq.getMandatoryPlaces()), new ArrayList<RestrictPhone>())); 
 		for (int isi = 0; isi < TOTAL_ETYMA ; isi++)
 		{
-			if(PIV_PT_LEX.getByID(isi).toString().equals(UTILS.ABSENT_REPR))
+			if(PIV_PT_LEX.getByID(isi).isAbsent())
 				IN_SUBSAMP[isi] = false;	//ignore etyma absent at this time;.
+			else if (filtCandidates != null && !filtCandidates.get(isi))
+				IN_SUBSAMP[isi] = false; 
 			else
 				IN_SUBSAMP[isi] = filterSeq.filtCheck(PIV_PT_LEX.getByID(isi).getPhonologicalRepresentation()); 
 			if(IN_SUBSAMP[isi])
@@ -1781,7 +1789,7 @@ public class ErrorAnalysis {
 		for (int phi = 0; phi < phs_here.get(1).size(); phi++) // iterating over miss phones
 		{
 			SequentialPhonic missed_ph_here = phs_here.get(1).get(phi); 
-			if (!missed_ph_here.getType().contains("bound"))
+			if (!missed_ph_here.isBound())
 			{	
 				char[] fstr = missed_ph_here.toString().split(":")[1].toCharArray();
 				
@@ -1798,7 +1806,7 @@ public class ErrorAnalysis {
 		{
 			SequentialPhonic hit_ph_here = phs_here.get(0).get(phi); 
 			
-			if(!hit_ph_here.getType().contains("bound"))
+			if(!hit_ph_here.isBound())
 			{	char[] fstr = hit_ph_here.toString().split(":")[1].toCharArray();
 			
 				for (int spi = 0; spi < featsByIndex.length; spi++)
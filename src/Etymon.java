@@ -14,7 +14,7 @@ import java.util.HashMap;
  * @author Clayton Marr
  */
 public class Etymon {
-	private List<SequentialPhonic> phonRep; //phonological representation
+	private PhonSeq phonRep; //phonological representation -- immutable, so it is shared rather than copied (see PhonSeq)
 	protected String lemma; //name of its paradigm
 	protected String lexClass; //(morpho-)lexical class. Morphosyntactic class, if handled, is to be a key-value pair within morphSynFeatSpecs; 
 	protected HashMap<String,String> morphSynSpecs; 
@@ -25,11 +25,16 @@ public class Etymon {
 	{
 		if (pR.size() != 0) //not an absent or unattested etymon (PseudoEtymon)
 		{	
-			phonRep = new ArrayList<SequentialPhonic>(pR); 
-			if (!phonRep.get(0).equals(new Boundary("word bound")))
-				phonRep.add(0, new Boundary("word bound")); 
-			if (!phonRep.get(phonRep.size()-1).equals(new Boundary("word bound")))
-				phonRep.add(new Boundary("word bound")); 
+			boolean initBound = pR.get(0).equals(new Boundary("word bound")), 
+					finBound = pR.get(pR.size()-1).equals(new Boundary("word bound")); 
+			if (initBound && finBound)	phonRep = PhonSeq.of(pR); // if pR is already a PhonSeq, it is simply shared.
+			else
+			{
+				List<SequentialPhonic> bounded = new ArrayList<SequentialPhonic>(pR); 
+				if (!initBound)	bounded.add(0, new Boundary("word bound")); 
+				if (!finBound)	bounded.add(new Boundary("word bound")); 
+				phonRep = PhonSeq.of(bounded); 
+			}
 		}
 		this.lemma = ""; 
 		this.lexClass = ""; 
@@ -47,7 +52,7 @@ public class Etymon {
 		int i = 0;
 		for(int j = 0; i < out.length; j++)
 		{
-			if (phonRep.get(j).getType().equals("phone"))
+			if (phonRep.codeAt(j) >= 0)
 			{
 				out[i] = phonRep.get(j); 
 				i++; 
@@ -64,33 +69,46 @@ public class Etymon {
 	
 	//index of first location of the phone if it is present, else returns -1 
 	public int findPhone(Phone ph)
-	{
-		for (int i = 1; i < phonRep.size()-1; i++)
-			if (ph.equals(phonRep.get(i)))		return i; 
-		return -1; 
-	}
+	{	return phonRep.indexOf(ph);	}
 	
 	//returns true if at least one phone is changed
 	// false otherwise 
+	// if nothing changed, the phonological representation is kept as is, so no copy is made. 
 	public boolean applyRule(SChange theRule)
 	{
-		List<SequentialPhonic> newPhonRep = theRule.realize(phonRep); 
-		boolean changed = false; 
-		if (newPhonRep.size() != phonRep.size() )	changed = true; 
-		else 
+		// skip words the rule cannot possibly change, without realizing it on them (see RuleSignature) 
+		return theRule.getSignature().mayApply(phonRep) && applyRulePrefiltered(theRule); 
+	}
+	
+	// as applyRule(), for when @param theRule is already known not to be ruled out for this etymon by its signature 
+		// -- e.g. when it is among the candidates found for it by a LexiconIndex (see Lexicon.applyRuleAndGetChangedWords())
+	public boolean applyRulePrefiltered(SChange theRule)
+	{	return applyRulePrefiltered(theRule, -1, null);	}
+	
+	/**
+	 * as applyRulePrefiltered(SChange), but going through @param cache, if it is not null, 
+	 * 		so that the rule (number @param ruleInd in the cascade) only realizes each distinct form once (see RealizationCache)
+	 * 		the phonological representation of this etymon is also replaced by its canonical instance, shared with identical forms. 
+	 */
+	public boolean applyRulePrefiltered(SChange theRule, int ruleInd, RealizationCache cache)
+	{
+		PhonSeq newSeq; 
+		if (cache == null)	newSeq = theRule.realizeChange(phonRep); 
+		else
 		{
-			int prSize = phonRep.size(), i = 0;
-			while (i < prSize && !changed)
-			{
-				changed = !phonRep.get(i).equals(newPhonRep.get(i));
-				i++; 
-			}
+			phonRep = cache.canonical(phonRep); 
+			newSeq = cache.realize(ruleInd, theRule, phonRep); 
+			if (newSeq.equals(phonRep))	newSeq = null; // comparing codes only (see PhonSeq) -- or just instances, as the cache keeps unchanged forms as they are
 		}
-		
-		phonRep = new ArrayList<SequentialPhonic>(newPhonRep); 
-		return changed; 
+		if (newSeq == null)	return false; 
+		phonRep = newSeq; 
+		return true; 
 	}
 	
+	// as applyRule(SChange), but going through @param cache if it is not null -- see applyRulePrefiltered(SChange, int, RealizationCache)
+	public boolean applyRule(SChange theRule, int ruleInd, RealizationCache cache)
+	{	return theRule.getSignature().mayApply(phonRep) && applyRulePrefiltered(theRule, ruleInd, cache);	}
+	
 	
 	public String toString()
 	{
@@ -108,10 +126,16 @@ public class Etymon {
 	{
 		String output = "/"; 
 		for (SequentialPhonic ph : phonRep)
-			if (ph.getType().equals("phone"))	output += ph.print(); 
+			if (ph.isPhone())	output += ph.print(); 
 		return output + "/"; 
 	}
 	
+	// whether this is a PseudoEtymon, i.e. absent or unattested (see UTILS.etymonIsPresent())
+	public boolean isPseudo()	{	return false;	}
+	
+	// i.e. print().equals(UTILS.ABSENT_REPR) -- without building the print
+	public boolean isAbsent()	{	return false;	}
+	
 	public boolean lemmaIsSpecified()	{	return	lemma.length() > 0; 	}
 	public boolean lexClassIsSpecified()	{	return lexClass.length() > 0; 	}
 	public boolean hasMorphSynSpecs()	{	return morphSynSpecs.size() > 0;	} 
@@ -139,8 +163,8 @@ public class Etymon {
 	public int getNumPhones()
 	{
 		int count = 0 ;
-		for (SequentialPhonic sp :  phonRep)
-			if(sp.getType().equals("phone"))
+		for (int i = 0; i < phonRep.size(); i++)
+			if(phonRep.codeAt(i) >= 0)
 				count++; 
 		return count; 
 	}
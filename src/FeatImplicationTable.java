@@ -0,0 +1,168 @@
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * the feature implications (as read from the FeatImplications file) compiled once,
+ * 		over masks of features as Phone and FeatMatrix hold them (bit fi for the feature of index fi)
+ * a trigger is a feature made positive or negative :
+ * 		implications keyed on the feature alone (e.g. "delrel:-son,-cont") apply to both its triggers,
+ * 		those keyed on a value (e.g. "+syl:+son") to that one only. despecification (0) triggers nothing.
+ * for each trigger, this holds the values it implies directly and the closure of those,
+ * 		so that applying the implications of a set of specifications is a few mask operations, rather than string parsing.
+ * as before, an implication never overrides a feature already specified -- explicitly or by an earlier implication --
+ * 		and the implications of that feature's value are then not followed either.
+ */
+public class FeatImplicationTable {
+
+	private final List<String> featNames;
+	private final HashMap<String, Integer> featIndices;
+
+	// indexed by trigger : 2 * feature index, + 1 if positive (see trigger())
+	private final long[] directPos, directNeg, directDespec;
+	private final long[] closurePos, closureNeg, closureDespec;
+	private final int[][] directOrder; // the values implied directly, in the order of the implications, each as 3 * feature index + value (0 -, 1 +, 2 despecified)
+
+	public FeatImplicationTable(List<String> orderedFeats, HashMap<String, String[]> featImpls)
+	{
+		if (orderedFeats.size() > Phone.MAX_FEATS)
+			throw new RuntimeException("ERROR: at most "+Phone.MAX_FEATS+" features are supported, but there are "+orderedFeats.size());
+		featNames = orderedFeats;
+		featIndices = new HashMap<String, Integer>();
+		for (int fi = 0; fi < orderedFeats.size(); fi++)	featIndices.put(orderedFeats.get(fi), fi);
+
+		int numTriggers = 2 * orderedFeats.size();
+		directPos = new long[numTriggers];
+		directNeg = new long[numTriggers];
+		directDespec = new long[numTriggers];
+		directOrder = new int[numTriggers][];
+		for (int t = 0; t < numTriggers; t++)
+		{
+			String feat = orderedFeats.get(t / 2);
+			// those keyed on the value first, as applyImplications always had them.
+			String[] onValue = featImpls == null ? null : featImpls.get((t % 2 == 1 ? "+" : "-") + feat),
+					onFeat = featImpls == null ? null : featImpls.get(feat);
+			int[] order = new int[(onValue == null ? 0 : onValue.length) + (onFeat == null ? 0 : onFeat.length)];
+			int oi = 0;
+			for (String[] impls : new String[][] {onValue, onFeat})
+				if (impls != null)
+					for (String impl : impls)
+					{
+						int code = valueCode(impl);
+						order[oi++] = code;
+						long bit = 1L << (code / 3);
+						if (code % 3 == 1)	directPos[t] |= bit;
+						else if (code % 3 == 0)	directNeg[t] |= bit;
+						else	directDespec[t] |= bit;
+					}
+			directOrder[t] = order;
+		}
+
+		closurePos = new long[numTriggers];
+		closureNeg = new long[numTriggers];
+		closureDespec = new long[numTriggers];
+		for (int t = 0; t < numTriggers; t++)
+		{
+			long trig = 1L << (t / 2);
+			long[] closure = propagate(t % 2 == 1 ? trig : 0, t % 2 == 1 ? 0 : trig, trig);
+			closurePos[t] = closure[0];
+			closureNeg[t] = closure[1];
+			closureDespec[t] = closure[2];
+		}
+	}
+
+	private static int trigger(int featIndex, boolean positive)	{	return 2 * featIndex + (positive ? 1 : 0);	}
+
+	// @return the code in directOrder of @param spec, e.g. "+son"
+	private int valueCode(String spec)
+	{
+		Integer fi = featIndices.get(spec.substring(1));
+		int value = "-+0".indexOf(spec.charAt(0));
+		if (fi == null || value < 0)
+			throw new RuntimeException("ERROR: invalid feature specification in feature implications : '"+spec+"'");
+		return 3 * fi + value;
+	}
+
+	/**
+	 * @return {positive, negative, despecified} : masks of the features given values by the implications of the features
+	 * 		made positive in @param trigPos and negative in @param trigNeg,
+	 * 		among those not in @param specified -- which should include the triggers themselves.
+	 */
+	public long[] implied(long trigPos, long trigNeg, long specified)
+	{
+		long pos = 0, neg = 0, despec = 0;
+		for (long b = trigPos; b != 0; b &= b - 1)
+		{
+			int t = trigger(Long.numberOfTrailingZeros(b), true);
+			pos |= closurePos[t]; neg |= closureNeg[t]; despec |= closureDespec[t];
+		}
+		for (long b = trigNeg; b != 0; b &= b - 1)
+		{
+			int t = trigger(Long.numberOfTrailingZeros(b), false);
+			pos |= closurePos[t]; neg |= closureNeg[t]; despec |= closureDespec[t];
+		}
+		// the union of the closures holds unless it meets a feature already specified, or gives one feature two values
+		if (((pos | neg | despec) & specified) == 0 && (pos & neg) == 0 && ((pos | neg) & despec) == 0)
+			return new long[] {pos, neg, despec};
+		return propagate(trigPos, trigNeg, specified);
+	}
+
+	// implied(), step by step -- a feature given two values at the same step takes them in the order +, -, 0
+	private long[] propagate(long trigPos, long trigNeg, long specified)
+	{
+		long pos = 0, neg = 0, despec = 0;
+		while ((trigPos | trigNeg) != 0)
+		{
+			long nPos = 0, nNeg = 0, nDespec = 0;
+			for (long b = trigPos; b != 0; b &= b - 1)
+			{
+				int t = trigger(Long.numberOfTrailingZeros(b), true);
+				nPos |= directPos[t]; nNeg |= directNeg[t]; nDespec |= directDespec[t];
+			}
+			for (long b = trigNeg; b != 0; b &= b - 1)
+			{
+				int t = trigger(Long.numberOfTrailingZeros(b), false);
+				nPos |= directPos[t]; nNeg |= directNeg[t]; nDespec |= directDespec[t];
+			}
+			nPos &= ~specified;
+			nNeg &= ~(specified | nPos);
+			nDespec &= ~(specified | nPos | nNeg);
+			specified |= nPos | nNeg | nDespec;
+			pos |= nPos; neg |= nNeg; despec |= nDespec;
+			trigPos = nPos;
+			trigNeg = nNeg;
+		}
+		return new long[] {pos, neg, despec};
+	}
+
+	/**
+	 * @return the specifications implied by @param specs, e.g. {"+syl","-hi","αback"}, that they do not already specify,
+	 * 		each preceded by @param delim -- to be appended to them.
+	 * 		they come in the order the implications were always applied in :
+	 * 		those of each specification in turn, then those of the specifications so added.
+	 */
+	public String impliedSpecs(String[] specs, char delim)
+	{
+		long specified = 0;
+		int[] queue = new int[specs.length + featNames.size()];
+		int qEnd = 0;
+		for (String spec : specs)
+		{
+			Integer fi = featIndices.get(spec.substring(1));
+			if (fi == null)	throw new RuntimeException("ERROR: tried to apply implications to invalid feature : '"+spec.substring(1)+"'");
+			specified |= 1L << fi;
+			if (spec.charAt(0) == '+' || spec.charAt(0) == '-')	queue[qEnd++] = trigger(fi, spec.charAt(0) == '+');
+		}
+
+		String output = "";
+		for (int qi = 0; qi < qEnd; qi++)
+			for (int code : directOrder[queue[qi]])
+			{
+				int fi = code / 3;
+				if ((specified & (1L << fi)) != 0)	continue;
+				specified |= 1L << fi;
+				output += delim + ("-+0".charAt(code % 3) + featNames.get(fi));
+				if (code % 3 != 2)	queue[qEnd++] = trigger(fi, code % 3 == 1);
+			}
+		return output;
+	}
+}
@@ -2,28 +2,37 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class FeatMatrix extends Phonic implements RestrictPhone {
 	
 	private char[] init_chArr; //retains mark of alpha values given to constructor class
-		// whereas they assume their functional numerical values in featVect as they become specified
-	private String featVect; // by default a string of 1s, one for each feature
+		// whereas they assume their functional numerical values in the feature vector (see getFeatVect()) as they become specified
+		// by default 1s, one for each feature
 		// as they become specified they become either 0(neg) or 2(pos)
 		// despecification -- i.e. arising only because of feature implications,
 			// the change of a feature from +/- to . in unspecified in a phone operated upon. 
 		// DESPECIFICATION of phones as part of the FeatMatrix is represented as a 9 in FeatSpecs	
+	private long reqPos, reqNeg, reqDespec, unsetAlphas; // masks of the features the feature vector currently has as 2, 0, 9 and unset alpha symbols
+		// these are the state of the matrix : the feature vector and specifications are only spelled out from them when asked for 
+	private long initPos, initNeg, initDespec, initAlphas; // the same for init_chArr, which never changes
+		// bit i of each being for feature i, as in the masks of Phone -- so that compare(), forceTruth() and applying alpha values are a few mask operations
+	private long[] alphMasks; // the features of each symbol of localAlphabet, as in init_chArr -- shared with clones
+	private final MatchBits matchBits; // which pooled phones this matches, if it has no alpha values and so always matches the same ones -- null otherwise
+		// shared with its clones
+	private final Transitions transitions; // the results of forceTruth() on pooled phones, under the same conditions as matchBits 
 	private final char FEAT_DELIM = ','; 
-	private String featSpecs, initSpecs; //"+cor,-dist" etc... separated by FEAT_DELIM 
-		// will always return to initSpecs after alphas are reset. 
+	private String initSpecs; //"+cor,-dist" etc... separated by FEAT_DELIM 
 		// initSpecs, once set, must not under any circumstance be changed.
-		// featSpecs, meanwhile, changes when an alpha value is set... 
-			//TODO need to ascertain this actually works... 
+		// the specifications printed (see toString()) are these with the alpha values set so far in place of their symbols 
 	
 	private List<String> ordFeats; // for retrieving feature indices 
 	
-	private HashMap<String, String[]> featImpls; 
+	private FeatImplicationTable featImpls; 
 	
 	private String localAlphabet; // for handling all symbols functioning as alpha values within the feature specifications... 
+	private int[] alphSlots; // the AlphaBindings slot of each symbol of localAlphabet
 	public static final String FEAT_MATRIX_PRINT_STMT = " @%@ "; 
 	private boolean hasAlphSpecs; 
 	private boolean hasMultifeatAlpha; 	
@@ -47,14 +56,19 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	 * version of constructor with featSpecs passed directly
 	 * should be passed with ',' as  delimiters, and '+/-' as indicators (or '0', for despecification if the result of upstream application of feature implications)
 	 */
-	// 
+	// the feature implications are compiled for this matrix alone : whatever makes many should compile them once and pass the table (see below)
 	public FeatMatrix(String specs, List<String> orderedFeats, HashMap<String, String[]> ftImpls)
+	{	this(specs, orderedFeats, new FeatImplicationTable(orderedFeats, ftImpls));	}
+	
+	// version of constructor with the feature implications already compiled, see FeatImplicationTable
+		// -- held with the feature list, e.g. by SChangeFactory. 
+	public FeatMatrix(String specs, List<String> orderedFeats, FeatImplicationTable ftImpls)
 	{
 		if (specs.length() <= 1)	throw new RuntimeException("Invalid string entered for specs"); 
 		localAlphabet = "";
 		hasMultifeatAlpha = false;
 		type = "feat matrix";
-		featSpecs=specs+""; 
+		kind = Kind.FEAT_MATRIX;
 		initSpecs=specs+""; 
 
 		ordFeats = orderedFeats; 
@@ -90,37 +104,149 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 				// until we despecify it later. 
 				//... and meanwhile, we have 1 for those that were untouched. 	
 		}
-		featVect = new String(init_chArr); 
 		hasAlphSpecs = localAlphabet.length() > 0; 
-	}
+		alphSlots = new int[localAlphabet.length()]; 
+		for (int ai = 0; ai < alphSlots.length; ai++)	alphSlots[ai] = AlphaBindings.slotOf(localAlphabet.charAt(ai)); 
+		alphMasks = new long[localAlphabet.length()]; 
 		
+		for (int fi = 0; fi < init_chArr.length && fi < Phone.MAX_FEATS; fi++)
+		{
+			char c = init_chArr[fi]; 
+			int ai; 
+			if (c == '2')	initPos |= 1L << fi; 
+			else if (c == '0')	initNeg |= 1L << fi; 
+			else if (c == '9')	initDespec |= 1L << fi; 
+			else if ((ai = localAlphabet.indexOf(c)) >= 0)
+			{
+				initAlphas |= 1L << fi; 
+				alphMasks[ai] |= 1L << fi; 
+			}
+		}
+		resetAlphaValues(); 
+		matchBits = hasAlphSpecs ? null : new MatchBits(); 
+		transitions = hasAlphSpecs ? null : new Transitions(); 
+	}
+	
+	/**
+	 * clone constructor
+	 * the clone carries its own alpha state (the masks of its current values),
+	 * 	so that alpha values applied to it never leak into @param dolly and vice versa.
+	 */
+	public FeatMatrix(FeatMatrix dolly)
+	{
+		type = "feat matrix";
+		kind = Kind.FEAT_MATRIX;
+		init_chArr = Arrays.copyOf(dolly.init_chArr, dolly.init_chArr.length);
+		reqPos = dolly.reqPos; 
+		reqNeg = dolly.reqNeg; 
+		reqDespec = dolly.reqDespec; 
+		unsetAlphas = dolly.unsetAlphas; 
+		initPos = dolly.initPos; 
+		initNeg = dolly.initNeg; 
+		initDespec = dolly.initDespec; 
+		initAlphas = dolly.initAlphas; 
+		initSpecs = dolly.initSpecs;
+		ordFeats = dolly.ordFeats;
+		featImpls = dolly.featImpls;
+		localAlphabet = dolly.localAlphabet;
+		alphSlots = dolly.alphSlots;
+		alphMasks = dolly.alphMasks;
+		hasAlphSpecs = dolly.hasAlphSpecs;
+		hasMultifeatAlpha = dolly.hasMultifeatAlpha;
+		matchBits = dolly.matchBits; 
+		transitions = dolly.transitions; 
+	}
+	
 	/**
 	 * checks if candidate phone adheres to the restrictions
 	 * @precondition: they have the same length feature vectors
 	 * @throws UnsetAlphaError */
 	public boolean compare(SequentialPhonic cand)
 	{
-		if (!cand.getType().equals("phone"))
+		if (!(cand instanceof Phone))
 			return false; 
 		
-		char nonSet = first_unset_alpha();
-		if (nonSet != '0')	throw new UnsetAlphaError(""+nonSet); 
-			//formerly -- throw new	RuntimeException("ERROR: tried to compare when alpha style symbol '"+nonSet"' remains uninitialized");
-		
-		String candFeats = cand.toString().split(":")[1]; 
+		Phone candPh = (Phone) cand; 
+		if (matchBits != null && candPh.isPooled())
+		{
+			int id = candPh.getId(); 
+			AtomicLongArray bits = matchBits.bits; 
+			if ((id >> 5) < bits.length())
+			{
+				long known = bits.get(id >> 5) >>> ((id & 31) << 1); 
+				if ((known & 1) != 0)	return (known & 2) != 0; 
+			}
+			matchBits.fill(this, candPh); 
+		}
 		
-		if (candFeats.length() != featVect.length())
+		if (candPh.getFeatString().length() != init_chArr.length)
 			throw new RuntimeException("ERROR: comparing with feature vects of unequal length");
 		
-		for (int i = 0 ; i < candFeats.length(); i++)
+		return compare(candPh.getSpecMask(), candPh.getPosMask()); 
+	}
+	
+	/**
+	 * bitsets over the ids of pooled phones (see Phone.intern()), for a FeatMatrix without alpha values
+	 * -- so that compare() with a pooled phone is a single bit test once the bits of its id are known. 
+	 * They are filled lazily : the first time a phone not yet tested is compared, 
+	 * 		it is tested along with all the phones pooled since the last time -- those with ids from highWater up -- 
+	 * 		e.g. the diacritic phones DiachronicSimulator.parseLexPhon registers at runtime.
+	 */
+	private static final class MatchBits
+	{
+		// two bits per id, in words of 32 ids : the lower set if the pooled phone with that id has been tested, the upper if it matches
+			// both set by a single write, so compare() can read them without locking ; the array is only replaced when it grows. 
+		private volatile AtomicLongArray bits = new AtomicLongArray(0); 
+		private int highWater; // all the pooled phones with lower ids have been tested -- guarded by this
+		
+		// add the bits of @param cand, and of the pooled phones not yet tested from highWater up, testing them against @param fm
+		private synchronized void fill(FeatMatrix fm, Phone cand)
+		{
+			int bound = Math.max(Phone.idBound(), cand.getId() + 1); 
+			if (((bound - 1) >> 5) >= bits.length())
+			{
+				AtomicLongArray grown = new AtomicLongArray(Math.max(((bound - 1) >> 5) + 1, 2 * bits.length())); 
+				for (int wi = 0; wi < bits.length(); wi++)	grown.set(wi, bits.get(wi)); 
+				bits = grown; 
+			}
+			
+			// up to the first id not pooled yet -- one may be taken by a phone still being pooled by another thread. 
+			Phone ph; 
+			while (highWater < bound && (ph = Phone.pooledWithId(highWater)) != null)
+			{
+				test(fm, ph); 
+				highWater++; 
+			}
+			test(fm, cand); 
+		}
+		
+		private void test(FeatMatrix fm, Phone ph)
 		{
-			String restr = featVect.substring(i,i+1),
-					cand_spec = candFeats.substring(i,i+1); 
-			if ("02".contains(restr) && !restr.equals(candFeats.substring(i, i+1)))
-					return false;
-			if ("9".contains(restr) && !"1".equals(cand_spec))	return false; 
+			int id = ph.getId(), shift = (id & 31) << 1; 
+			long word = bits.get(id >> 5); 
+			if ((word & (1L << shift)) != 0 || ph.getFeatString().length() != fm.init_chArr.length)	return; 
+			boolean match = matches(ph.getSpecMask(), ph.getPosMask(), fm.reqPos, fm.reqNeg, fm.reqDespec); 
+			bits.set(id >> 5, word | ((match ? 3L : 1L) << shift)); 
 		}
-		return true;
+	}
+	
+	/**
+	 * checks if a phone with the masks @param spec and @param pos (as returned by Phone.getSpecMask() and getPosMask()) adheres to the restrictions
+	 * -- without allocating anything, for callers that already hold the masks of the phone tested. 
+	 * @throws UnsetAlphaError */
+	public boolean compare(long spec, long pos)
+	{
+		if (unsetAlphas != 0)	throw new UnsetAlphaError(""+first_unset_alpha()); 
+			//formerly -- throw new	RuntimeException("ERROR: tried to compare when alpha style symbol '"+nonSet"' remains uninitialized");
+		return matches(spec, pos, reqPos, reqNeg, reqDespec); 
+	}
+	
+	// whether a phone of masks @param spec and @param pos (see Phone) has all of the features of @param posReq positive, 
+		// of @param negReq negative, and of @param despecReq unspecified. 
+	private static boolean matches(long spec, long pos, long posReq, long negReq, long despecReq)
+	{
+		long specified = posReq | negReq; 
+		return (spec & specified) == specified && (pos & specified) == posReq && (spec & despecReq) == 0; 
 	}
 	
 	/**
@@ -129,27 +255,20 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	 */
 	public boolean comparePreAlpha(SequentialPhonic cand)
 	{
-		if (!cand.getType().equals("phone"))
+		if (!(cand instanceof Phone))
 			return false; 
 		
-		String candFeats = cand.toString().split(":")[1]; 
-		if (candFeats.length() != featVect.length())
+		Phone candPh = (Phone) cand; 
+		if (candPh.getFeatString().length() != init_chArr.length)
 			throw new RuntimeException("ERROR: comparing with feature vects of unequal length");
 		
-		for (int i = 0 ; i < candFeats.length(); i++)
-		{
-			String restr = ""+init_chArr[i]; // working with init_chArr -- which retains alpha values. 
-			String cand_feat = candFeats.substring(i, i+1); 
-			if ("02".contains(restr) && !restr.equals(cand_feat))
-					return false;
-			if ("9".contains(restr) && !"1".equals(cand_feat))	
-				return false; 
-			if (!DESPEC_VIA_ALPHA && localAlphabet.contains(restr) && "91".contains(cand_feat))
-				return false; 
-			// if DESPEC_VIA_ALPHA is true, no need to handled alpha valued features at all; 
-					// this will already doing nothing for alpha valued items -- which is exactly as should happen, they are being ignored. 
-		}
-		return true;
+		// working with the masks of init_chArr -- which retains alpha values. 
+		long spec = candPh.getSpecMask(); 
+		if (!matches(spec, candPh.getPosMask(), initPos, initNeg, initDespec))	return false; 
+		// alpha valued features must be specified in the candidate 
+		// if DESPEC_VIA_ALPHA is true, no need to handled alpha valued features at all; 
+				// this will already doing nothing for alpha valued items -- which is exactly as should happen, they are being ignored. 
+		return DESPEC_VIA_ALPHA || (spec & initAlphas) == initAlphas;
 	}
 	
 	/**
@@ -170,28 +289,60 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	 * @throws UnsetAlphaError */
 	public Phone forceTruth(Phone patient)
 	{
-		char nonSet = first_unset_alpha();
+		if (transitions != null && patient.isPooled())
+		{
+			AtomicReferenceArray<Phone> results = transitions.results; 
+			int id = patient.getId(); 
+			Phone result = id < results.length() ? results.get(id) : null; 
+			if (result != null)	return result; 
+			result = forceTruthOnMasks(patient); 
+			transitions.put(id, result); 
+			return result; 
+		}
+		return forceTruthOnMasks(patient); 
+	}
 	
-		if (nonSet != '0')	throw new UnsetAlphaError(""+nonSet);
+	private Phone forceTruthOnMasks(Phone patient)
+	{
+		if (unsetAlphas != 0)	throw new UnsetAlphaError(""+first_unset_alpha());
 		
-		Phone output = new Phone(patient); 
-		String patFeats = patient.getFeatString(); //i.e. feature values of the patient, the phone undergoing modification
-		if (patFeats.length() != featVect.length())
+		if (patient.getFeatString().length() != init_chArr.length)
 			throw new Error("ERROR: cannot forceTruths on phone with different length feat vector");
 			// technically it could still function if they aren't the same length, 
 			// but for security best to call it out, as obscure errors could easily ensue
 			// prior to Dec 20 2022, this was throwing an UnsetAlphaError-- unclear why. 
 		
-		for (int fvi = 0; fvi < featVect.length() ; fvi++)
+		// features required positive or negative become specified as such, those to despecify unspecified, the others are kept
+			// -- as do those the feature implications of the values required give a value, which they do not give already. 
+			// those of a matrix parsed as a destination are already among its values (see SChangeFactory.applyImplications()), as are those of alpha values once applied, 
+			// so this only adds any to a matrix made from specifications directly. 
+		long[] implied = featImpls.implied(reqPos, reqNeg, reqPos | reqNeg | reqDespec); 
+		long pos = reqPos | implied[0], neg = reqNeg | implied[1], despec = reqDespec | implied[2]; 
+		return Phone.pooled(patient, (patient.getSpecMask() & ~despec) | pos | neg, 
+				(patient.getPosMask() & ~(neg | despec)) | pos); 
+	}
+	
+	/**
+	 * table of the results of forceTruth() on pooled phones, by their ids, for a FeatMatrix without alpha values
+	 * 		-- whose feature values, including those due to feature implications, never change,
+	 * 		so that applying a rule again to a phone it already changed once does not rebuild the result. 
+	 * filled lazily as phones are operated upon. 
+	 */
+	private static final class Transitions
+	{
+		// a slot only ever holds the one result for its id, so forceTruth() can read it without locking ; the array is only replaced when it grows. 
+		private volatile AtomicReferenceArray<Phone> results = new AtomicReferenceArray<Phone>(0); 
+		
+		private synchronized void put(int id, Phone result)
 		{
-			char ch = featVect.charAt(fvi); 
-			if (ch != '1')
-				patFeats = patFeats.substring(0, fvi) + 
-					(ch == '9' ? '1' : ch) + patFeats.substring(fvi+1); 
+			if (id >= results.length())
+			{
+				AtomicReferenceArray<Phone> grown = new AtomicReferenceArray<Phone>(Math.max(id + 1, results.length() * 2)); 
+				for (int pi = 0; pi < results.length(); pi++)	grown.set(pi, results.get(pi)); 
+				results = grown; 
+			}
+			results.set(id, result); 
 		}
-		output.setFeats(patFeats);
-		
-		return output; 
 	}
 	
 	/**
@@ -207,10 +358,10 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 			throw new UnsetAlphaError(""+nonSet); 
 		
 		SequentialPhonic patient = patientSeq.get(ind);
-		if (!patient.getType().equals("phone"))
+		if (!patient.isPhone())
 			throw new RuntimeException("ERROR: trying to force cand restrictions on non-phone!");
 		List<SequentialPhonic> outSeq = new ArrayList<SequentialPhonic>(patientSeq); 
-		outSeq.set(ind, forceTruth(new Phone(patient)));
+		outSeq.set(ind, forceTruth((Phone) patient));
 		return outSeq;
 	}
 
@@ -221,7 +372,7 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 			if(othersString.length() < 4)	return false; //no chance
 			String[] othersSpecs = othersString.split(""+FEAT_DELIM); 
 			String othersVect = ""; 
-			for(int ti = 0; ti < this.featVect.length() ; ti++)	othersVect+="1"; //fill with default 1s  
+			for(int ti = 0; ti < this.init_chArr.length ; ti++)	othersVect+="1"; //fill with default 1s  
 			for(int ki = 0; ki < othersSpecs.length; ki++)
 			{
 				int othFtInd = ordFeats.indexOf(othersSpecs[ki].substring(1));
@@ -237,64 +388,15 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	
 	@Override
 	public void resetAlphaValues()
-	{	featVect = new String(init_chArr);
-		featSpecs = ""+initSpecs;
-	}
-	
-	private char toSurfVal(char i)
-	{
-		if (!"0129".contains(""+i))	throw new Error("Error: invalid specification value.");
-		return "-0+0".charAt("0129".indexOf(i)); 
-	}
-	
-	private char fromSurfVal(char i)
-	{
-		if (!"-+.0".contains(""+i))	throw new Error("Error: invalid specification value.");
-		return "0299".charAt("-+.0".indexOf(i)); 
-	}
-	
-	/**
-	 * apply a value to the feature vector
-	 * in practice, used as auxiliary to applyAlphaValues
-	 * @param value to apply, should be surface value i.e. ( + positive , - negative , 0 despecify... 
-	 * 		// ... in practice 0/despecify should never really happen except via a feature implication 
-	 * @param feature to apply it to, should be standard feature name as seen in symbolDefs (or replacement file) and featImplications (likewise)
-	 * 		as this class does not use feature translations; i.e. "stres", "cor", etc. 
-	 * @param via_impl -- whether or not this feature is being applied via a feature implication
-	 * 		i.e. if so, featSpecs won't be modified, though the feat vect will be
-	 * 		and downstream implications will still be triggered either way
-	 * 		in practice, as of December 2022, via_impl is always true.
-	 */
-	private void apply_value(String value, String feature, boolean via_impl)
 	{
-		int aff_ind = ordFeats.indexOf(feature);
-			
-		if (featVect.charAt(aff_ind) != '1')	return; 	// really this shouldn't ever happen unless it was going to be the same value that was already stored (due to being constructed that way, or due to a prior modification due to filling of alpha values earlier)... may need to put more guard rails here if issues with the feature vector arise		
-		featVect = featVect.substring(0, aff_ind) + fromSurfVal(value.charAt(0)) + featVect.substring(aff_ind+1); 
-		
-		if (!via_impl) // if it's not via implication 
-		{	
-			if (featSpecs.contains(feature))
-				System.out.println("Likely error: tried to modify featSpecs for specification of feature "+feature+", but it was already there. Continuing, but you may wish to examine this..."); 
-			else	featSpecs += FEAT_DELIM + value + feature;  
-		}
-		
-		//for handling any downstream specifications, 
-		List<String> impls = new ArrayList<String>(); 
-		
-		// first any implications contingent to both + and - specification 
-		if("+-".contains(""+value) && featImpls.keySet().contains(feature))
-			impls.addAll(Arrays.asList(featImpls.get(feature))); 
-		// then any implications contingent to the specific case observed, with + or with - 
-		if(featImpls.keySet().contains(value+feature))
-			impls.addAll(Arrays.asList(featImpls.get(value+feature))); 
-		
-		for (String ii: impls)	apply_value(ii.substring(0,1), ii.substring(1), true); 
+		reqPos = initPos; 
+		reqNeg = initNeg; 
+		reqDespec = initDespec; 
+		unsetAlphas = initAlphas; 
 	}
 	
 	@Override
-	//TODO need to replace values also in featSpecs here. 
-	// alphVals should be HashMap with keys of the original alpha symbol set, and values of the surface form of the specification being imposed (+,-)
+	// alphVals holds values bound to alpha symbols, see AlphaBindings
 		// this class should probably not be used for despecification of alpha values 
 	// the values in alphVals should be in their 'deep' values with 0 meaning negative, 2 positive, 9 despecified
 		// the deep value 1 should never occur as a value in alphVals
@@ -303,35 +405,27 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 				// neither should the application of alpha values treat despecification as some ternary third feature.
 				// of the same functional load as negative or positive feature values.
 				// to change this behavior, set the class parameter DESPEC_VIA_ALPHA to true. 
-	// @precondition both the keys and the values in alphVals should be one character strings
-	// this class should be called using the outputs of extractAndApplyAlphaValues
-	public void applyAlphaValues(HashMap<String,String> alphVals)
+	// this class should be called with the values bound by extractAndApplyAlphaValues
+	public void applyAlphaValues(AlphaBindings alphVals)
 	{
-		if (alphVals.keySet().size() == 0)	return; 
+		if (alphVals.isEmpty())	return; 
 		if (! hasAlphSpecs )	return; 	// don't apply alpha value filling if there's no values to fill! 
 		
-		List<String> alphFeatsWImpls = new ArrayList<String>(); 
-			// to store which features were modified 
+		long trigPos = 0, trigNeg = 0; 
+			// masks of the features made + and - , 
 			// so that feature implications can be triggered AFTER they each are modified
 				// preempting a possible error in the case where an alpha symbol specified for multiple features 
 					// is specified for both a feature and one it has an implication for
 				// (in practice that would never cause a serious error unless there was something weird in a custom feature implications file, 
 				//  ... but in that case it would create a very subtle error!) 
-			// entries in this list will be of form "+son,-cont,0delrel" etc -- i.e. value symbol followed by the feature's abbreviated name	
 		
-		for (String s : alphVals.keySet())
+		for (int ai = 0; ai < alphSlots.length; ai++)
 		{
-			//s is the current alpha symbol, every instance of it in the featVect is being changed to the extracted value, val.  
-			
-			if(alphVals.get(s).length() > 1)
-				throw new RuntimeException("Error: value for alpha-specified feature (alpha symbol: "+s+") "
-						+ "is more than one character : "+alphVals.get(s)); 
-				//alphVals.get(s) must be just one character
-				// s must also be one character,
-					//but that is for reasons external to this class,
-					// as the length of the featVect must be static. 
-			
-			char val = alphVals.get(s).charAt(0); 
+			// every feature still holding the current alpha symbol is being changed to the extracted value, val.  
+			if (!alphVals.isBound(alphSlots[ai]))	continue; 
+			long feats = alphMasks[ai] & unsetAlphas; 
+			if (feats == 0)	continue; // already applied 
+			char val = alphVals.get(alphSlots[ai]); 
 				
 			// disallow despecification via alpha unless DESPEC_VIA_ALPHA is true.
 			if (val == '9' && !DESPEC_VIA_ALPHA)	continue;
@@ -344,35 +438,20 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 				}
 			}
 			
-			while(featVect.contains(s))
-			{
-				int nxind = featVect.indexOf(s); 
-				
-				featVect = featVect.substring(0, nxind) + val + featVect.substring(nxind+1); 
-
-				// feat implications stuff flagged here for handling downstream, at the same time as modifications to featSpecs. 
-				// flag  first the case of an any-specification implication, relevant if the value is + or -
-				// and then the case of a specific-specification implication, where it has to either be + or be - for the feature implication to be present.
-					// these have to be handled separately but NOT disjunctively, because there can be features 
-				// that have both any-specification implications, and specific specification implications
-				// for example, "stres" in the standard FeatImplications file. 	
-				
-				String currSpec = ordFeats.get(nxind); 
-				
-				//handling first the any-specification case to store for implications downstream
-				if("02".contains(""+val) && featImpls.keySet().contains(currSpec))
-				{	alphFeatsWImpls.add(currSpec); } 
-					//will actually be handled downstream in this method.
-				
-				// feat specs modification
-				int fsloc = featSpecs.indexOf(s+currSpec);	//index of where in featSpecs to modify. 
-				featSpecs = featSpecs.substring(0,fsloc) + toSurfVal(val) + featSpecs.substring(fsloc+1); 
-				
-				//now the specific specification for implications downstream. 
-				currSpec = toSurfVal(val)+currSpec; 
-				if (featImpls.keySet().contains(currSpec))
-					alphFeatsWImpls.add(currSpec); 
+			unsetAlphas &= ~feats; 
+			// feat implications flagged here for handling downstream
+			// any feature made + or - triggers them : those contingent to both + and - specification, and those contingent to the value observed
+				// -- for example, "stres" in the standard FeatImplications file has both.
+			if (val == '2')
+			{	reqPos |= feats; 
+				trigPos |= feats; 
 			}
+			else if (val == '0')
+			{	reqNeg |= feats; 
+				trigNeg |= feats; 
+			}
+			else if (val == '9')	reqDespec |= feats; 
+			// and a '1' leaves them unspecified. 
 		}
 		
 		//now handling any feature implications. 
@@ -381,13 +460,15 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 		 * -- as long as this class is accessed by alpha values previously extracted via .extractAndApplyAlphaValues(SequentialPhonic)
 		 * as that class interacts with the entire feature vector of the SequentialPhonic (in practice, a Phone.) 
 		 */
-		for (String afii : alphFeatsWImpls)	
-		{
-			String[] impls = featImpls.get(afii); 
-			for (String impc : impls)	
-				apply_value(impc.substring(0,1), // although this looks potentially bugged, it won't be, because the second column of implications must always have a specific value associated with the feature (otherwise, the feature implication would be vacuous)
-						impc.substring(1), true); 
-		}
+		if ((trigPos | trigNeg) == 0)	return; 
+		long[] implied = featImpls.implied(trigPos, trigNeg, reqPos | reqNeg | reqDespec | unsetAlphas); 
+		// a feature implied positive is made so, else one implied negative, else one implied despecified
+		long pos = implied[0], neg = implied[1] & ~pos, despec = implied[2] & ~pos & ~neg, all = pos | neg | despec; 
+		if (all == 0)	return; 
+		reqPos = (reqPos & ~all) | pos; 
+		reqNeg = (reqNeg & ~all) | neg; 
+		reqDespec = (reqDespec & ~all) | despec; 
+		unsetAlphas &= ~all; 
 	}
 	
 	
@@ -397,14 +478,14 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	@Override
 	public boolean check_for_alpha_conflict(SequentialPhonic inp) 
 	{
-		if (!inp.getType().equals("phone"))
+		if (!inp.isPhone())
 		{	System.out.println("Warning -- potential error: tried to check for alpha value impossibility of a juncture phone!");
 			return false; 
 		}
 		if (!hasMultifeatAlpha)	return false;	
 		
 		HashMap<String, String> currReqs = new HashMap<String,String> ();
-		char[] cand_feat_vect = inp.toString().split(":")[1].toCharArray(); 
+		char[] cand_feat_vect = inp.getFeatString().toCharArray(); 
 		
 		if (cand_feat_vect.length != init_chArr.length)	throw new RuntimeException("tried to check for alpha value impossibility "
 				+ "for feat vects of differing length"); 
@@ -437,49 +518,60 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	
 	@Override
 	/**
-	 *  for a FeatMatrix with either no alpha specs or no UNFILLED alpha specs, returns empty HashMap. 
-	 * also returns an empty HashMap if specifications that are not unspecified alpha specs are inconsistent with @param inp 
+	 *  for a FeatMatrix with either no alpha specs or no UNFILLED alpha specs, extracts nothing and returns false. 
+	 * also extracts nothing if specifications that are not unspecified alpha specs are inconsistent with @param inp 
 	 * - because if these requirements are not met, the extraction alpha values for a context phone or input phone cannot occur in the first place
 	 * 	* as it won't be a valid situation for the operation of the sound change in question 
-	* otherwise APPLIES the value specifications that alpha-valued features have in the SequentialPhonic @param inp
-	* 	and then returns those exact value specifications that were applied
+	* otherwise binds in @param into the value specifications that alpha-valued features have in the SequentialPhonic @param inp
+	* 	-- replacing any values @param into had for those alpha symbols -- APPLIES them, and returns true
 	*/
-	public HashMap<String,String> extractAndApplyAlphaValues(SequentialPhonic inp)
+	public boolean extractAndApplyAlphaValues(SequentialPhonic inp, AlphaBindings into)
 	{
-		if (first_unset_alpha() == '0')	return new HashMap<String,String>(); 
+		if (unsetAlphas == 0)	return false; 
 		
-		HashMap<String, String> currReqs = new HashMap<String,String> ();
-		char[] cand_feat_vect = inp.toString().split(":")[1].toCharArray(); 
-			// "candidate feature vector"
-		if (cand_feat_vect.length != featVect.length()) 	throw new RuntimeException("cannot extract alpha values for feat vectors of inconsistent length"); 
-
-		for (int c = 0 ; c < cand_feat_vect.length; c++)
+		long spec, pos; // "candidate" masks, as for Phone
+		if (inp instanceof Phone)
 		{
-			char fvspec = featVect.charAt(c); 
-
-			if (!"0192".contains(""+fvspec)) // if true, this is a feature with a not-yet-extracted alpha value. 
+			spec = ((Phone) inp).getSpecMask(); 
+			pos = ((Phone) inp).getPosMask(); 
+		}
+		else
+		{
+			String cand_feat_vect = inp.getFeatString(); 
+			spec = 0; 
+			pos = 0; 
+			for (int c = 0; c < cand_feat_vect.length() && c < Phone.MAX_FEATS; c++)
 			{
-				if (currReqs.containsKey(""+fvspec))
-				{ // value conflict between already-set alpha value, and the (different or redundant) one encountered. 
-					String currspec = currReqs.get(""+fvspec); 
-					if (currspec.equals("9")  && '1'!=cand_feat_vect[c])
-							throw new RuntimeException("Error : Alpha value conflict encountered -- should have called check_for_alpha_conflict() first!"); 
-					else	if (!currspec.equals(cand_feat_vect[c]+""))
-						throw new RuntimeException("Error : Alpha value conflict encountered -- should have called check_for_alpha_conflict() first!"); 
-				}
-				else if (cand_feat_vect[c] == '1')	// i.e. alpha-symbol, 9 (despecification)
-					currReqs.put(""+fvspec, "9"); // TODO NOTE this is extracted but at present it will NOT be applied. 
-				else	
-					currReqs.put(""+fvspec, cand_feat_vect[c]+""); // i.e. alpha symbol, and 0 or 2 (negative, positive)
-			
+				char cv = cand_feat_vect.charAt(c); 
+				if (cv == '2')	pos |= 1L << c; 
+				if (cv == '2' || cv == '0')	spec |= 1L << c; 
 			}
-			else if ("02".contains(""+fvspec) && fvspec != cand_feat_vect[c] ) //i.e. clash in specified values for the same feature between FeatMatrix and candidate input for a sound change
-				return new HashMap<String,String>(); //i.e. this is not a valid input in the first place, nothing to extract -- return empty HashMap
 		}
+		if (inp.getFeatString().length() != init_chArr.length) 	throw new RuntimeException("cannot extract alpha values for feat vectors of inconsistent length"); 
+
+		//i.e. clash in specified values for the same feature between FeatMatrix and candidate input for a sound change
+		if (!matches(spec, pos, reqPos, reqNeg, 0))	return false; //i.e. this is not a valid input in the first place, nothing to extract 
 		
-		applyAlphaValues(currReqs); //this appears to often be redundantly called in practice  
-	
-		return currReqs; 
+		boolean extracted = false; 
+		for (int ai = 0; ai < alphSlots.length; ai++)
+		{
+			long feats = alphMasks[ai] & unsetAlphas; // features with a not-yet-extracted alpha value. 
+			if (feats == 0)	continue; 
+			
+			// the value of the first of them : 0 or 2 (negative, positive), or 9 (despecification) 
+				// TODO NOTE a 9 is extracted but at present it will NOT be applied. 
+			long first = feats & -feats; 
+			char val = (spec & first) == 0 ? '9' : ((pos & first) != 0 ? '2' : '0'); 
+			// value conflict between the others and it  
+			if (val == '9' ? (spec & feats) != 0 : (spec & feats) != feats || (pos & feats) != (val == '2' ? feats : 0))
+				throw new RuntimeException("Error : Alpha value conflict encountered -- should have called check_for_alpha_conflict() first!"); 
+			into.bind(alphSlots[ai], val); 
+			extracted = true; 
+		}
+		
+		applyAlphaValues(into); //this appears to often be redundantly called in practice  
+			// only the symbols just bound are still unset here, so the others in into change nothing
+		return extracted; 
 	}
 	
 	@Override
@@ -487,13 +579,13 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	public boolean has_multifeat_alpha() {	return hasMultifeatAlpha;	}
 	
 	// returns '0' if not set
-	// otherwise the first alpha value detected that has not become a number, in featVect
+	// otherwise the first alpha value detected that has not become a number, in the feature vector
 	@Override
 	public char first_unset_alpha()
 	{
-		if (localAlphabet.length() > 0)
-			for (char c : localAlphabet.toCharArray())
-				if(featVect.contains(""+c))	return c; 
+		if (unsetAlphas != 0)
+			for (int ai = 0; ai < alphMasks.length; ai++)
+				if ((alphMasks[ai] & unsetAlphas) != 0)	return localAlphabet.charAt(ai); 
 		
 		return '0';
 	}
@@ -504,13 +596,37 @@ public class FeatMatrix extends Phonic implements RestrictPhone {
 	public String getLocalAlphabet()
 	{	return ""+localAlphabet;	}
 	
+	// the specifications, with the alpha values set so far in place of their symbols
 	@Override
 	public String toString() 
-	{	return "["+featSpecs+"]";		}
+	{
+		if (unsetAlphas == initAlphas)	return "["+initSpecs+"]"; 
+		String[] specs = initSpecs.split(""+FEAT_DELIM); 
+		for (int si = 0; si < specs.length; si++)
+		{
+			if ("-+0".contains(specs[si].substring(0, 1)))	continue; 
+			long feat = 1L << ordFeats.indexOf(specs[si].substring(1)); 
+			if ((unsetAlphas & feat) == 0)
+				specs[si] = ((reqPos & feat) != 0 ? "+" : ((reqNeg & feat) != 0 ? "-" : "0")) + specs[si].substring(1); 
+		}
+		return "["+String.join(""+FEAT_DELIM, specs)+"]"; 
+	}
 	
 	//TODO currently used for testing only
+	// the feature vector : 0 negative, 2 positive, 9 despecified, 1 unspecified, for each feature -- or its alpha symbol while that is unset 
 	public String getFeatVect() 
-	{	return ""+featVect; 	}
+	{
+		char[] vect = Arrays.copyOf(init_chArr, init_chArr.length); 
+		for (int fi = 0; fi < vect.length && fi < Phone.MAX_FEATS; fi++)
+		{
+			long feat = 1L << fi; 
+			if ((reqPos & feat) != 0)	vect[fi] = '2'; 
+			else if ((reqNeg & feat) != 0)	vect[fi] = '0'; 
+			else if ((reqDespec & feat) != 0)	vect[fi] = '9'; 
+			else if ((unsetAlphas & feat) == 0)	vect[fi] = '1'; 
+		}
+		return new String(vect); 
+	}
 	
 	@Override
 	public String print() {
@@ -0,0 +1,103 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/** FeatMatrixBenchmark -- times FeatMatrix.compare(SequentialPhonic) over the inventory of symbolDefs.csv,
+ * 		against the string parsing comparison it used before feature values were held as masks
+ * usage: java FeatMatrixBenchmark [symbol definitions location] [feature implications location] [rounds]
+ */
+public class FeatMatrixBenchmark {
+
+	public static void main(String args[])
+	{
+		String symbDefsLoc = args.length > 0 ? args[0] : "symbolDefs.csv",
+				featImplsLoc = args.length > 1 ? args[1] : "FeatImplications";
+		int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+		HashMap<String, Integer> featIndices = new HashMap<String, Integer>();
+		HashMap<String, String> symbsToFeatures = new HashMap<String, String>();
+		String[] feats = UTILS.readSymbolDefs(symbDefsLoc, featIndices, symbsToFeatures);
+		List<String> featList = Arrays.asList(feats);
+		FeatImplicationTable featImplTable = new FeatImplicationTable(featList, UTILS.readFeatImplications(featImplsLoc));
+
+		List<Phone> inventory = new ArrayList<Phone>();
+		for (String symb : symbsToFeatures.keySet())
+			inventory.add(Phone.intern(new Phone(symbsToFeatures.get(symb), featIndices, symbsToFeatures)));
+
+		// one matrix per feature value, and one per pair of values of adjacent features
+		List<FeatMatrix> matrices = new ArrayList<FeatMatrix>();
+		for (int fi = 0; fi < feats.length; fi++)
+		{
+			matrices.add(new FeatMatrix("+"+feats[fi], featList, featImplTable));
+			matrices.add(new FeatMatrix("-"+feats[fi], featList, featImplTable));
+			if (fi + 1 < feats.length)
+				matrices.add(new FeatMatrix("+"+feats[fi]+",-"+feats[fi+1], featList, featImplTable));
+		}
+
+		System.out.println(""+inventory.size()+" phones, "+matrices.size()+" feature matrices, "+rounds+" rounds");
+
+		// warm up both, and check that they agree.
+		int legacyHits = 0, maskHits = 0;
+		for (int r = 0; r < Math.max(rounds / 4, 1); r++)
+		{	legacyHits = runLegacy(matrices, inventory);
+			maskHits = runMasks(matrices, inventory);
+		}
+		if (legacyHits != maskHits)
+			throw new RuntimeException("ERROR: the comparisons disagree, with "+legacyHits+" and "+maskHits+" matches");
+
+		long start = System.nanoTime();
+		for (int r = 0; r < rounds; r++)	legacyHits += runLegacy(matrices, inventory);
+		long legacyNs = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int r = 0; r < rounds; r++)	maskHits += runMasks(matrices, inventory);
+		long maskNs = System.nanoTime() - start;
+
+		double numCompares = (double) rounds * matrices.size() * inventory.size();
+		System.out.println("string parsing compare : "+String.format("%.2f", legacyNs / numCompares)+" ns per comparison");
+		System.out.println("mask compare           : "+String.format("%.2f", maskNs / numCompares)+" ns per comparison");
+		System.out.println("speedup                : "+String.format("%.1f", (double) legacyNs / maskNs)+"x"
+				+ (legacyHits == maskHits ? "" : " -- but the matches differ!"));
+	}
+
+	private static int runLegacy(List<FeatMatrix> matrices, List<Phone> inventory)
+	{
+		int hits = 0;
+		for (FeatMatrix fm : matrices)
+			for (Phone ph : inventory)
+				if (legacyCompare(fm.getFeatVect(), ph))	hits++;
+		return hits;
+	}
+
+	private static int runMasks(List<FeatMatrix> matrices, List<Phone> inventory)
+	{
+		int hits = 0;
+		for (FeatMatrix fm : matrices)
+			for (Phone ph : inventory)
+				if (fm.compare(ph))	hits++;
+		return hits;
+	}
+
+	// FeatMatrix.compare as it was, for matrices without alpha values
+	private static boolean legacyCompare(String featVect, SequentialPhonic cand)
+	{
+		if (!cand.getType().equals("phone"))
+			return false;
+
+		String candFeats = cand.toString().split(":")[1];
+
+		if (candFeats.length() != featVect.length())
+			throw new RuntimeException("ERROR: comparing with feature vects of unequal length");
+
+		for (int i = 0 ; i < candFeats.length(); i++)
+		{
+			String restr = featVect.substring(i,i+1),
+					cand_spec = candFeats.substring(i,i+1);
+			if ("02".contains(restr) && !restr.equals(candFeats.substring(i, i+1)))
+					return false;
+			if ("9".contains(restr) && !"1".equals(cand_spec))	return false;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,61 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * pool of interned strings (typically printed word forms), each identified by an int id
+ * a form that recurs many times over a simulation -- e.g. an etymon's form that survives many stages,
+ * 		or a form reached by several etyma -- is thus stored only once, and logs can record just its id.
+ * ids are assigned consecutively from 0 in order of first interning, and never change.
+ * it is not synchronized : in a parallel simulation, each worker logs into pools of its own, merged afterwards (see internAll()).
+ */
+public class FormPool {
+
+	private final HashMap<String, Integer> idsByForm = new HashMap<String, Integer>();
+	private final List<String> formsById = new ArrayList<String>();
+
+	// @return the id of @param form, which is added to the pool if it is not already in it
+	public int intern(String form)
+	{
+		Integer id = idsByForm.get(form);
+		if (id != null)	return id;
+		int newId = formsById.size();
+		formsById.add(form);
+		idsByForm.put(form, newId);
+		return newId;
+	}
+
+	/**
+	 * interns all the forms of @param other into this pool
+	 * @return the id in this pool of each form of other, by its id there
+	 */
+	public int[] internAll(FormPool other)
+	{
+		int[] ids = new int[other.size()];
+		for (int fi = 0; fi < ids.length; fi++)	ids[fi] = intern(other.getForm(fi));
+		return ids;
+	}
+
+	public String getForm(int id)	{	return formsById.get(id);	}
+
+	public int size()	{	return formsById.size();	}
+
+	// for checkpoints (see Simulation.writeCheckpoint()) : the forms in order of id
+	public void writeTo(DataOutputStream out) throws IOException
+	{
+		out.writeInt(formsById.size());
+		for (String form : formsById)	out.writeUTF(form);
+	}
+
+	// replaces the content of this pool with that written by writeTo(), ids included
+	public void readFrom(DataInputStream in) throws IOException
+	{
+		idsByForm.clear();
+		formsById.clear();
+		int size = in.readInt();
+		for (int fi = 0; fi < size; fi++)	intern(in.readUTF());
+	}
+}
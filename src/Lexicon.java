@@ -1,6 +1,10 @@
 import java.util.List;
+import java.util.Map;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.ArrayList; 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * class for representing the set of words (LexPhon instances) being simulated
@@ -16,6 +20,9 @@ public class Lexicon {
 		// and the unattested ones if this is not the lexicon undergoing forward reconstruction
 	// the etymon indices (functioning as the IDs) should be consistent across Lexicon instances
 		// throughout a Simulation ! 
+	private LexiconIndex index; // built when first needed -- see index()
+	private final BitSet toReindex = new BitSet(); // etyma changed by this lexicon's own methods since the index was last brought up to date
+	private boolean reindexAll = true; // whether etyma may have been changed otherwise since then -- see noteEtymaChanged()
 	
 	public Lexicon(List<Etymon> theWords)
 	{
@@ -47,25 +54,11 @@ public class Lexicon {
 	public HashMap<String, Integer> getPhoneFrequenciesByWord()
 	{
 		HashMap<String, Integer> output = new HashMap<String, Integer>(); 
-		for (Etymon lex : theWordList)
+		for (Map.Entry<String, BitSet> phEts : index().getEtymaByPhone().entrySet())
 		{
-			if (!UTILS.etymonIsPresent(lex))	continue; 
-			
-			List<SequentialPhonic> phonRep = lex.getPhonologicalRepresentation();
-			List<SequentialPhonic> phonesAlreadySeen = new ArrayList<SequentialPhonic>(); 
-			for (SequentialPhonic ph : phonRep)
-			{
-				if(ph.getType().equals("phone"))
-				{
-					if(!phonesAlreadySeen.contains(ph))
-					{	String theFeatVect = ph.getFeatString(); 
-						if (output.containsKey(theFeatVect))
-							output.put(theFeatVect, output.get(theFeatVect)+1); 	
-						else	output.put(theFeatVect, 1); 
-						phonesAlreadySeen.add(ph);
-					}
-				}
-			}
+			// key is the phone's Phone.toString(), i.e. its symbol, then ':' then its feature vector
+			String theFeatVect = phEts.getKey().substring(phEts.getKey().lastIndexOf(':') + 1); 
+			output.merge(theFeatVect, phEts.getValue().cardinality(), Integer::sum); 
 		}
 		return output; 
 	}
@@ -77,42 +70,144 @@ public class Lexicon {
 	// used for writing the trajectory files as the lexicon moves forward through time.
 	public boolean[] applyRuleAndGetChangedWords(SChange rule)
 	{
-		int wlLen = theWordList.length ;
-		boolean[] wordsChanged = new boolean[wlLen]; 
+		return applyRuleAndGetChangedWords(rule, null); 
+	}
+	
+	/**
+	 * parallel version of applyRuleAndGetChangedWords(SChange)
+	 * the etyma are split into contiguous chunks, which are handled as fork-join tasks in @param pool
+	 * all the chunks share @param rule, as realizing it only reads it (the state of its matches is kept per thread, see SequentialFilter and AlphaBindings)
+	 * the output is indexed by etymon id just as in the serial version, so it does not depend on how the chunks are scheduled. 
+	 * if @param pool is null or has a parallelism of one, this is just the serial version. 
+	 */
+	public boolean[] applyRuleAndGetChangedWords(SChange rule, ForkJoinPool pool)
+	{	return applyRuleAndGetChangedWords(rule, -1, null, pool);	}
+	
+	/**
+	 * as applyRuleAndGetChangedWords(SChange, ForkJoinPool), but realizing forms through @param cache if it is not null
+	 * 		(see RealizationCache), @param ruleInd being the index of @param rule in the cascade. 
+	 */
+	public boolean[] applyRuleAndGetChangedWords(SChange rule, int ruleInd, RealizationCache cache, ForkJoinPool pool)
+	{
+		// only visit the etyma the rule could change, as found with the index (see LexiconIndex.candidatesFor())
+		LexiconIndex ind = index(); 
+		if (!ind.getUnattested().isEmpty())
+			throw new RuntimeException("Alert: tried to implement a rule on a PseudoEtymon instance (index = "
+					+ind.getUnattested().nextSetBit(0)+"). Check this.");
+		RuleSignature sig = rule.getSignature(); 
+		BitSet candidates = ind.candidatesFor(sig); 
+		int numPresent = ind.getPresent().cardinality(); 
+		sig.recordChecked(numPresent, numPresent - candidates.cardinality()); 
 		
-		for( int wli = 0; wli < wlLen; wli++)
+		boolean[] wordsChanged = new boolean[theWordList.length]; 
+		if (pool == null || pool.getParallelism() <= 1)
+			applyRuleInRange(rule, ruleInd, cache, candidates, wordsChanged, 0, theWordList.length); 
+		else
 		{
-			if(theWordList[wli].print().equals(UTILS.ABSENT_REPR))	
-				wordsChanged[wli] = false;
-			else if (theWordList[wli].print().equals(UTILS.UNATTD_REPR))
-				throw new RuntimeException("Alert: tried to implement a rule on a PseudoEtymon instance (index = "+wli+"). Check this.");
-			
-			if(theWordList[wli].applyRule(rule))	wordsChanged[wli] = true; 
-			else	wordsChanged[wli] = false; 
+			int chunkSize = Math.max(MIN_CHUNK_SIZE, 
+					theWordList.length / (pool.getParallelism() * CHUNKS_PER_WORKER) + 1); 
+			pool.invoke(new RuleApplicationTask(rule, ruleInd, cache, candidates, wordsChanged, 0, theWordList.length, chunkSize)); 
 		}
+		
+		// only the etyma changed here need indexing again (see index()) 
+		for (int wli = candidates.nextSetBit(0); wli >= 0; wli = candidates.nextSetBit(wli + 1))
+			if (wordsChanged[wli])	toReindex.set(wli); 
 		return wordsChanged; 
 	}
 	
+	// for the parallel version of applyRuleAndGetChangedWords
+		// several chunks per worker so that workers that get the quicker chunks can steal from the others
+	private static final int CHUNKS_PER_WORKER = 4, MIN_CHUNK_SIZE = 64; 
+	
+	private class RuleApplicationTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private final SChange rule; 
+		private final int ruleInd; 
+		private final RealizationCache cache; 
+		private final BitSet candidates; 
+		private final boolean[] wordsChanged; 
+		private final int from, to, chunkSize; 
+		
+		RuleApplicationTask(SChange rule, int ruleInd, RealizationCache cache, BitSet candidates, boolean[] wordsChanged, int from, int to, int chunkSize)
+		{
+			this.rule = rule; this.ruleInd = ruleInd; this.cache = cache; this.candidates = candidates; this.wordsChanged = wordsChanged; 
+			this.from = from; this.to = to; this.chunkSize = chunkSize; 
+		}
+		
+		@Override
+		protected void compute()
+		{
+			if (to - from <= chunkSize)
+				applyRuleInRange(rule, ruleInd, cache, candidates, wordsChanged, from, to); 
+			else
+			{
+				int mid = (from + to) >>> 1; 
+				invokeAll(new RuleApplicationTask(rule, ruleInd, cache, candidates, wordsChanged, from, mid, chunkSize), 
+						new RuleApplicationTask(rule, ruleInd, cache, candidates, wordsChanged, mid, to, chunkSize)); 
+			}
+		}
+	}
+	
+	// applies @param rule to the etyma in @param candidates with indices from @param from (inclusive) to @param to (exclusive),
+		// marking in @param wordsChanged which of them it changed -- the others are left unmarked. 
+		// @param candidates is only read, so it can be shared by the tasks of the parallel version
+		// through @param cache if it is not null -- see Etymon.applyRulePrefiltered(SChange, int, RealizationCache)
+	private void applyRuleInRange(SChange rule, int ruleInd, RealizationCache cache, BitSet candidates, boolean[] wordsChanged, int from, int to)
+	{
+		for (int wli = candidates.nextSetBit(from); wli >= 0 && wli < to; wli = candidates.nextSetBit(wli + 1))
+			wordsChanged[wli] = theWordList[wli].applyRulePrefiltered(rule, ruleInd, cache); 
+	}
+	
+	/**
+	 * @return the inverted index of this lexicon (see LexiconIndex), brought up to date with any change to its etyma since last used
+	 * 		which only costs indexing the changed etyma again : 
+	 * 		only those this lexicon changed itself are checked, unless noteEtymaChanged() was called, in which case all are. 
+	 */
+	private LexiconIndex index()
+	{
+		if (index == null)	index = new LexiconIndex(theWordList.length); 
+		if (reindexAll)	index.sync(theWordList); 
+		else	index.sync(theWordList, toReindex); 
+		reindexAll = false; 
+		toReindex.clear(); 
+		return index; 
+	}
+	
+	/**
+	 * to be called once etyma of this lexicon have been changed other than by its own methods 
+	 * 		-- e.g. by Etymon.applyRule() on etyma from getByID(), or by updateAbsence(int, Etymon) -- 
+	 * 		so that the index checks all of them for changes the next time it is used. 
+	 */
+	public void noteEtymaChanged()	{	reindexAll = true;	}
+	
 	//return list of all phones present in words of the lexicon
+		// in order of first appearance, going through the words in order
 	public Phone[] getPhonemicInventory()
 	{
+		// first appearance of each distinct phone : first etymon containing it, and its place there
+		List<int[]> firstHits = new ArrayList<int[]>(); 
+		for (Map.Entry<String, BitSet> phEts : index().getEtymaByPhone().entrySet())
+		{
+			int eti = phEts.getValue().nextSetBit(0); 
+			List<SequentialPhonic> thePhones = theWordList[eti].getPhonologicalRepresentation(); 
+			int pi = 0; 
+			while (!thePhones.get(pi).toString().equals(phEts.getKey()))	pi++; 
+			firstHits.add(new int[] {eti, pi}); 
+		}
+		firstHits.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1])); 
+		
 		List<String> hitPhonesListStr = new ArrayList<String>(); 
 		List<SequentialPhonic> phList = new ArrayList<SequentialPhonic>(); 
-		for (Etymon theWord : theWordList)
-		{	
-			if (UTILS.etymonIsPresent(theWord))
+		for (int[] hit : firstHits)
+		{
+			SequentialPhonic curPh = theWordList[hit[0]].getPhonologicalRepresentation().get(hit[1]); 
+			if(!hitPhonesListStr.contains(curPh.print()))
 			{
-				List<SequentialPhonic> thePhones = theWord.getPhonologicalRepresentation(); 
-				for (SequentialPhonic curPh : thePhones)
-				{
-					if(curPh.getType().equals("phone"))
-					{
-						if(!hitPhonesListStr.contains(curPh.print()))
-						{
-							hitPhonesListStr.add(curPh.print()); 
-							phList.add(curPh);
-		}}}}}
-		
+				hitPhonesListStr.add(curPh.print()); 
+				phList.add(curPh);
+			}
+		}
 		
 		int numPhones = phList.size(); 
 		Phone[] output = new Phone[numPhones]; 
@@ -124,22 +219,25 @@ public class Lexicon {
 	public boolean[] getPhonePresenceByEt(Phone ph)
 	{
 		boolean[] out = new boolean[theWordList.length];
-		for (int wi = 0 ; wi < theWordList.length; wi++)
-		{
-			out[wi] = 
-					UTILS.etymonIsPresent(theWordList[wi]) 
-						? theWordList[wi].findPhone(ph) != -1 : false;  
-		}
+		BitSet withPh = index().etymaWithPhone(ph); 
+		for (int wi = withPh.nextSetBit(0); wi >= 0; wi = withPh.nextSetBit(wi + 1))	out[wi] = true; 
 		return out;
 	}
 	
+	/**
+	 * @return which etyma (by index) @param sig does not rule out -- i.e. the only ones a rule or filter with that signature could match
+	 * 		(see RuleSignature), absent and unattested etyma never being included. 
+	 */
+	public BitSet getCandidateEtyma(RuleSignature sig)
+	{	return index().candidatesFor(sig);	}
+	
 	//counts for each phoneme
 	public HashMap<String,Integer> getPhonemeCounts()
 	{
 		HashMap<String,Integer> theMap = new HashMap<String,Integer>(); 
 		for (Etymon lex: theWordList)
 		{
-			if (!lex.print().equals(UTILS.ABSENT_REPR))
+			if (!lex.isAbsent())
 				{SequentialPhonic[] thePhones = lex.getPhOnlySeq();
 				for (SequentialPhonic curPh : thePhones)
 				{
@@ -164,7 +262,7 @@ public class Lexicon {
 			List<SequentialPhonic> thePhones = lex.getPhonologicalRepresentation(); 
 			for (SequentialPhonic curPh : thePhones)
 			{
-				if (curPh.getType().equals("phone"))
+				if (curPh.isPhone())
 				{
 					if(curPh.print().equals(targSeq.get(currSeqInd).print()))
 					{
@@ -203,29 +301,41 @@ public class Lexicon {
 					+theLen+") and lexicon under reconstruction ("+theWordList.length+")! Investigate this!");
 		
 		for (int wi = 0 ; wi < theLen ; wi++)
+		{
+			Etymon prev = theWordList[wi]; 
+			updateAbsence(wi, etymaInColumn[wi]); 
+			if (theWordList[wi] != prev)	toReindex.set(wi); 
+		}
+	}
+	
+	/**
+	 * the same update as updateAbsence(Etymon[]), for the single etymon with index @param wi, 
+	 * 		@param et_here being its form in the latest column of the lexicon file
+	 * used by the etymon-major simulation (Simulation.simulateToEndEtymonMajor()), where each etymon reaches a stage on its own. 
+	 * 		as it can be called for several etyma at once from different threads, it does not note the change for the index : 
+	 * 		noteEtymaChanged() must be called once all are done. 
+	 */
+	public void updateAbsence(int wi, Etymon et_here)
+	{
+		// if the etymon is still absent in the lexicon being CFR-d, but present in the stage spec'd forms..
+			// ... then insert it! 	
+		if(theWordList[wi].isAbsent())
 		{	
-Etymon et_here = etymaInColumn[wi]; 
-			
-			// if the etymon is still absent in the lexicon being CFR-d, but present in the stage spec'd forms..
-				// ... then insert it! 	
-			if(theWordList[wi].print().equals(UTILS.ABSENT_REPR))
-			{	
-				if(UTILS.etymonIsPresent(et_here))						
-				{		/** original condition  : !etymaInColumn[wi].print().equals(UTILS.ABSENT_REPR))
-							*  -- however in practice allow "errors" 
-							* whereby uses unattested indicator in lexicon files (currently ">*") 
-							*  to "continue" the absence of an etymon */ 
-					theWordList[wi] = 
-						new Etymon(et_here.getPhonologicalRepresentation());
-			}}
+			if(UTILS.etymonIsPresent(et_here))						
+			{		/** original condition  : !etymaInColumn[wi].print().equals(UTILS.ABSENT_REPR))
+						*  -- however in practice allow "errors" 
+						* whereby uses unattested indicator in lexicon files (currently ">*") 
+						*  to "continue" the absence of an etymon */ 
+				theWordList[wi] = 
+					new Etymon(et_here.getPhonologicalRepresentation());
+		}}
+	
+		// remove from lexicon if it is present and we encounter indication it is now absent 
+		if(et_here.isAbsent())
+			if(!theWordList[wi].isAbsent())
+				theWordList[wi] = new PseudoEtymon(UTILS.ABSENT_REPR); 
 		
-			// remove from lexicon if it is present and we encounter indication it is now absent 
-			if(et_here.print().equals(UTILS.ABSENT_REPR))
-				if(!theWordList[wi].print().equals(UTILS.ABSENT_REPR))
-					theWordList[wi] = new PseudoEtymon(UTILS.ABSENT_REPR); 
-			
-			// don't need to do anything for unattested ">*" entries -- point is that they keep things. 
-		}
+		// don't need to do anything for unattested ">*" entries -- point is that they keep things. 
 	}
 
 	/**
@@ -238,8 +348,8 @@ Etymon et_here = etymaInColumn[wi];
 	{
 		if (!UTILS.etymonIsPresent(origin))	return new PseudoEtymon(origin.print()); 
 		
-		Etymon dolly = new Etymon (
-				new ArrayList<SequentialPhonic> (origin.getPhonologicalRepresentation())); 
+		// the phonological representation is immutable (see PhonSeq), so it is shared rather than copied
+		Etymon dolly = new Etymon (origin.getPhonologicalRepresentation()); 
 		
 		dolly.setLemma(origin.getLemma());
 		dolly.setLexClass(origin.getLexClass());
@@ -262,7 +372,7 @@ Etymon et_here = etymaInColumn[wi];
 	{
 		int cnt= theWordList.length; 
 		for (Etymon lex: theWordList)
-			if (UTILS.PSEUDO_ETYM_REPRS.contains(lex.print()))	cnt--; 
+			if (lex.isPseudo())	cnt--; 
 		return cnt; 
 	}
 	
@@ -270,7 +380,7 @@ Etymon et_here = etymaInColumn[wi];
 	{
 		int cnt = 0;
 		for (Etymon lex: theWordList)
-			if (lex.print().equals(UTILS.ABSENT_REPR))	cnt += 1;
+			if (lex.isAbsent())	cnt += 1;
 		return cnt;
 	}
 	
@@ -278,7 +388,7 @@ Etymon et_here = etymaInColumn[wi];
 	{
 		int cnt = 0;
 		for (Etymon lex: theWordList)
-			if (lex.print().equals(UTILS.UNATTD_REPR))	cnt += 1;
+			if (lex.isPseudo() && !lex.isAbsent())	cnt += 1;
 		return cnt;
 	}
 	
@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * inverted index of the etyma of a Lexicon, from what they contain to the set of etyma (as a BitSet of their indices) containing it :
+ * 		from each phone (keyed by Phone.toString(), i.e. what Phone.equals() compares)
+ * 		and from each feature value (positive, negative or unspecified, for each feature -- see RuleSignature)
+ * 		as well as the sets of etyma present and of etyma unattested.
+ * the index is kept up to date incrementally by sync() :
+ * 		it remembers the (immutable -- see PhonSeq) phonological representation each etymon was indexed with,
+ * 		so only etyma whose representation has since been replaced, i.e. those some rule changed, are indexed again.
+ * 		sync(Etymon[]) checks every etymon for this, so it does not matter how they were changed,
+ * 		while sync(Etymon[], BitSet) only checks the etyma it is told may have changed (see Lexicon.index()).
+ * this is not thread-safe : it is only meant to be used by its Lexicon between rules, not while they are being applied.
+ */
+public class LexiconIndex {
+
+	private PhonSeq[] indexedReps; // representation each etymon was last indexed with ; null for absent and unattested etyma
+	private final BitSet present = new BitSet(), unattested = new BitSet();
+	private final Map<String, BitSet> etymaByPhone = new HashMap<String, BitSet>();
+	private final BitSet[][] etymaByFeatVal = new BitSet[3][]; // [RuleSignature.POS, NEG or UNSPEC][feature index] ; entries null until needed
+	private boolean featValsIndexable = true; // false once an etymon has had more features than the masks can hold
+
+	public LexiconIndex(int numEtyma)
+	{
+		indexedReps = new PhonSeq[numEtyma];
+		for (int v = 0; v < 3; v++)	etymaByFeatVal[v] = new BitSet[64];
+	}
+
+	/**
+	 * bring the index up to date with @param words, the word list of the Lexicon,
+	 * 		indexing again only the etyma whose phonological representation is no longer the very one they were indexed with.
+	 */
+	public void sync(Etymon[] words)
+	{
+		checkSize(words);
+		for (int wi = 0; wi < words.length; wi++)	sync(words, wi);
+	}
+
+	// as sync(Etymon[]), but only for the etyma in @param which -- those that may have changed since they were last indexed.
+	public void sync(Etymon[] words, BitSet which)
+	{
+		checkSize(words);
+		for (int wi = which.nextSetBit(0); wi >= 0; wi = which.nextSetBit(wi + 1))	sync(words, wi);
+	}
+
+	private void checkSize(Etymon[] words)
+	{
+		if (words.length != indexedReps.length)
+			throw new RuntimeException("Error: lexicon index was made for "+indexedReps.length+" etyma, but the lexicon has "+words.length);
+	}
+
+	private void sync(Etymon[] words, int wi)
+	{
+		PhonSeq rep = null;
+		if (words[wi] instanceof PseudoEtymon)	unattested.set(wi, !words[wi].isAbsent());
+		else
+		{
+			unattested.clear(wi);
+			rep = (PhonSeq) words[wi].getPhonologicalRepresentation();
+		}
+		if (rep != indexedReps[wi])	reindex(wi, rep);
+	}
+
+	private void reindex(int wi, PhonSeq rep)
+	{
+		PhonSeq old = indexedReps[wi];
+		if (old != null)
+			for (String key : phoneKeys(old))
+			{
+				BitSet ets = etymaByPhone.get(key);
+				ets.clear(wi);
+				if (ets.isEmpty())	etymaByPhone.remove(key);
+			}
+		if (rep != null)
+			for (String key : phoneKeys(rep))
+			{
+				BitSet ets = etymaByPhone.get(key);
+				if (ets == null)	etymaByPhone.put(key, ets = new BitSet(indexedReps.length));
+				ets.set(wi);
+			}
+
+		long[] oldVals = old == null ? new long[3] : old.getFeatPresence(),
+				newVals = rep == null ? new long[3] : rep.getFeatPresence();
+		if (oldVals == null || newVals == null)	featValsIndexable = false;
+		else
+			for (int v = 0; v < 3; v++)
+			{
+				for (long diff = oldVals[v] & ~newVals[v]; diff != 0; diff &= diff - 1)
+					etymaByFeatVal[v][Long.numberOfTrailingZeros(diff)].clear(wi);
+				for (long diff = newVals[v] & ~oldVals[v]; diff != 0; diff &= diff - 1)
+				{
+					int fi = Long.numberOfTrailingZeros(diff);
+					if (etymaByFeatVal[v][fi] == null)	etymaByFeatVal[v][fi] = new BitSet(indexedReps.length);
+					etymaByFeatVal[v][fi].set(wi);
+				}
+			}
+
+		present.set(wi, rep != null);
+		indexedReps[wi] = rep;
+	}
+
+	// keys of the distinct phones in @param rep
+	private static List<String> phoneKeys(PhonSeq rep)
+	{
+		List<String> out = new ArrayList<String>();
+		for (SequentialPhonic ph : rep)
+			if (ph instanceof Phone)
+			{
+				String key = ph.toString();
+				if (!out.contains(key))	out.add(key);
+			}
+		return out;
+	}
+
+	/**
+	 * @return the etyma that @param sig does not rule out (see RuleSignature.mayApply()), among those present
+	 * 		all the present etyma if it rules out nothing -- in any case a new BitSet, which the caller may modify.
+	 */
+	public BitSet candidatesFor(RuleSignature sig)
+	{
+		long[][] alternatives = sig.getAlternatives();
+		if (alternatives == null || !featValsIndexable)	return (BitSet) present.clone();
+		BitSet out = new BitSet(indexedReps.length);
+		for (long[] alt : alternatives)
+		{
+			BitSet altEts = (BitSet) present.clone();
+			for (int v = 0; v < 3 && !altEts.isEmpty(); v++)
+				for (long req = alt[v]; req != 0 && !altEts.isEmpty(); req &= req - 1)
+				{
+					BitSet withVal = etymaByFeatVal[v][Long.numberOfTrailingZeros(req)];
+					if (withVal == null)	altEts.clear();
+					else	altEts.and(withVal);
+				}
+			out.or(altEts);
+		}
+		return out;
+	}
+
+	// @return the present etyma containing a phone equal to @param ph -- not to be modified.
+	public BitSet etymaWithPhone(Phone ph)
+	{
+		BitSet ets = etymaByPhone.get(ph.toString());
+		return ets == null ? new BitSet() : ets;
+	}
+
+	// @return the sets of etyma containing each phone, by key (Phone.toString()) -- not to be modified.
+	public Map<String, BitSet> getEtymaByPhone()	{	return etymaByPhone;	}
+
+	public BitSet getPresent()	{	return present;	}
+	public BitSet getUnattested()	{	return unattested;	}
+}
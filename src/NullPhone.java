@@ -1,6 +1,5 @@
 import java.util.List; 
 import java.util.ArrayList;
-import java.util.HashMap;
 
 /**nullPhone class
  * note that currently this class is abrogated for most if not all usages. 
@@ -11,6 +10,7 @@ public class NullPhone extends PseudoPhone {
 	public NullPhone()
 	{
 		type = "null phone";
+		kind = Kind.NULL_PHONE;
 	}
 	
 	public String print()	{	return "∅"; 	}
@@ -36,9 +36,9 @@ public class NullPhone extends PseudoPhone {
 	{	return new NullPhone();	}
 	
 	@Override
-	public HashMap<String,String> extractAndApplyAlphaValues(SequentialPhonic inp)
+	public boolean extractAndApplyAlphaValues(SequentialPhonic inp, AlphaBindings into)
 	{
-		return null;
+		return false;
 	}
 	
 	@Override
@@ -46,7 +46,7 @@ public class NullPhone extends PseudoPhone {
 	{	return false;	}
 	
 	@Override
-	public void applyAlphaValues(HashMap<String, String> alphVals)
+	public void applyAlphaValues(AlphaBindings alphVals)
 	{	/* do nothing*/	}
 	
 	@Override
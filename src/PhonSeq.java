@@ -0,0 +1,128 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * immutable sequence of SequentialPhonic instances, used as the phonological representation of Etymon instances
+ * since it can never be modified, it can be shared freely rather than copied :
+ * 		between an etymon and its clones (Lexicon.cloneLexeme()),
+ * 		between the lexicon being simulated and its stage result lexica,
+ * 		and between an etymon's form before and after a rule that does not change it.
+ * the mutators inherited from AbstractList (add, set, remove...) all throw an UnsupportedOperationException
+ * equals() is that of List, so a PhonSeq equals any List whose SequentialPhonic instances are equal (i.e. print the same) in the same order.
+ * it is stored as an int array of codes rather than of objects : the id of each phone in the pool of phones (see Phone.intern()),
+ * 		or one of the negative codes reserved below for pseudo-phones -- which are then all shared instances. 
+ * 		get() decodes them, so this still serves as the List<SequentialPhonic> SChange.realize() and the rest of the code take,
+ * 		while codeAt() gives the codes themselves to code that only needs to tell phones apart.
+ * 		as equal phones are the same pooled phone, two PhonSeq instances are equal exactly when their codes are, 
+ * 		which is what equals() and hashCode() compare among PhonSeq instances -- so that they can be hash-consed (see RealizationCache).
+ */
+public final class PhonSeq extends AbstractList<SequentialPhonic> implements RandomAccess {
+
+	public static final int WORD_BOUND = -1, MORPH_BOUND = -2, NON_WORD_BOUND = -3, NULL_PHONE = -4; // codes of pseudo-phones
+	private static final SequentialPhonic[] PSEUDO_PHONES = new SequentialPhonic[] { // by ~code
+			new Boundary("word bound"), new Boundary("morph bound"), new Boundary("non word bound"), new NullPhone()};
+
+	private final int[] codes; // never modified, and never handed out.
+	private int hash; // 0 until computed
+	private volatile long[] featPresence; // see getFeatPresence() -- null until computed
+
+	private PhonSeq(int[] codes)
+	{	this.codes = codes;	}
+
+	/**
+	 * @return @param seq itself if it is already a PhonSeq (no copying needed),
+	 * 		otherwise an immutable copy of it -- in which phones not yet pooled are replaced by their pooled equivalents
+	 */
+	public static PhonSeq of(List<SequentialPhonic> seq)
+	{
+		if (seq instanceof PhonSeq)	return (PhonSeq) seq;
+		int[] codes = new int[seq.size()];
+		for (int i = 0; i < codes.length; i++)	codes[i] = codeOf(seq.get(i));
+		return new PhonSeq(codes);
+	}
+
+	// @return the code of @param ph in a PhonSeq (see above)
+	public static int codeOf(SequentialPhonic ph)
+	{
+		if (ph instanceof Phone)	return Phone.intern((Phone) ph).getId();
+		switch (ph.getKind())
+		{
+			case WORD_BOUND :	return WORD_BOUND;
+			case MORPH_BOUND :	return MORPH_BOUND;
+			case NON_WORD_BOUND :	return NON_WORD_BOUND;
+			case NULL_PHONE :	return NULL_PHONE;
+			default :	throw new RuntimeException("ERROR: cannot put a phonic element of type '"+ph.getType()+"' in a phonological sequence");
+		}
+	}
+
+	// @return the SequentialPhonic instance with the code @param code
+	public static SequentialPhonic decode(int code)
+	{	return code >= 0 ? Phone.byId(code) : PSEUDO_PHONES[~code];	}
+
+	@Override
+	public SequentialPhonic get(int index)	{	return decode(codes[index]);	}
+
+	// @return the code of the element at @param index (see above) -- without decoding it
+	public int codeAt(int index)	{	return codes[index];	}
+
+	@Override
+	public int size()	{	return codes.length;	}
+
+	@Override
+	public int hashCode()
+	{
+		int h = hash;
+		if (h == 0)
+		{
+			h = Arrays.hashCode(codes);
+			if (h == 0)	h = 1;
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public boolean equals(Object other)
+	{
+		if (other == this)	return true;
+		if (other instanceof PhonSeq)	return Arrays.equals(codes, ((PhonSeq) other).codes);
+		return super.equals(other);
+	}
+
+	// @return the index of the first phone equal to @param ph (-1 if there is none) -- without decoding anything if @param ph is pooled
+	public int indexOf(Phone ph)
+	{
+		if (!ph.isPooled())	return super.indexOf(ph);
+		int code = ph.getId();
+		for (int i = 0; i < codes.length; i++)
+			if (codes[i] == code)	return i;
+		return -1;
+	}
+
+	/**
+	 * @return masks of the feature values present in some phone of this sequence (see RuleSignature.presenceOf()), 
+	 * 		computed only once, as this sequence never changes -- or null if there are too many features for this. 
+	 */
+	public long[] getFeatPresence()
+	{
+		long[] fp = featPresence;
+		if (fp == null)
+		{
+			fp = RuleSignature.presenceOf(this);
+			if (fp == null)	return null;
+			featPresence = fp;
+		}
+		return fp;
+	}
+
+	@Override
+	public Object[] toArray()
+	{
+		Object[] out = new Object[codes.length];
+		for (int i = 0; i < codes.length; i++)	out[i] = decode(codes[i]);
+		return out;
+	}
+
+}
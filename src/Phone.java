@@ -2,6 +2,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 // as of May 25 (I'm pretty sure this was 2018, if this note is still relevant), 
@@ -12,9 +15,58 @@ import java.util.ArrayList;
 public class Phone extends SequentialPhonic implements RestrictPhone {
 
 	private String featString; // string of 0s, 1s and 2s -- 0 is negative, 2 positive, 1 unspecified
+		// kept for output and as the key of mapToSymb, while comparisons work on the masks below
+	private long specMask, posMask; // bit i of specMask set if feature i is specified (0 or 2), of posMask if it is positive (2)
+	public static final int MAX_FEATS = 64; // features beyond the bits of a long cannot be held in the masks
 	private HashMap<String, Integer> featIndices; 
 	private HashMap<String, String> mapToSymb; // key is feature string, value is ipa symbol. 
+	private FeatModel model; // that of featIndices and mapToSymb, which are its own (shared) maps 
 	private String symb; 
+	private String str; // toString(), kept so that it is not rebuilt at each comparison
+	private int id = -1; // id in the pool if this is a pooled phone, -1 otherwise -- see intern()
+	
+	/**
+	 * a feature model : the feature indices and the symbol map phones are defined with
+	 * models with the same content are one and the same (see of()), so all phones of a model share its maps rather than each having copies. 
+	 * 		a model is made once, for the content it is first asked for, and is the same model from then on : 
+	 * 		symbols defined later, such as those a lexicon derives with diacritics (see PhoneRegistry), are added to its symbol map by define() 
+	 * 		-- which replaces it with a larger copy, so that the maps phones already hold are never modified -- 
+	 * 		and the model is then also that of the content its symbol map has grown to. 
+	 * each model has its own pool of the distinct phones, keyed by toString() -- i.e. by what equals() compares
+	 * 		the phones parsed from rules and lexica, and those produced by forceTruth(), all come from it, 
+	 * 		so each distinct phone only exists once, and two pooled phones are equal only if they are the very same instance.
+	 * 		pooled phones are never modified (set() and setFeats() refuse to), so they can be shared freely. 
+	 * 		as each model has a pool of its own, a phone pooled under one feature model is never handed out for another, 
+	 * 		even if it has the same symbol and feature string. 
+	 */
+	private static final class FeatModel
+	{
+		final HashMap<String, Integer> featIndices; 
+		volatile HashMap<String, String> mapToSymb; // never modified once set -- see define() 
+		final ConcurrentHashMap<String, Phone> pool = new ConcurrentHashMap<String, Phone>(); 
+		
+		private FeatModel(HashMap<String, Integer> featIndices, HashMap<String, String> mapToSymb)
+		{	this.featIndices = featIndices; this.mapToSymb = mapToSymb;	}
+		
+		// @return the model with the content of @param featIndices and @param mapToSymb, made with them if there is none yet
+		static FeatModel of(HashMap<String, Integer> featIndices, HashMap<String, String> mapToSymb)
+		{	return MODELS.computeIfAbsent(Arrays.asList(featIndices, mapToSymb), k -> new FeatModel(featIndices, mapToSymb));	}
+		
+		// adds @param symb as the symbol of the feature values @param featVals, unless they have one already
+		synchronized void define(String featVals, String symb)
+		{
+			if (mapToSymb.containsKey(featVals))	return; 
+			HashMap<String, String> grown = new HashMap<String, String>(mapToSymb); 
+			grown.put(featVals, symb); 
+			mapToSymb = grown; 
+			MODELS.putIfAbsent(Arrays.asList(featIndices, grown), this); 
+		}
+	}
+	
+	private static final ConcurrentHashMap<List<HashMap<String, ?>>, FeatModel> MODELS = new ConcurrentHashMap<List<HashMap<String, ?>>, FeatModel>(); 
+	// ids are unique over all models, so that a phone's id is all a PhonSeq needs to hold (see PhonSeq.codeOf())
+	private static final AtomicInteger NEXT_ID = new AtomicInteger(); 
+	private static volatile Phone[] BY_ID = new Phone[256]; // pooled phones by id -- see byId() 
 		
 	/**
 	 * Constructor
@@ -27,17 +79,19 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 		if( featVals.length() != featInds.size() )
 			throw new RuntimeException("ERROR: featVals' size is not the same as featInds hashmap");
 		type = "phone";
+		kind = Kind.PHONE; 
 		featString = ""+featVals; 
-		featIndices = new HashMap<String, Integer>(featInds);
-		mapToSymb = new HashMap<String, String>(); 
+		setMasks(); 
+		HashMap<String, String> invSymbMap = new HashMap<String, String>(); 
 		Set<String> sMKeys = symbMap.keySet(); 
 		for ( String key : sMKeys)
 		{
 			String featdef = symbMap.get(key); 
-			if (mapToSymb.containsKey(featdef) == true) 
+			if (invSymbMap.containsKey(featdef) == true) 
 				throw new RuntimeException("ERROR: duplicate phone definition in symbMap!");
-			mapToSymb.put(featdef, key); 
+			invSymbMap.put(featdef, key); 
 		}
+		setModel(FeatModel.of(new HashMap<String, Integer>(featInds), invSymbMap)); 
 		regenerateSymb(); 
 	}
 	
@@ -47,12 +101,113 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	public Phone(Phone dolly)
 	{
 		type = "phone"; 
+		kind = Kind.PHONE; 
 		featString = dolly.getFeatString();
-		featIndices = dolly.getFeatIndices();
-		mapToSymb = dolly.getFeatSymbMap(); 
+		specMask = dolly.specMask; 
+		posMask = dolly.posMask; 
+		setModel(dolly.model); 
 		regenerateSymb(); 
 	}
 	
+	/**
+	 * phone with the feature values @param featVals, sharing the feature indices and symbol map of @param model
+	 * used to rebuild phones from their feature values alone -- see SimulationCheckpoint
+	 */
+	public Phone(Phone model, String featVals)
+	{
+		if( featVals.length() != model.getFeatIndices().size() )
+			throw new RuntimeException("ERROR: featVals' size is not the same as featInds hashmap");
+		type = "phone"; 
+		kind = Kind.PHONE; 
+		featString = ""+featVals; 
+		setMasks(); 
+		setModel(model.model); 
+		regenerateSymb(); 
+	}
+	
+	// pooled copy of @param dolly, with id @param id
+	private Phone(Phone dolly, int id)
+	{
+		this(dolly); 
+		this.id = id; 
+	}
+	
+	/**
+	 * @return the pooled phone equal to @param ph -- @param ph itself if it is pooled, 
+	 * 		otherwise a pooled copy of it, made if there is none yet (so @param ph itself can still be modified freely)
+	 */
+	public static Phone intern(Phone ph)
+	{
+		if (ph.id >= 0)	return ph; 
+		Phone pooled = ph.model.pool.get(ph.toString()); 
+		return pooled != null ? pooled : ph.model.pool.computeIfAbsent(ph.toString(), k -> register(new Phone(ph, NEXT_ID.getAndIncrement()))); 
+	}
+	
+	// @return the pooled phone equal to @param ph, or null if there is none -- without pooling it, unlike intern()
+	public static Phone findPooled(Phone ph)
+	{
+		if (ph.id >= 0)	return ph; 
+		return ph.model.pool.get(ph.toString()); 
+	}
+	
+	// record newly pooled phone @param ph under its id, before it can be found in the pool
+	private static synchronized Phone register(Phone ph)
+	{
+		Phone[] byId = BY_ID; 
+		if (ph.id >= byId.length)	byId = Arrays.copyOf(byId, Math.max(ph.id + 1, byId.length * 2)); 
+		byId[ph.id] = ph; 
+		BY_ID = byId; 
+		return ph; 
+	}
+	
+	// @return the pooled phone with the id @param id (see getId()), which must be that of a pooled phone
+	public static Phone byId(int id)	{	return BY_ID[id];	}
+	
+	// @return the pooled phone with the id @param id, or null if there is none (yet) -- e.g. as it is still being pooled
+	public static Phone pooledWithId(int id)
+	{
+		Phone[] byId = BY_ID; 
+		return id < byId.length ? byId[id] : null; 
+	}
+	
+	// all the ids of pooled phones are lower than this
+	public static int idBound()	{	return NEXT_ID.get();	}
+	
+	/**
+	 * @return the pooled phone with the feature values @param featVals, and the feature indices and symbol map of @param model
+	 * 		found in the pool without building a new phone if it is there already. 
+	 */
+	public static Phone pooled(Phone model, String featVals)
+	{
+		Phone pooled = model.model.pool.get(model.model.mapToSymb.getOrDefault(featVals, "?")+":"+featVals); 
+		return pooled != null ? pooled : intern(new Phone(model, featVals)); 
+	}
+	
+	/**
+	 * @return the pooled phone with the feature values encoded by the masks @param spec and @param pos (see specMask and posMask), 
+	 * 		and the feature indices and symbol map of @param model -- which is returned itself if it is pooled and has those values already.
+	 */
+	public static Phone pooled(Phone model, long spec, long pos)
+	{
+		if (spec == model.specMask && pos == model.posMask)	return intern(model); 
+		char[] fv = new char[model.featString.length()]; 
+		for (int fi = 0; fi < fv.length; fi++)
+			fv[fi] = (spec & (1L << fi)) == 0 ? '1' : ((pos & (1L << fi)) == 0 ? '0' : '2'); 
+		return pooled(model, new String(fv)); 
+	}
+	
+	/**
+	 * defines @param symb as the symbol of the feature values @param featVals in the feature model of @param model, 
+	 * 		unless they have one there already, so that the phones of that model with these values built from now on have it
+	 * 		-- while staying in the same model, and pool, as those built before (see FeatModel)
+	 */
+	public static void defineSymbol(Phone model, String symb, String featVals)
+	{	model.model.define(featVals, symb);	}
+	
+	// whether this is a pooled phone, and its id in the pool (-1 if it is not)
+	public boolean isPooled()	{	return id >= 0;	}
+	public int getId()	{	return id;	}
+	
 	/**
 	 * @precondition: input @param dolly is actually a Phone. 
 	 */
@@ -60,20 +215,45 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	{
 		if( !dolly.getType().equals("phone"))	throw new RuntimeException("Type error in constructing phone clone!"); 
 		type="phone";
+		kind = Kind.PHONE; 
 		featString = dolly.getFeatString();
-		featIndices = dolly.getFeatIndices();
-		mapToSymb = dolly.getFeatSymbMap(); 
+		setMasks(); 
+		setModel(dolly instanceof Phone ? ((Phone) dolly).model : FeatModel.of(dolly.getFeatIndices(), dolly.getFeatSymbMap())); 
 		regenerateSymb(); 
 	}
 	
+	private void setModel(FeatModel fm)
+	{
+		model = fm; 
+		featIndices = fm.featIndices; 
+		mapToSymb = fm.mapToSymb; 
+	}
+	
+	// compute specMask and posMask from featString
+	private void setMasks()
+	{
+		if (featString.length() > MAX_FEATS)
+			throw new RuntimeException("ERROR: at most "+MAX_FEATS+" features are supported, but there are "+featString.length()); 
+		specMask = 0; 
+		posMask = 0; 
+		for (int fi = 0; fi < featString.length(); fi++)
+		{
+			char c = featString.charAt(fi); 
+			if (c == '2')	posMask |= 1L << fi; 
+			else if (c != '0')	continue; 
+			specMask |= 1L << fi; 
+		}
+	}
+	
 	private void regenerateSymb()
 	{
 		if(mapToSymb.containsKey(featString))	symb = mapToSymb.get(featString);
 		else	symb = "?";
+		str = symb+":"+featString; 
 	}
 	
-	// accessors : all return clones of the objects, not the originals. 
-	public String getFeatString()	{	return ""+featString;	}
+	// accessors : the maps returned are those of the feature model, shared by all its phones -- not to be modified. 
+	public String getFeatString()	{	return featString;	}
 	public String getFeatVect()	{	return getFeatString();	}	
 	//currently necessary to evade inheritance confusion (getFeatString from SequentialPhonic, getFeatVect from RestrictPhone)
 		// ... unfortunately these ended up both being necessary for tester methods 
@@ -81,6 +261,9 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	{	return featIndices; 	}
 	public HashMap<String,String> getFeatSymbMap()
 	{	return mapToSymb;	}
+	// masks of the feature values -- bit i of the first set if feature i is specified, of the second if it is positive
+	public long getSpecMask()	{	return specMask;	}
+	public long getPosMask()	{	return posMask;	}
 	
 	
 	
@@ -91,8 +274,8 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	public int get(String featName)
 	{	
 		if (!featExists(featName))	throw new RuntimeException( "Violated precondition: featName is not a valid feature! ");
-		int index = featIndices.get(featName); 
-		return Integer.parseInt(featString.substring(index, index+1)); 	}
+		long bit = 1L << featIndices.get(featName); 
+		return (specMask & bit) == 0 ? 1 : ((posMask & bit) == 0 ? 0 : 2); 	}
 	
 	/**
 	 * @precondition: newVal is between 0 and 2
@@ -100,15 +283,23 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	 * */
 	public void set(String featName, int newVal)
 	{
+		if (id >= 0)	throw new RuntimeException("ERROR: tried to modify a pooled phone, /"+symb+"/ -- modify a copy of it instead");
 		if (!featExists(featName))	throw new RuntimeException("ERROR: tried to set to inexistant feature");
 		if (newVal < 0 || newVal > 2)	throw new RuntimeException("ERROR: invalid number for feature");
 		int ind = featIndices.get(featName); 
+		long bit = 1L << ind; 
+		if (newVal == 1)	specMask &= ~bit; 
+		else	specMask |= bit; 
+		if (newVal == 2)	posMask |= bit; 
+		else	posMask &= ~bit; 
 		featString = featString.substring(0, ind) + newVal + featString.substring(ind+1); 
 		regenerateSymb();
 	}
 	public void setFeats(String newFeatVect)
 	{
+		if (id >= 0)	throw new RuntimeException("ERROR: tried to modify a pooled phone, /"+symb+"/ -- modify a copy of it instead");
 		featString = "" + newFeatVect; 
+		setMasks(); 
 		regenerateSymb();
 	}
 	
@@ -118,16 +309,24 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	
 	@Override
 	public String toString() {
-		return symb+":"+featString; 
+		return str; 
 	}
 	
 	@Override
 	public boolean equals(Object other) {
+		if (other == this)	return true; 
 		if(other instanceof Phone)
-			return this.toString().equals(other.toString()); 
+		{
+			// distinct pooled phones are never equal -- see FeatModel
+			if (id >= 0 && ((Phone) other).id >= 0)	return false; 
+			return str.equals(((Phone) other).str); 
+		}
 		else	return false; 
 	} 
 	
+	@Override
+	public int hashCode()	{	return str.hashCode();	}
+	
 	@Override
 	public boolean compare(SequentialPhonic other) 
 	{	return this.equals(other); }
@@ -145,7 +344,7 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	{	
 		List<SequentialPhonic> output = new ArrayList<SequentialPhonic>();
 		if(ind > 0)	output.addAll(patientSeq.subList(0, ind)); 
-		output.add(new Phone(this)); 
+		output.add(intern(this)); 
 		if (ind < patientSeq.size() - 1)	output.addAll(patientSeq.subList(ind+1, patientSeq.size()));
 		
 		/**List<SequentialPhonic> output = new ArrayList<SequentialPhonic>(patientSeq); 
@@ -163,7 +362,7 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	{	return new Phone(this); 	}
 	
 	@Override 
-	public void applyAlphaValues(HashMap<String, String> alphVals)
+	public void applyAlphaValues(AlphaBindings alphVals)
 	{	/*do nothing*/	}
 	
 	@Override
@@ -175,8 +374,8 @@ public class Phone extends SequentialPhonic implements RestrictPhone {
 	{	return false;	}
 	
 	@Override
-	public HashMap<String,String> extractAndApplyAlphaValues(SequentialPhonic inp)
-	{	return null;	}
+	public boolean extractAndApplyAlphaValues(SequentialPhonic inp, AlphaBindings into)
+	{	return false;	}
 	
 	@Override
 	public boolean has_alpha_specs()	{	return false;	}
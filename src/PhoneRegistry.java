@@ -0,0 +1,195 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * resolution of the phone symbols of a lexicon file to pooled phones (see Phone.intern()), for DiachronicSimulator.parseLexPhon()
+ * each symbol is resolved only once : later occurrences are a single lookup, which needs no lock,
+ * 		so that several threads can parse lexicon lines at once.
+ * a symbol that is not defined in the symbol definitions may be a defined symbol marked with diacritics (see UTILS.buildDiacriticMap()) :
+ * 		the diacritics within it are then found by walking a trie of the diacritics along it once,
+ * 		rather than by testing every diacritic in turn.
+ * 		it is resolved as the defined symbol left once the fewest of them possible are removed, 
+ * 		with the feature specifications of those removed applied in the order of the keys of the diacritic map
+ * 		-- so its feature values depend on the symbol definitions alone, never on the symbols met before it. 
+ * 		if a defined symbol has these feature values, it stands for the phone of that one; 
+ * 		otherwise it is registered as a symbol, unless another symbol with the same values was registered first, which it then stands for the phone of. 
+ * 		which of several such symbols is registered would depend on which is met first, so resolveAll() resolves those of a whole lexicon at once, 
+ * 		registering the shortest of each (the first in code point order among those as long) 
+ * 		-- the phones of a lexicon resolved by it are then the same whatever the order of its lines, or of the threads parsing them. 
+ * registering a symbol modifies the symbol map phones are built with, so it is done under a lock.
+ * 		the phones are built in the feature model of the symbol definitions, which the symbols registered are defined in (see Phone.defineSymbol()), 
+ * 		so that they are in the same pool as the phones of the rules, parsed from the symbol definitions alone before the lexicon is : 
+ * 		a phone of the lexicon is then the very phone of a rule with the same feature values, which the rule must find it to be (see Phone.equals()). 
+ */
+public class PhoneRegistry {
+
+	private final HashMap<String, String> symbToFeats; // all symbols defined so far, derived ones included -- guarded by this
+	private final HashMap<String, String> featsToSymb; // its inverse -- guarded by this
+	private final HashMap<String, String> definedFeats; // the symbols of the symbol definitions alone, which derived ones are resolved from
+	private final HashMap<String, Integer> featIndices;
+	private final HashMap<String, String[]> diacriticMap; // null if diacritics are not handled
+	private final HashMap<String, Integer> diacriticRanks; // the place of each diacritic among the keys of diacriticMap
+	private final TrieNode diacriticTrie;
+	private final Phone modelPhone; // a phone of the feature model of the symbol definitions, which the phones resolved are built in
+	private final ConcurrentHashMap<String, Phone> phonesBySymb = new ConcurrentHashMap<String, Phone>(); 
+		// phones of the symbols resolved, including those standing for the phone of another symbol
+
+	/**
+	 * @param symbToFeats -- map of the symbols defined to their feature values, to which the symbols derived with diacritics are added
+	 * @param diacriticMap -- feature specifications marked by each diacritic, or null if diacritics are not to be handled
+	 */
+	public PhoneRegistry(HashMap<String, String> symbToFeats, HashMap<String, Integer> featIndices, HashMap<String, String[]> diacriticMap)
+	{
+		this.symbToFeats = symbToFeats;
+		this.featIndices = featIndices;
+		this.diacriticMap = diacriticMap;
+		definedFeats = new HashMap<String, String>(symbToFeats);
+		featsToSymb = new HashMap<String, String>();
+		for (String symb : symbToFeats.keySet())	featsToSymb.put(symbToFeats.get(symb), symb);
+		modelPhone = symbToFeats.isEmpty() ? null : 
+			Phone.intern(new Phone(symbToFeats.values().iterator().next(), featIndices, symbToFeats));
+
+		diacriticRanks = new HashMap<String, Integer>();
+		diacriticTrie = new TrieNode();
+		if (diacriticMap != null)
+			for (String diacrit : diacriticMap.keySet())
+			{
+				diacriticRanks.put(diacrit, diacriticRanks.size());
+				TrieNode node = diacriticTrie;
+				for (int ci = 0; ci < diacrit.length(); ci++)
+				{
+					TrieNode next = node.children.get(diacrit.charAt(ci));
+					if (next == null)	node.children.put(diacrit.charAt(ci), next = new TrieNode());
+					node = next;
+				}
+				node.diacrit = diacrit;
+			}
+	}
+
+	private static class TrieNode
+	{
+		final HashMap<Character, TrieNode> children = new HashMap<Character, TrieNode>();
+		String diacrit; // the diacritic ending here, if any
+	}
+
+	/**
+	 * @return the pooled phone @param symb stands for
+	 * @param lexPhon -- the lexicon form it was found in, for the error message if it is invalid
+	 */
+	public Phone get(String symb, String lexPhon)
+	{
+		Phone ph = phonesBySymb.get(symb);
+		if (ph != null)	return ph;
+		LinkedHashMap<String, String> toResolve = new LinkedHashMap<String, String>();
+		toResolve.put(symb, lexPhon);
+		resolve(toResolve);
+		return phonesBySymb.get(symb);
+	}
+
+	// whether @param symb was already resolved
+	public boolean isResolved(String symb)	{	return phonesBySymb.containsKey(symb);	}
+
+	/**
+	 * resolves all the phone symbols of the lexicon forms @param lexPhons at once -- see above
+	 * 		after which they are all found by get() without a lock.
+	 */
+	public void resolveAll(List<String> lexPhons)
+	{
+		LinkedHashMap<String, String> toResolve = new LinkedHashMap<String, String>(); // each symbol to the first form it is found in
+		for (String lexPhon : lexPhons)
+		{
+			if (UTILS.PSEUDO_ETYM_REPRS.contains(lexPhon.trim()))	continue;
+			for (String symb : lexPhon.trim().split(""+UTILS.PH_DELIM))
+				if (!symb.equals("#") && !symb.equals("+") && !phonesBySymb.containsKey(symb))
+					toResolve.putIfAbsent(symb, lexPhon);
+		}
+		if (!toResolve.isEmpty())	resolve(toResolve);
+	}
+
+	// resolves the symbols in @param toResolve, each mapped to the form it was found in, in their order
+	private synchronized void resolve(LinkedHashMap<String, String> toResolve)
+	{
+		LinkedHashMap<String, String> featsOf = new LinkedHashMap<String, String>();
+		HashMap<String, String> toRegister = new HashMap<String, String>(); // new feature values to the symbol to register for them
+		for (Map.Entry<String, String> entry : toResolve.entrySet())
+		{
+			String symb = entry.getKey();
+			if (phonesBySymb.containsKey(symb))	continue;
+			String feats = symbToFeats.containsKey(symb) ? symbToFeats.get(symb) : derivedFeats(symb, entry.getValue());
+			featsOf.put(symb, feats);
+			if (!featsToSymb.containsKey(feats))
+				toRegister.merge(feats, symb, (prev, next) -> 
+					next.length() < prev.length() || (next.length() == prev.length() && next.compareTo(prev) < 0) ? next : prev);
+		}
+		for (Map.Entry<String, String> entry : toRegister.entrySet())
+		{
+			symbToFeats.put(entry.getValue(), entry.getKey());
+			featsToSymb.put(entry.getKey(), entry.getValue());
+			Phone.defineSymbol(modelPhone, entry.getValue(), entry.getKey());
+		}
+		// phones are built once all the new symbols are registered, so that each has its symbol
+		for (Map.Entry<String, String> entry : featsOf.entrySet())
+		{
+			String symbDefd = featsToSymb.get(entry.getValue());
+			Phone ph = phonesBySymb.get(symbDefd);
+			if (ph == null)
+			{
+				ph = Phone.pooled(modelPhone, entry.getValue());
+				phonesBySymb.put(symbDefd, ph);
+			}
+			phonesBySymb.put(entry.getKey(), ph);
+		}
+	}
+
+	/**
+	 * @return the feature values of @param symb, a symbol not defined in the symbol definitions, as a defined one marked with diacritics
+	 * 		-- the one left once the fewest diacritics possible are removed from it (trying first those whose keys come first in the diacritic map)
+	 * @param lexPhon -- the lexicon form it was found in, for the error message if it is none
+	 */
+	private String derivedFeats(String symb, String lexPhon)
+	{
+		List<String> diacrits = diacriticMap == null ? new ArrayList<String>() : diacriticsIn(symb);
+		// each subset of the diacritics found, as a bit mask : by number of diacritics, then as the masks come
+		for (int numRemoved = 1; numRemoved <= diacrits.size(); numRemoved++)
+			for (int mask = (1 << numRemoved) - 1; mask < 1 << diacrits.size(); mask++)
+			{
+				if (Integer.bitCount(mask) != numRemoved)	continue;
+				String rest_of_phone = symb;
+				for (int di = 0; di < diacrits.size(); di++)
+					if ((mask & (1 << di)) != 0)	rest_of_phone = rest_of_phone.replace(diacrits.get(di), "");
+				if (!definedFeats.containsKey(rest_of_phone))	continue;
+				char[] int_feats = definedFeats.get(rest_of_phone).toCharArray();
+				for (int di = 0; di < diacrits.size(); di++)
+					if ((mask & (1 << di)) != 0)
+						for (String feat_spec : diacriticMap.get(diacrits.get(di)))
+						{
+							Integer featIndex = featIndices.get(feat_spec.substring(1));
+							if (featIndex == null)
+								throw new RuntimeException("Error: unrecognized feature value, "+feat_spec.substring(1)+", in diacriticized(?) phone :"+symb);
+							int_feats[featIndex] = (char) ('0' + UTILS.getFeatspecIntFromMark(feat_spec.charAt(0)));
+						}
+				return new String(int_feats);
+			}
+		throw new RuntimeException("ERROR: tried to declare a phone in a word in the lexicon using an invalid symbol.\n"
+				+ "Symbol is : '"+symb+"', length = "+symb.length()
+				+ "\nLex phon is :"+lexPhon);
+	}
+
+	// @return the diacritics found within @param symb, in the order of the keys of diacriticMap
+	private List<String> diacriticsIn(String symb)
+	{
+		List<String> found = new ArrayList<String>();
+		for (int start = 0; start < symb.length(); start++)
+		{
+			TrieNode node = diacriticTrie;
+			for (int ci = start; ci < symb.length() && (node = node.children.get(symb.charAt(ci))) != null; ci++)
+				if (node.diacrit != null && !found.contains(node.diacrit))	found.add(node.diacrit);
+		}
+		found.sort((d1, d2) -> diacriticRanks.get(d1) - diacriticRanks.get(d2));
+		return found;
+	}
+}
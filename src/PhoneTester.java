@@ -142,9 +142,31 @@ public class PhoneTester {
 		System.out.println("(testing Phone.forceTruth(SequentialPhonic))\nThe following should be 'true'"); 
 		System.out.println(testPhone.equals(listylist.get(0)));
 		
+		System.out.println("(testing the phone pool)\nThe following should be 'true true true false'"); 
+		Phone pooledP = Phone.intern(testPhone); 
+		System.out.println(""+(pooledP == Phone.intern(new Phone(symbsToFeatures.get("p"), featureIndices, symbsToFeatures)))
+				+" "+(pooledP == listylist.get(0))+" "+pooledP.equals(testPhone)+" "+(pooledP == testPhone));
+
+		System.out.println("(testing that the pool is kept per feature model)\nThe following should be 'false true true'");
+		HashMap<String, String> otherSymbs = new HashMap<String, String>(symbsToFeatures);
+		otherSymbs.put("P", symbsToFeatures.get("p").replace('0', 'x')); // a symbol the usual model does not have
+		Phone otherP = Phone.intern(new Phone(symbsToFeatures.get("p"), featureIndices, otherSymbs));
+		System.out.println(""+(otherP == pooledP)+" "+otherP.getFeatSymbMap().containsValue("P")
+				+" "+(otherP == Phone.intern(new Phone(symbsToFeatures.get("p"), featureIndices, new HashMap<String, String>(otherSymbs)))));
+
 		System.out.println("The following should be '"+symbsToFeatures.get("p").charAt(0)+"'  ");
-		System.out.println(""+testPhone.get(firstFeat)); 
-		
+		System.out.println(""+testPhone.get(firstFeat));
+
+		System.out.println("(testing Phone.set and the feature masks)\nThe following should be '0 2 1 true'");
+		Phone maskedP = new Phone(testPhone);
+		maskedP.set(firstFeat, 0);
+		String maskOut = ""+maskedP.get(firstFeat);
+		maskedP.set(firstFeat, 2);
+		maskOut += " "+maskedP.get(firstFeat);
+		maskedP.set(firstFeat, 1);
+		maskOut += " "+maskedP.get(firstFeat)+" "+((maskedP.getSpecMask() & 1L) == 0 && (maskedP.getPosMask() & 1L) == 0);
+		System.out.println(maskOut);
+
 		System.out.println("The following should be true ");
 		System.out.println(testPhone.featExists(firstFeat));
 		
@@ -171,7 +193,13 @@ public class PhoneTester {
 		
 		FeatMatrix voicedStop = new FeatMatrix("-cont,-delrel,+voi", Arrays.asList(feats), featImplications); 
 		System.out.println("The following should be 'false' (testing FeatMatrix.compare(Phone))");
-		System.out.println(voicedStop.compare(testPhone)); 
+		System.out.println(voicedStop.compare(testPhone));
+
+		System.out.println("(testing FeatMatrix.compare with pooled phones, including one pooled after the first comparison)\n"
+				+ "The following should be 'false false true'");
+		Phone pooledVoiced = new Phone(testPhone);
+		pooledVoiced.set("voi", 2);
+		System.out.println(voicedStop.compare(pooledP)+" "+voicedStop.compare(pooledP)+" "+voicedStop.compare(Phone.intern(pooledVoiced)));
 		
 		//testing whether featVect is stored properly in the FeatMatrix object instance 
 		String agreements = ""; 
@@ -201,6 +229,9 @@ public class PhoneTester {
 		testPhone=voicedStop.forceTruth(testPhone); 
 		System.out.println("The following should be 'true' (testing FeatMatrix.forceTruth(phone))"); 
 		System.out.println(voicedStop.compare(testPhone));
+
+		System.out.println("The following should be 'true true' (testing FeatMatrix.forceTruth(phone) on a pooled phone, twice)");
+		System.out.println(""+(voicedStop.forceTruth(pooledP) == testPhone)+" "+(voicedStop.forceTruth(pooledP) == testPhone));
 		
 		List<SequentialPhonic> testPhones = new ArrayList<SequentialPhonic>(); 
 		testPhones.add(testPhone); 
@@ -280,10 +311,45 @@ public class PhoneTester {
 		
 		System.out.println("Now testing implementation, with respect to comprehension of diacriticized symbols..."); 
 		System.out.println("The following should parse without error..."); 
-		//TODO work here. 
 		testPhone = new Phone(symbsToFeatures.get("p"), featureIndices, symbsToFeatures); 
 		testPhone.set("long", 1);
 		
-		System.out.println("TODO to be implemented..."); 		
+		PhoneRegistry registry = new PhoneRegistry(new HashMap<String, String>(symbsToFeatures), featureIndices, diacriticMap); 
+		char[] sgFeats = symbsToFeatures.get("s").toCharArray(); 
+		sgFeats[featureIndices.get("sg")] = (char) ('0' + UTILS.POS_INT); 
+		System.out.println("(testing PhoneRegistry with a single diacritic)\nThe following should be 'sʰ true'"); 
+		Phone aspirated = registry.get("sʰ", "a sʰ a"); 
+		System.out.println(aspirated.print()+" "+aspirated.getFeatString().equals(new String(sgFeats))); 
+		
+		System.out.println("(testing PhoneRegistry with a derived vector that collapses to a defined symbol, with one diacritic then two)\n"
+				+ "The following should be 't true tʷ true'"); 
+		Phone devoiced = registry.get("d̥", "a d̥ a"); 
+		Phone devoicedLab = registry.get("dʷ̥", "a dʷ̥ a"); 
+		System.out.println(devoiced.print()+" "+(devoiced == registry.get("t", "a t a"))
+				+" "+devoicedLab.print()+" "+(devoicedLab == registry.get("tʷ", "a tʷ a"))); 
+		
+		System.out.println("(testing PhoneRegistry with two diacritics, both orders of which stand for the same phone whichever is met first)\n"
+				+ "The following should be 'true true true true'"); 
+		char[] sgLabFeats = symbsToFeatures.get("sʷ").toCharArray(); 
+		sgLabFeats[featureIndices.get("sg")] = (char) ('0' + UTILS.POS_INT); 
+		PhoneRegistry otherRegistry = new PhoneRegistry(new HashMap<String, String>(symbsToFeatures), featureIndices, diacriticMap); 
+		registry.resolveAll(Arrays.asList("a sʰʷ a", "a sʷʰ a")); 
+		otherRegistry.resolveAll(Arrays.asList("a sʷʰ a", "a sʰʷ a")); 
+		Phone both = registry.get("sʰʷ", ""); 
+		System.out.println(""+(both == registry.get("sʷʰ", ""))+" "+both.getFeatString().equals(new String(sgLabFeats))
+				+" "+both.print().equals(otherRegistry.get("sʰʷ", "").print())+" "+both.print().equals(otherRegistry.get("sʷʰ", "").print())); 		
+		System.out.println("(testing that a lexicon deriving a symbol with diacritics still has the phones of the rules parsed before it)\n"
+				+ "The following should be 'true pˤ #ba# #pˤa#'"); 
+		HashMap<String, String> lexSymbs = new HashMap<String, String>(symbsToFeatures); 
+		SChangeFactory ruleFactory = new SChangeFactory(lexSymbs, featureIndices, new HashMap<String, String[]>()); 
+		SChange plainRule = ruleFactory.generateSoundChangesFromRule("p > b").get(0); 
+		PhoneRegistry lexRegistry = new PhoneRegistry(lexSymbs, featureIndices, diacriticMap); 
+		lexRegistry.resolveAll(Arrays.asList("p a", "pˤ a")); 
+		List<SequentialPhonic> plainForm = new ArrayList<SequentialPhonic>(), derivedForm = new ArrayList<SequentialPhonic>(); 
+		for (String symb : "# p a #".split(" "))	plainForm.add(symb.equals("#") ? new Boundary("word bound") : lexRegistry.get(symb, "p a")); 
+		for (String symb : "# pˤ a #".split(" "))	derivedForm.add(symb.equals("#") ? new Boundary("word bound") : lexRegistry.get(symb, "pˤ a")); 
+		System.out.println(""+lexRegistry.get("p", "p a").equals(ruleFactory.parseSeqPh("p"))
+				+" "+lexRegistry.get("pˤ", "pˤ a").print()+" "+UTILS.printWord(plainRule.realize(PhonSeq.of(plainForm)))
+				+" "+UTILS.printWord(plainRule.realize(PhonSeq.of(derivedForm)))); 
 	}
 }
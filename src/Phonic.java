@@ -1,10 +1,34 @@
-
 // Master class for all things that can hold the place of a phone(me) in a word -- to include pseudoPhones
 public abstract class Phonic {
 	protected String type; 
+	protected Kind kind; // the same distinction as type, for hot paths to test without comparing strings
+	
+	/** the kinds of Phonic there are -- one for each of the strings getType() may return */
+	public enum Kind {
+		PHONE, FEAT_MATRIX, NULL_PHONE, WORD_BOUND, MORPH_BOUND, NON_WORD_BOUND, OTHER_BOUND; 
+		
+		// @return the kind of a Boundary of type @param boundType
+		public static Kind ofBoundType(String boundType)
+		{
+			if (boundType.equals("word bound"))	return WORD_BOUND; 
+			if (boundType.equals("morph bound"))	return MORPH_BOUND; 
+			if (boundType.equals("non word bound"))	return NON_WORD_BOUND; 
+			return OTHER_BOUND; 
+		}
+		
+		public boolean isBound()	{	return ordinal() >= WORD_BOUND.ordinal();	}
+	}
 	
 	public String getType()	{	return type;	}
 	
+	public Kind getKind()	{	return kind;	}
+	
+	// i.e. getType().equals("phone")
+	public final boolean isPhone()	{	return kind == Kind.PHONE;	}
+	
+	// i.e. getType().contains("bound")
+	public final boolean isBound()	{	return kind.isBound();	}
+	
 	abstract public String print();
 	abstract public boolean equals (Object other);
 	
@@ -0,0 +1,168 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * persistent on-disk cache of the states of simulations, so that a run whose cascade only differs from that of an earlier run after rule N
+ * 		does not simulate rules 0 to N-1 all over again, but resumes from the latest state cached before them.
+ * each state is a checkpoint (see Simulation.writeCheckpoint()), stored in a file named after a SHA-256 key of everything it depends on :
+ * 		the context -- contents of the input files (lexicon, symbol definitions, feature implications...) and options affecting parsing,
+ * 		the rules before its instant, as written (SChange.getOrig()),
+ * 		and the stages hit by then (as "g" or "b" + index, name and instant).
+ * the cache is bounded by the total size of its files : least recently used ones are deleted first when it is exceeded,
+ * 		files being marked as used by updating their modification time.
+ * the keys of every instant of a simulation are computed together, as a running digest over its cascade, when it is first stored or resumed.
+ */
+public class PrefixStateCache {
+
+	private final File dir;
+	private final long maxBytes;
+	private final byte[] context;
+
+	private Simulation keyedSim; // simulation the keys were computed for
+	private String[] keys; // key of the state upon reaching each instant, by instant
+
+	private final static String SUFFIX = ".ckpt";
+
+	/**
+	 * @param dir -- directory of the cache, created if need be
+	 * @param maxBytes -- maximum total size of the cached states
+	 * @param context -- digest of the context of the simulations (see digestContext())
+	 */
+	public PrefixStateCache(File dir, long maxBytes, byte[] context)
+	{
+		if (maxBytes < 1)	throw new RuntimeException("Error: prefix state cache size must be positive, but it was "+maxBytes);
+		this.dir = dir;
+		this.maxBytes = maxBytes;
+		this.context = context;
+		dir.mkdirs();
+	}
+
+	/**
+	 * @return SHA-256 digest of the contents of the files at @param fileLocs (a missing file counting as such), and of @param options
+	 */
+	public static byte[] digestContext(List<String> fileLocs, String options) throws IOException
+	{
+		MessageDigest md = sha256();
+		for (String loc : fileLocs)
+		{
+			md.update((loc+"\n").getBytes(StandardCharsets.UTF_8));
+			if (loc != null && new File(loc).isFile())	md.update(Files.readAllBytes(Paths.get(loc)));
+			else	md.update("<missing>".getBytes(StandardCharsets.UTF_8));
+		}
+		md.update(options.getBytes(StandardCharsets.UTF_8));
+		return md.digest();
+	}
+
+	static MessageDigest sha256()
+	{
+		try {	return MessageDigest.getInstance("SHA-256");	}
+		catch (NoSuchAlgorithmException e) {	throw new RuntimeException("Error: SHA-256 digests unavailable");	}
+	}
+
+	// keys of the states of @param sim at each instant
+	private String[] keysFor(Simulation sim)
+	{
+		if (sim == keyedSim)	return keys;
+		List<SChange> casc = sim.CASCADE();
+		String[] stages = sim.getStagesOrdered();
+		MessageDigest md = sha256();
+		md.update(context);
+		keys = new String[casc.size() + 1];
+		int si = 0;
+		for (int t = 0; t <= casc.size(); t++)
+		{
+			if (t > 0)	md.update(("rule\t"+casc.get(t - 1).getOrig()+"\n").getBytes(StandardCharsets.UTF_8));
+			// stages hit upon reaching instant t
+			while (si < stages.length && stageInstant(sim, stages[si]) == t)
+			{
+				boolean isGold = stages[si].charAt(0) == 'g';
+				int stn = Integer.parseInt(stages[si].substring(1));
+				md.update(("stage\t"+stages[si]+"\t"+(isGold ? sim.getGoldStageNames() : sim.getBlackStageNames())[stn]+"\t"+t+"\n")
+						.getBytes(StandardCharsets.UTF_8));
+				si++;
+			}
+			try {	keys[t] = hex(((MessageDigest) md.clone()).digest());	}
+			catch (CloneNotSupportedException e) {	throw new RuntimeException("Error: SHA-256 digests cannot be cloned");	}
+		}
+		keyedSim = sim;
+		return keys;
+	}
+
+	private static int stageInstant(Simulation sim, String stage)
+	{
+		int stn = Integer.parseInt(stage.substring(1));
+		return (stage.charAt(0) == 'g' ? sim.getGoldStageInstants() : sim.getBlackStageInstants())[stn];
+	}
+
+	private static String hex(byte[] bytes)
+	{
+		StringBuilder out = new StringBuilder();
+		for (byte b : bytes)	out.append(String.format("%02x", b));
+		return out.toString();
+	}
+
+	private File fileFor(String key)	{	return new File(dir, key + SUFFIX);	}
+
+	/**
+	 * resume @param sim from the latest of its states found in the cache, if any -- @param sim should not have been simulated yet.
+	 * cached states that cannot be restored (e.g. truncated files) are deleted.
+	 * @return the instant resumed at, 0 if none was found.
+	 */
+	public int resume(Simulation sim)
+	{
+		String[] simKeys = keysFor(sim);
+		for (int t = simKeys.length - 2; t > 0; t--)
+		{
+			File f = fileFor(simKeys[t]);
+			if (!f.isFile())	continue;
+			try {
+				sim.restoreCheckpoint(f);
+				f.setLastModified(System.currentTimeMillis());
+				return t;
+			}
+			catch (IOException | RuntimeException e) {
+				System.out.println("Warning: could not restore cached state "+f+" : "+e.getMessage()+" -- deleting it.");
+				f.delete();
+			}
+		}
+		return 0;
+	}
+
+	// store the current state of @param sim, then evict least recently used states if the cache is now too big
+	public void store(Simulation sim) throws IOException
+	{
+		sim.writeCheckpoint(fileFor(keysFor(sim)[sim.getInstant()]));
+		evict();
+	}
+
+	private void evict()
+	{
+		File[] cached = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+		if (cached == null)	return;
+		long total = 0;
+		for (File f : cached)	total += f.length();
+		Arrays.sort(cached, Comparator.comparingLong(File::lastModified));
+		for (int ci = 0; ci < cached.length && total > maxBytes; ci++)
+		{
+			total -= cached[ci].length();
+			cached[ci].delete();
+		}
+	}
+
+	// total size of the states cached
+	public long sizeInBytes()
+	{
+		File[] cached = dir.listFiles((d, name) -> name.endsWith(SUFFIX));
+		long total = 0;
+		if (cached != null)	for (File f : cached)	total += f.length();
+		return total;
+	}
+}
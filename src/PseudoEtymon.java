@@ -20,11 +20,13 @@ import java.util.HashMap;
 public class PseudoEtymon extends Etymon {
 	
 	private String representation; 
+	private final boolean absent; // representation is UTILS.ABSENT_REPR, rather than UNATTD_REPR
 	
 	public	PseudoEtymon(String repr)
 	{
 		super(new ArrayList<SequentialPhonic>());
 		this.representation = ""+repr; 
+		this.absent = representation.equals(UTILS.ABSENT_REPR); 
 		
 		// guard rail: 
 		if (!UTILS.PSEUDO_ETYM_REPRS.contains(representation))
@@ -39,9 +41,19 @@ public class PseudoEtymon extends Etymon {
 	
 	public boolean applyRule(SChange sch)	{	return false;	}
 	
+	public boolean applyRulePrefiltered(SChange sch)	{	return false;	}
+	
+	public boolean applyRule(SChange sch, int ruleInd, RealizationCache cache)	{	return false;	}
+	
+	public boolean applyRulePrefiltered(SChange sch, int ruleInd, RealizationCache cache)	{	return false;	}
+	
 	public String toString()	{	return representation;	}
 	
 	public String print() {		return representation;	}
+	
+	public boolean isPseudo()	{	return true;	}
+	
+	public boolean isAbsent()	{	return absent;	}
 
 	public int findSequence(RestrictPhone[] sequence)	{	
 		System.out.println("Warning: searching for sequence in a PseudoEtymon...");
@@ -109,7 +121,7 @@ public class PseudoEtymon extends Etymon {
 	
 	private void checkForMutateAbsentError (String param, String target)
 	{
-		if (representation.equals(UTILS.ABSENT_REPR))
+		if (absent)
 			throw new RuntimeException( "Alert: tried to set "+param+" (to '"+target+"') "
 					+ "an etymon that is currently absent! Check this.");	 
 	}
@@ -0,0 +1,52 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the result of SChange.realize() on an input, as it is built from the start of the input on
+ * 		-- which is the input itself for as long as each element added is the very element of the input at that place,
+ * 		so that a realization that changes nothing, as most do on most words, builds no new list : result() is then the input itself.
+ * 		only once an element differs (or the end is reached early) is the prefix built so far copied into a new list.
+ * elements are compared by identity, so this costs nothing beyond the comparison :
+ * 		the phones of a PhonSeq are pooled, and forceTruth() returns the pooled phone itself when it changes nothing (see Phone.pooled()).
+ * one is made for each call of realize(), so it is never shared between threads.
+ */
+public class Realization {
+
+	private final List<SequentialPhonic> input;
+	private List<SequentialPhonic> res; // null while the result so far is the first kept elements of input
+	private int kept;
+
+	// @param input -- the input being realized, the first @param prefixLen elements of which begin the result
+	public Realization(List<SequentialPhonic> input, int prefixLen)
+	{
+		this.input = input;
+		kept = prefixLen;
+	}
+
+	public void add(SequentialPhonic ph)
+	{
+		if (res == null)
+		{
+			if (kept < input.size() && input.get(kept) == ph)
+			{
+				kept++;
+				return;
+			}
+			res = new ArrayList<SequentialPhonic>(input.subList(0, kept));
+		}
+		res.add(ph);
+	}
+
+	public void addAll(List<? extends SequentialPhonic> phs)
+	{
+		if (res != null)	res.addAll(phs);
+		else	for (SequentialPhonic ph : phs)	add(ph);
+	}
+
+	// @return the result : the input itself if it is the same as the input, element for element
+	public List<SequentialPhonic> result()
+	{
+		if (res != null)	return res;
+		return kept == input.size() ? input : new ArrayList<SequentialPhonic>(input.subList(0, kept));
+	}
+}
@@ -0,0 +1,137 @@
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * hash-consing of phonological sequences, together with a bounded cache of the results of realizing them with the rules of a cascade
+ * in real lexica many etyma have the very same form at a given point -- inflectional variants, doublets, etc.
+ * 		hash-consing (canonical()) makes all of these share one canonical PhonSeq instance,
+ * 		and the cache means each distinct form is only realized once per rule (realize()), however many etyma have it.
+ * rules are identified by their index in the cascade, which is cheaper to hash and compare than the rules themselves.
+ * this relies on SChange.realize() being a function of its input alone, which holds for alpha rules as well,
+ * 		as they bind their alpha values anew for each match attempt (see AlphaBindings).
+ * both the pool of canonical forms and the cache are bounded :
+ * 		the cache drops its least recently used entries, the pool is simply emptied when full (later forms then become canonical).
+ * 		the cache is split into stripes by the hash of the key, each with its own lock and its share of the capacity,
+ * 		so that the threads applying a rule to a lexicon at once (see Lexicon.applyRuleAndGetChangedWords()) seldom wait for each other.
+ * the numbers of hits and misses of the cache are counted, for tuning its size
+ * 		-- it is off by default (see Simulation.setRealizationCacheSize()), as it only pays where many etyma share forms :
+ * 		on FLLex through DiaCLEF, whose forms are mostly distinct, its hit rate is under 2%, and runs are slower with it.
+ * this can be shared by several threads.
+ */
+public class RealizationCache {
+
+	private static final int MAX_STRIPES = 16;
+
+	private final int capacity;
+	private final ConcurrentHashMap<PhonSeq, PhonSeq> canonicalForms;
+	private final LinkedHashMap<CacheKey, PhonSeq>[] stripes; // each guarded by itself
+	private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+	/**
+	 * @param capacity -- maximum number of (rule, form) results kept, and of canonical forms pooled
+	 */
+	@SuppressWarnings("unchecked")
+	public RealizationCache(int capacity)
+	{
+		if (capacity < 1)	throw new RuntimeException("Error: realization cache capacity must be at least 1, but it was "+capacity);
+		this.capacity = capacity;
+		canonicalForms = new ConcurrentHashMap<PhonSeq, PhonSeq>();
+		int numStripes = Math.min(MAX_STRIPES, capacity);
+		stripes = new LinkedHashMap[numStripes];
+		for (int si = 0; si < numStripes; si++)
+		{
+			// the capacity is spread over the stripes so that they add up to it exactly
+			int stripeCapacity = capacity / numStripes + (si < capacity % numStripes ? 1 : 0);
+			stripes[si] = new LinkedHashMap<CacheKey, PhonSeq>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<CacheKey, PhonSeq> eldest)
+				{	return size() > stripeCapacity;	}
+			};
+		}
+	}
+
+	// @return the canonical instance of the sequence with the same content as @param seq (which becomes the canonical one if there is none yet)
+	public PhonSeq canonical(List<SequentialPhonic> seq)
+	{
+		PhonSeq ps = PhonSeq.of(seq);
+		PhonSeq canon = canonicalForms.get(ps);
+		if (canon != null)	return canon;
+		if (canonicalForms.size() >= capacity)	canonicalForms.clear();
+		canon = canonicalForms.putIfAbsent(ps, ps);
+		return canon == null ? ps : canon;
+	}
+
+	/**
+	 * @return the (canonical) result of @param rule realizing @param input, @param ruleInd being the index of the rule in the cascade
+	 * 		from the cache if it has been computed before, otherwise computed and cached
+	 */
+	public PhonSeq realize(int ruleInd, SChange rule, List<SequentialPhonic> input)
+	{
+		CacheKey key = new CacheKey(ruleInd, canonical(input));
+		LinkedHashMap<CacheKey, PhonSeq> stripe = stripeOf(key);
+		PhonSeq result;
+		synchronized (stripe)	{	result = stripe.get(key);	}
+		if (result != null)
+		{
+			hits.incrementAndGet();
+			return result;
+		}
+		misses.incrementAndGet();
+		// realizing happens outside the lock; two threads may occasionally compute the same result, which is harmless.
+		PhonSeq changed = rule.realizeChange(key.form);
+		result = changed == null ? key.form : canonical(changed);
+		synchronized (stripe)	{	stripe.put(key, result);	}
+		return result;
+	}
+
+	private LinkedHashMap<CacheKey, PhonSeq> stripeOf(CacheKey key)
+	{
+		int h = key.hashCode();
+		return stripes[((h ^ (h >>> 16)) & 0x7fffffff) % stripes.length];
+	}
+
+	public long getHits()	{	return hits.get();	}
+	public long getMisses()	{	return misses.get();	}
+	public double getHitRate()
+	{
+		long total = hits.get() + misses.get();
+		return total == 0 ? 0.0 : (double) hits.get() / total;
+	}
+	public int getCapacity()	{	return capacity;	}
+	public int numCachedResults()
+	{
+		int total = 0;
+		for (LinkedHashMap<CacheKey, PhonSeq> stripe : stripes)
+			synchronized (stripe)	{	total += stripe.size();	}
+		return total;
+	}
+
+	public String statsReport()
+	{
+		return "Realization cache : "+getHits()+" hits, "+getMisses()+" misses (hit rate "
+				+String.format("%.3f", getHitRate())+"), "+numCachedResults()+" results cached, capacity "+capacity;
+	}
+
+	private static final class CacheKey
+	{
+		final int ruleInd;
+		final PhonSeq form;
+
+		CacheKey(int ruleInd, PhonSeq form)	{	this.ruleInd = ruleInd; this.form = form;	}
+
+		@Override
+		public int hashCode()	{	return 31 * ruleInd + form.hashCode();	}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof CacheKey))	return false;
+			CacheKey ok = (CacheKey) other;
+			return ruleInd == ok.ruleInd && form.equals(ok.form);
+		}
+	}
+}
@@ -1,4 +1,3 @@
-import java.util.HashMap;
 import java.util.List;
 
 public interface RestrictPhone{
@@ -16,8 +15,9 @@ public interface RestrictPhone{
 	
 	public List<SequentialPhonic> forceTruth(List<SequentialPhonic> patientSeq, int ind); 
 	
-	public void applyAlphaValues(HashMap<String,String> alphVals);
-	public HashMap<String,String> extractAndApplyAlphaValues(SequentialPhonic inp);
+	public void applyAlphaValues(AlphaBindings alphVals);
+	public boolean extractAndApplyAlphaValues(SequentialPhonic inp, AlphaBindings into);
+		// binds in into the alpha values @param inp gives, and applies them -- returns whether any were
 	public boolean check_for_alpha_conflict(SequentialPhonic inp); 
 	//public SequentialPhonic forceTruth(SequentialPhonic patient); 
 	public void resetAlphaValues();
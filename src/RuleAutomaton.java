@@ -0,0 +1,87 @@
+/**
+ * compiled form of a whole SChangeFeat -- prior context, target and posterior context -- that finds every place of an input
+ * 		where the rule applies in one left-to-right scan of it, rather than asking priorMatch() and isMatch() at each place in turn.
+ * it runs the automata of both contexts (see ContextAutomaton) in the same scan :
+ * 		the prior one as it does alone, giving at each place whether the prior context matches before it;
+ * 		where it does and the target matches the element there, that place becomes a pending site, for which the posterior context is then matched,
+ * 		one place restriction after another, over the elements that follow -- bit-parallel over the pending sites,
+ * 		with one row of bits per restriction of the posterior context, holding the sites that have matched the restrictions before it so far.
+ * 		a site that matches the last one is found.
+ * so it can only be built for a target with no alpha values that takes one place, and contexts each either absent (minimum size 0) or with an automaton.
+ * it holds nothing of any one input, so a rule holding one can be realized on several threads at once.
+ */
+public class RuleAutomaton {
+
+	private final RestrictPhone targ;
+	private final ContextAutomaton prior, postr; // null for a context that is absent
+	private final int numPostPlaces;
+
+	/**
+	 * @param priorContext, @param postContext -- null if absent
+	 * 		-- each must otherwise have an automaton, and the target no alpha values (see isCompilable())
+	 */
+	public RuleAutomaton(RestrictPhone targ, SequentialFilter priorContext, SequentialFilter postContext)
+	{
+		if (!isCompilable(targ, priorContext, postContext))
+			throw new RuntimeException("ERROR: tried to compile a rule with target "+targ+" that cannot have an automaton");
+		this.targ = targ;
+		prior = priorContext == null ? null : priorContext.getAutomaton();
+		postr = postContext == null ? null : postContext.getAutomaton();
+		numPostPlaces = postr == null ? 0 : postr.numPlaces();
+	}
+
+	public static boolean isCompilable(RestrictPhone targ, SequentialFilter priorContext, SequentialFilter postContext)
+	{
+		return targ instanceof FeatMatrix && !targ.has_alpha_specs()
+				&& (priorContext == null || priorContext.getAutomaton() != null)
+				&& (postContext == null || postContext.getAutomaton() != null);
+	}
+
+	/**
+	 * @return the places of @param input where the rule applies : bit p (of the result[p / 64]) is set
+	 * 		iff the prior context matches before place p, the target matches the element at p, and the posterior context matches after it
+	 * 		-- see SequentialFilter.isSite()
+	 */
+	public long[] sites(PhonSeq input)
+	{
+		int size = input.size(), words = (size + 64) >>> 6;
+		long[] sites = new long[words];
+		long[] pending = new long[numPostPlaces * words]; // row j, from pending[j * words] : the sites that have matched posterior places 0 to j-1
+		long priorLast = prior == null ? 0 : 1L << (prior.numPlaces() - 1), priorState = 0;
+		for (int ci = 0; ci < size; ci++)
+		{
+			int code = input.codeAt(ci);
+			if (numPostPlaces > 0)	advance(pending, words, code, sites);
+			if ((prior == null || (priorState & priorLast) != 0) && targ.compare(input.get(ci)))
+			{
+				if (numPostPlaces == 0)	sites[ci >>> 6] |= 1L << ci;
+				else	pending[ci >>> 6] |= 1L << ci;
+			}
+			if (prior != null)
+				priorState = (priorState & prior.passed(code)) | (((priorState << 1) | 1) & prior.matches(code));
+		}
+		return sites;
+	}
+
+	// moves the pending sites over the element with @param code : on to the next row where it matches the place of their row, staying where it is passed over
+	private void advance(long[] pending, int words, int code, long[] sites)
+	{
+		long matched = postr.matches(code), passed = postr.passed(code);
+		for (int j = numPostPlaces - 1; j >= 0; j--)
+		{
+			boolean moves = (matched & (1L << j)) != 0, stays = (passed & (1L << j)) != 0;
+			int row = j * words;
+			for (int w = 0; w < words; w++)
+			{
+				long bits = pending[row + w];
+				if (bits == 0)	continue;
+				if (moves)
+				{
+					if (j == numPostPlaces - 1)	sites[w] |= bits;
+					else	pending[row + words + w] |= bits;
+				}
+				if (!stays)	pending[row + w] = 0;
+			}
+		}
+	}
+}
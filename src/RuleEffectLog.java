@@ -0,0 +1,153 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * sparse, append-only store of the effects of the rules of a cascade upon the etyma of a Simulation
+ * each event is one etymon being changed by one rule, stored as four ints :
+ * 		(rule index, etymon index, id of the form before, id of the form after)
+ * 		with the forms (as printed by Etymon.print()) interned in a FormPool.
+ * only the etyma actually changed by a rule take up space, unlike a dense [rules][etyma] matrix, which would be nearly all empty.
+ * events can be retrieved by rule or by etymon; the indices for this are built lazily when first needed after new events come in.
+ * 		by rule, the events are ordered by etymon index; by etymon, by rule index.
+ * rendering the events as text is left to the caller (see Simulation.getRuleEffect()).
+ * it is not synchronized : in a parallel simulation, each worker logs into a buffer of its own (see newBuffer()),
+ * 		and the buffers are merged into the log once the workers are done (see merge()).
+ */
+public class RuleEffectLog {
+
+	private final int numRules, numEtyma;
+	private final FormPool forms = new FormPool();
+
+	private int[] events; // four ints per event -- see class comment.
+	private int numEvents;
+
+	// lazily built indices : the ids of the events of rule (etymon) i are byRule (byEt)[byRuleStarts (byEtStarts)[i] ... [i+1]-1]
+	private int[] byRuleStarts, byRule, byEtStarts, byEt;
+	private int numEventsIndexed;
+
+	private final static int INIT_CAPACITY = 1024;
+
+	public RuleEffectLog(int numRules, int numEtyma)
+	{
+		this.numRules = numRules;
+		this.numEtyma = numEtyma;
+		events = new int[4 * INIT_CAPACITY];
+		numEvents = 0;
+		numEventsIndexed = -1;
+	}
+
+	// record that rule @param ruleInd changed etymon @param etID from @param prevForm to @param newForm
+	public void log(int ruleInd, int etID, String prevForm, String newForm)
+	{
+		if (4 * (numEvents + 1) > events.length)	events = Arrays.copyOf(events, events.length * 2);
+		int base = 4 * numEvents;
+		events[base] = ruleInd;
+		events[base + 1] = etID;
+		events[base + 2] = forms.intern(prevForm);
+		events[base + 3] = forms.intern(newForm);
+		numEvents++;
+	}
+
+	public int numEvents()	{	return numEvents;	}
+
+	public int getRule(int evID)	{	return events[4 * evID];	}
+	public int getEtymon(int evID)	{	return events[4 * evID + 1];	}
+	public String getPrevForm(int evID)	{	return forms.getForm(events[4 * evID + 2]);	}
+	public String getNewForm(int evID)	{	return forms.getForm(events[4 * evID + 3]);	}
+
+	// @return an empty log for the same rules and etyma, to be merged into this one later
+	public RuleEffectLog newBuffer()	{	return new RuleEffectLog(numRules, numEtyma);	}
+
+	/**
+	 * appends the events of @param buffers (see newBuffer()) to this log, in order of rule and, for each rule, of etymon
+	 * 		-- the order in which Simulation.iterate() logs them --
+	 * 		given that the buffers are in order of the etyma they logged, each of which logged its etyma in order
+	 * 		and only for rules after those already in this log.
+	 */
+	public void merge(List<RuleEffectLog> buffers)
+	{
+		int[] ruleStarts = new int[numRules + 1];
+		int added = 0;
+		for (RuleEffectLog buf : buffers)
+		{
+			for (int evi = 0; evi < buf.numEvents; evi++)	ruleStarts[buf.events[4 * evi] + 1]++;
+			added += buf.numEvents;
+		}
+		for (int ri = 0; ri < numRules; ri++)	ruleStarts[ri + 1] += ruleStarts[ri];
+
+		if (4 * (numEvents + added) > events.length)
+			events = Arrays.copyOf(events, Math.max(events.length * 2, 4 * (numEvents + added)));
+		for (RuleEffectLog buf : buffers)
+		{
+			int[] formIds = forms.internAll(buf.forms);
+			for (int evi = 0; evi < buf.numEvents; evi++)
+			{
+				int bufBase = 4 * evi, base = 4 * (numEvents + ruleStarts[buf.events[bufBase]]++);
+				events[base] = buf.events[bufBase];
+				events[base + 1] = buf.events[bufBase + 1];
+				events[base + 2] = formIds[buf.events[bufBase + 2]];
+				events[base + 3] = formIds[buf.events[bufBase + 3]];
+			}
+		}
+		numEvents += added;
+	}
+
+	// for checkpoints (see Simulation.writeCheckpoint()) : the events and the forms
+	public void writeTo(DataOutputStream out) throws IOException
+	{
+		out.writeInt(numEvents);
+		for (int i = 0; i < 4 * numEvents; i++)	out.writeInt(events[i]);
+		forms.writeTo(out);
+	}
+
+	// replaces the events of this log with those written by writeTo()
+	public void readFrom(DataInputStream in) throws IOException
+	{
+		numEvents = in.readInt();
+		events = new int[4 * Math.max(INIT_CAPACITY, numEvents)];
+		for (int i = 0; i < 4 * numEvents; i++)	events[i] = in.readInt();
+		forms.readFrom(in);
+		numEventsIndexed = -1;
+	}
+
+	// @return ids of the events of rule @param ruleInd, in order of etymon index
+	public int[] getEventsOfRule(int ruleInd)
+	{
+		index();
+		return Arrays.copyOfRange(byRule, byRuleStarts[ruleInd], byRuleStarts[ruleInd + 1]);
+	}
+
+	// @return ids of the events affecting etymon @param etID, in order of rule index
+	public int[] getEventsOfEtymon(int etID)
+	{
+		index();
+		return Arrays.copyOfRange(byEt, byEtStarts[etID], byEtStarts[etID + 1]);
+	}
+
+	// (re)build the indices by counting sort if events were added since they were last built.
+	private void index()
+	{
+		if (numEventsIndexed == numEvents)	return;
+
+		// by etymon first -- events are logged (or merged) in rule order for each etymon, so they stay in rule order.
+		byEtStarts = new int[numEtyma + 1];
+		for (int evi = 0; evi < numEvents; evi++)	byEtStarts[events[4 * evi + 1] + 1]++;
+		for (int ei = 0; ei < numEtyma; ei++)	byEtStarts[ei + 1] += byEtStarts[ei];
+		byEt = new int[numEvents];
+		int[] fill = Arrays.copyOf(byEtStarts, numEtyma);
+		for (int evi = 0; evi < numEvents; evi++)	byEt[fill[events[4 * evi + 1]]++] = evi;
+
+		// then by rule, going through the events by etymon so that they end up in etymon order for each rule.
+		byRuleStarts = new int[numRules + 1];
+		for (int evi = 0; evi < numEvents; evi++)	byRuleStarts[events[4 * evi] + 1]++;
+		for (int ri = 0; ri < numRules; ri++)	byRuleStarts[ri + 1] += byRuleStarts[ri];
+		byRule = new int[numEvents];
+		fill = Arrays.copyOf(byRuleStarts, numRules);
+		for (int evi : byEt)	byRule[fill[events[4 * evi]]++] = evi;
+
+		numEventsIndexed = numEvents;
+	}
+}
@@ -0,0 +1,140 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * conservative "necessary condition" for an SChange to be able to change a word, used to skip words the rule cannot possibly match
+ * 		without running SChange.realize() on them at all (see Etymon.applyRule())
+ * the condition is an OR of alternatives (e.g. the several target sequences of an SChangePhone),
+ * 		each an AND of places that must all be found in the word (the places of the target and the places of the contexts outside parentheses)
+ * 		each place is reduced to the feature values it requires : positive, negative, or unspecified
+ * 			for a Phone, all of its feature values; for a FeatMatrix, its specified values other than alpha values
+ * 			boundaries and null phones require nothing.
+ * 		and each alternative to three bitmasks over the features -- those required positive, negative and unspecified by some place.
+ * a word is then summarized by the same three masks, with the bits of each feature that has that value in some phone of it (see presenceOf())
+ * 		and an alternative is possible for the word only if all its required bits are present.
+ * this can only rule words out when the rule indeed cannot match them : it never prevents a change that would happen.
+ * if there are more features than bits in a long, or a place is of an unforeseen kind, nothing is ruled out.
+ * the numbers of words checked and skipped are counted, for reporting the skip rate of each rule (see Simulation.prefilterReport())
+ * 		a rule is shared by the worker threads, so these counts can be incremented by several threads at once.
+ */
+public class RuleSignature {
+
+	public final static int POS = 0, NEG = 1, UNSPEC = 2;
+	private final static int MAX_FEATS = 64;
+
+	private final long[][] alternatives; // each {pos mask, neg mask, unspec mask} ; null if nothing is ruled out
+	private final LongAdder checked = new LongAdder(), skipped = new LongAdder();
+
+	/**
+	 * @param targAlternatives -- alternative targets, each a sequence of places that must all be found in a word for the rule to change it
+	 * @param contextPlaces -- places that must be found in any case
+	 * 		places are expected to be Phone or FeatMatrix instances -- others (boundaries, null phones) require nothing.
+	 */
+	public RuleSignature(List<? extends List<?>> targAlternatives, List<?> contextPlaces)
+	{
+		long[] contextReqs = new long[3];
+		boolean possible = requireAll(contextReqs, contextPlaces);
+		List<long[]> alts = new ArrayList<long[]>();
+		if (targAlternatives.isEmpty())	possible = false;
+		for (List<?> targ : targAlternatives)
+		{
+			long[] reqs = contextReqs.clone();
+			possible &= requireAll(reqs, targ);
+			alts.add(reqs);
+		}
+		alternatives = possible ? alts.toArray(new long[alts.size()][]) : null;
+	}
+
+	// signature ruling nothing out -- e.g. for insertions.
+	public RuleSignature()
+	{	alternatives = null;	}
+
+	/**
+	 * adds to @param reqs the feature values required by each of @param places
+	 * @return false if the requirements cannot be represented (too many features), in which case nothing should be ruled out
+	 */
+	private static boolean requireAll(long[] reqs, List<?> places)
+	{
+		for (Object place : places)
+		{
+			String spec;
+			boolean isMatrix = place instanceof FeatMatrix;
+			if (isMatrix)	spec = ((FeatMatrix) place).getStrInitChArr();
+				// 2 positive, 0 negative, 9 despecified (must be unspecified), 1 unspecified or any alpha symbol : no requirement
+			else if (place instanceof Phone)	spec = ((Phone) place).getFeatString();
+				// 2 positive, 0 negative, 1 unspecified
+			else	continue;
+
+			if (spec.length() > MAX_FEATS)	return false;
+			for (int fi = 0; fi < spec.length(); fi++)
+			{
+				char c = spec.charAt(fi);
+				if (c == '2')	reqs[POS] |= 1L << fi;
+				else if (c == '0')	reqs[NEG] |= 1L << fi;
+				else if (c == (isMatrix ? '9' : '1'))	reqs[UNSPEC] |= 1L << fi;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return for @param seq, masks {pos, neg, unspec} with the bit of each feature set if some phone in @param seq has that value for it
+	 * 		or null if there are too many features for this.
+	 */
+	public static long[] presenceOf(List<SequentialPhonic> seq)
+	{
+		long[] out = new long[3];
+		for (SequentialPhonic ph : seq)
+		{
+			if (!(ph instanceof Phone))	continue;
+			Phone phone = (Phone) ph;
+			int numFeats = phone.getFeatString().length();
+			if (numFeats > MAX_FEATS)	return null;
+			long spec = phone.getSpecMask(), pos = phone.getPosMask();
+			out[POS] |= pos;
+			out[NEG] |= spec & ~pos;
+			out[UNSPEC] |= ~spec & (numFeats == 64 ? -1L : (1L << numFeats) - 1);
+		}
+		return out;
+	}
+
+	/**
+	 * @return false only if the rule certainly cannot change a word of phonological representation @param seq
+	 * 		the check is counted, as is the skip if false is returned.
+	 */
+	public boolean mayApply(PhonSeq seq)
+	{
+		checked.increment();
+		if (alternatives == null)	return true;
+		long[] present = seq.getFeatPresence();
+		if (present == null)	return true;
+		for (long[] alt : alternatives)
+			if ((alt[POS] & ~present[POS]) == 0 && (alt[NEG] & ~present[NEG]) == 0 && (alt[UNSPEC] & ~present[UNSPEC]) == 0)
+				return true;
+		skipped.increment();
+		return false;
+	}
+
+	// whether this signature can rule out any word at all
+	public boolean isSelective()	{	return alternatives != null;	}
+
+	// @return the alternatives, each {pos mask, neg mask, unspec mask}, or null if nothing is ruled out -- not to be modified.
+		// for ruling out many words at once (see LexiconIndex.candidatesFor())
+	public long[][] getAlternatives()	{	return alternatives;	}
+
+	// count @param numChecked words as checked, @param numSkipped of which as skipped, when they were checked all at once rather than by mayApply()
+	public void recordChecked(long numChecked, long numSkipped)
+	{
+		checked.add(numChecked);
+		skipped.add(numSkipped);
+	}
+
+	public long getNumChecked()	{	return checked.sum();	}
+	public long getNumSkipped()	{	return skipped.sum();	}
+	public double getSkipRate()
+	{
+		long ch = checked.sum();
+		return ch == 0 ? 0.0 : (double) skipped.sum() / ch;
+	}
+}
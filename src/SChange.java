@@ -1,4 +1,4 @@
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List; 
 
 /**
@@ -23,7 +23,7 @@ public abstract class SChange {
 	protected boolean boundsMatter, priorSpecd, postSpecd; 
 	protected int minPriorSize, minPostSize, minInputSize; 
 	protected String orig;
-	protected HashMap<String,String> ALPH_VARS; 
+	private volatile RuleSignature signature; // see getSignature() 
 	
 	public SChange(String origForm)
 	{
@@ -54,13 +54,62 @@ public abstract class SChange {
 	}
 	
 	public void setPriorContext(SequentialFilter p)
-	{	priorContext = p; minPriorSize = priorContext.getMinSize(); priorSpecd = true; }
+	{	priorContext = p; minPriorSize = priorContext.getMinSize(); priorSpecd = true; signature = null; }
 	
 	public void setPostContext(SequentialFilter p)
-	{	postContext = p; minPostSize = postContext.getMinSize(); postSpecd = true; }
+	{	postContext = p; minPostSize = postContext.getMinSize(); postSpecd = true; signature = null; }
 	
+	/**
+	 * @return the necessary condition for this rule to change a word (see RuleSignature), computed when first needed
+	 */
+	public RuleSignature getSignature()
+	{
+		RuleSignature sig = signature; 
+		if (sig == null)
+		{
+			synchronized (this)
+			{
+				if (signature == null)	signature = computeSignature(); 
+				sig = signature; 
+			}
+		}
+		return sig; 
+	}
+	
+	// subclasses override this with signatureFor() their targets; by default nothing is ruled out. 
+	protected RuleSignature computeSignature()
+	{	return new RuleSignature();	}
+	
+	/**
+	 * @return signature requiring one of @param targAlternatives (each a sequence of places that must all be present)
+	 * 		as well as the places of the contexts that are outside of parentheses
+	 */
+	protected RuleSignature signatureFor(List<? extends List<?>> targAlternatives)
+	{
+		List<RestrictPhone> contextPlaces = new ArrayList<RestrictPhone>(); 
+		if (minPriorSize > 0)	contextPlaces.addAll(priorContext.getMandatoryPlaces()); 
+		if (minPostSize > 0)	contextPlaces.addAll(postContext.getMandatoryPlaces()); 
+		return new RuleSignature(targAlternatives, contextPlaces); 
+	}
+	
+	/**
+	 * @return @param phonologicalSeq with this rule applied to it -- @param phonologicalSeq itself if the rule changes nothing in it
+	 * 		(the subclasses build their results with Realization, so that this holds without building a new sequence) 
+	 */
 	public abstract List<SequentialPhonic> realize(List<SequentialPhonic> phonologicalSeq);
 	
+	/**
+	 * @return @param phonologicalSeq with this rule applied to it, as a PhonSeq -- or null if that is the same sequence, 
+	 * 		found without building or comparing anything when realize() returns its input itself, as it does for most rules on most words
+	 */
+	public PhonSeq realizeChange(List<SequentialPhonic> phonologicalSeq)
+	{
+		List<SequentialPhonic> realized = realize(phonologicalSeq); 
+		if (realized == phonologicalSeq)	return null; 
+		PhonSeq result = PhonSeq.of(realized); 
+		return result.equals(PhonSeq.of(phonologicalSeq)) ? null : result; // comparing codes only (see PhonSeq)
+	}
+	
 	public String toString()
 	{
 		if (!priorSpecd && !postSpecd)	return "";
@@ -73,16 +122,33 @@ public abstract class SChange {
 	}
 
 	protected boolean priorMatch(List<SequentialPhonic> input, int frstTargInd)
+	{	return priorMatch(input, frstTargInd, null);	}
+	protected boolean posteriorMatch(List<SequentialPhonic> input, int indAfter)
+	{	return posteriorMatch(input, indAfter, null);	}
+	
+	// for the alpha classes : @param alphas holds the values bound in the match attempt these are part of (see AlphaBindings) 
+	protected boolean priorMatch(List<SequentialPhonic> input, int frstTargInd, AlphaBindings alphas)
 	{
 		if(minPriorSize == 0)	return true; 
-		else 	return priorContext.isPriorMatch(input, frstTargInd); 
+		else 	return priorContext.isPriorMatch(input, frstTargInd, alphas); 
 	}
-	protected boolean posteriorMatch(List<SequentialPhonic> input, int indAfter)
+	protected boolean posteriorMatch(List<SequentialPhonic> input, int indAfter, AlphaBindings alphas)
 	{
 		if(minPostSize == 0)	return true;
-		return postContext.isPosteriorMatch(input, indAfter); 
+		return postContext.isPosteriorMatch(input, indAfter, alphas); 
 	}
 	
+	/**
+	 * @return the places of @param input where priorMatch() holds, found in one scan of it (see SequentialFilter.priorSites()), 
+	 * 		for a realize() that asks about the prior context at each place in turn -- or null if each is to be asked about instead
+	 */
+	protected long[] priorSites(List<SequentialPhonic> input)
+	{	return minPriorSize == 0 ? null : priorContext.priorSites(input);	}
+	
+	// priorMatch(@param input, @param frstTargInd), looked up in @param sites as returned by priorSites() unless that is null 
+	protected boolean priorMatchAt(List<SequentialPhonic> input, int frstTargInd, long[] sites)
+	{	return sites != null ? SequentialFilter.isSite(sites, frstTargInd) : priorMatch(input, frstTargInd);	}
+	
 	public String getOrig()
 	{	return orig;	}
 	
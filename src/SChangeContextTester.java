@@ -384,6 +384,68 @@ public class SChangeContextTester {
 		dummyTestList.add(new Boundary("word bound")); 
 		System.out.println("__ C B D D # should be FALSE : "+testContext.isPosteriorMatch(dummyTestList, 1));
 		
+		System.out.println("\nNow testing the automata of paren-free filters, and of whole rules, against the matchers..."); 
+		Phone[] testPhs = new Phone[] {Aph, Bph, Cph, Dph}; 
+		String[] testInputs = new String[] {"#ABCD#", "#AB+CD#", "#A+BA+B#", "#CBDCB#", "#A#B#", "#+A+B+#", "#DDAABB#", "#ABCABCDBA#", 
+				"#AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAABA#"}; 
+		String[] testFilters = new String[] {""+Afm, ""+Afm+PH_DELIM+Bfm, "#"+PH_DELIM+Afm, ""+Afm+PH_DELIM+"#", "@"+PH_DELIM+Afm, 
+				""+Cfm+PH_DELIM+Bfm+PH_DELIM+Dfm, ""+Bfm+PH_DELIM+"#"}; 
+		int numCorrect = 0, numTests = 0; 
+		for (String filt : testFilters)
+		{
+			SequentialFilter autoContext = testFactory.parseNewSeqFilter(filt, boundsMatter); 
+			for (String inp : testInputs)
+			{
+				PhonSeq seq = PhonSeq.of(testSeq(inp, testPhs)); 
+				long[] priorSites = autoContext.priorSites(seq), postSites = autoContext.posteriorSites(seq); 
+				boolean correct = priorSites != null && postSites != null; 
+				for (int p = 0; correct && p <= seq.size(); p++)
+					correct = SequentialFilter.isSite(priorSites, p) == autoContext.isPriorMatch(seq, p)
+						&& SequentialFilter.isSite(postSites, p) == autoContext.isPosteriorMatch(seq, p); 
+				if (correct)	numCorrect++; 
+				else	System.out.println("Automaton of "+filt+" disagrees with the matchers on "+inp); 
+				numTests++; 
+			}
+		}
+		for (String prior : new String[] {"", ""+Afm, "#"}) 
+			for (String postr : new String[] {"", ""+Bfm, ""+Afm+PH_DELIM+"#", "@"+PH_DELIM+Bfm})
+			{
+				SequentialFilter autoPrior = prior.equals("") ? null : testFactory.parseNewSeqFilter(prior, boundsMatter), 
+						autoPostr = postr.equals("") ? null : testFactory.parseNewSeqFilter(postr, boundsMatter); 
+				SChangeFeat autoRule = new SChangeFeat(Afm, Dfm, "test"); 
+				if (autoPrior != null)	autoRule.setPriorContext(autoPrior); 
+				if (autoPostr != null)	autoRule.setPostContext(autoPostr); 
+				RuleAutomaton ruleAuto = new RuleAutomaton(Afm, autoPrior, autoPostr); 
+				for (String inp : testInputs)
+				{
+					PhonSeq seq = PhonSeq.of(testSeq(inp, testPhs)); 
+					long[] sites = ruleAuto.sites(seq); 
+					boolean correct = true; 
+					for (int p = 0; correct && p < seq.size(); p++)
+						correct = SequentialFilter.isSite(sites, p) == (autoRule.priorMatch(seq, p) && autoRule.isMatch(seq, p)); 
+					if (correct)	numCorrect++; 
+					else	System.out.println("Automaton of "+prior+" __ "+postr+" disagrees with the matchers on "+inp); 
+					numTests++; 
+				}
+			}
+		// and whole rules built with automata, against the same built to be matched by the matchers alone
+		SChangeFactory matcherFactory = new SChangeFactory(phoneSymbToFeatsMap, featIndices, featImplications, true, false); 
+		for (String prior : new String[] {"", ""+Afm, "#", ""+Cfm+PH_DELIM+Bfm}) 
+			for (String postr : new String[] {"", ""+Bfm, ""+Afm+PH_DELIM+"#"})
+			{
+				String rule = ""+Afm+" > "+Dfm+(prior.equals("") && postr.equals("") ? "" : " / "+prior+" __ "+postr); 
+				List<SChange> autoRule = testFactory.generateSoundChangesFromRule(rule), 
+						matcherRule = matcherFactory.generateSoundChangesFromRule(rule); 
+				for (String inp : testInputs)
+				{
+					PhonSeq seq = PhonSeq.of(testSeq(inp, testPhs)); 
+					if (autoRule.get(0).realize(seq).equals(matcherRule.get(0).realize(seq)))	numCorrect++; 
+					else	System.out.println("Rule "+rule+" differs without automata on "+inp); 
+					numTests++; 
+				}
+			}
+		System.out.println("Done testing the automata. Got "+numCorrect+" correct out of "+numTests+"."); 
+		
 		//TODO but ... what was I doing here? 
 		//TODO below is abrogated
 		//TODO finish this 
@@ -422,4 +484,17 @@ public class SChangeContextTester {
 	
 	
 	
+	// @return the sequence spelled by @param spelling, with A to D for @param phs, # for word bounds and + for morph bounds
+	private static List<SequentialPhonic> testSeq(String spelling, Phone[] phs)
+	{
+		List<SequentialPhonic> seq = new ArrayList<SequentialPhonic>(); 
+		for (char c : spelling.toCharArray())
+		{
+			if (c == '#')	seq.add(new Boundary("word bound")); 
+			else if (c == '+')	seq.add(new Boundary("morph bound")); 
+			else	seq.add(phs[c - 'A']); 
+		}
+		return seq; 
+	}
+	
 }
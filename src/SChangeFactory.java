@@ -21,7 +21,7 @@ public class SChangeFactory {
 	private HashMap<String, String> featVectsToSymb; 
 	private static HashMap<String, Integer> featIndices;
 	private static HashMap<String, String[]> featImplications; 
-	private static Set<String> featsWithImplications; 
+	private static FeatImplicationTable featImplTable; 
 	private static List<String> ordFeatNames; 
 	
 	private final char ARROW = '>'; //separates source target from destination 
@@ -47,11 +47,22 @@ public class SChangeFactory {
 	
 	
 	private boolean boundsMatter; 
+	private final boolean memoizingFilters, compilingAutomata; // passed to each SequentialFilter made, see there -- the latter also to each SChangeFeat
 	
 	//Constructor
 	
 	public SChangeFactory(HashMap<String, String> stf, HashMap<String,Integer> featInds, HashMap<String, String[]> featImpls)
+	{	this(stf, featInds, featImpls, true, true);	}
+	
+	// @param memoizingFilters -- whether the contexts of the rules made may use the memo of SequentialFilter : 
+		// only turned off to compare with it, as SequentialFilterBenchmark does 
+	// @param compilingAutomata -- whether the rules made and their contexts are compiled into automata where they can be (see RuleAutomaton, ContextAutomaton), 
+		// rather than matched by the matchers alone : likewise only turned off to compare with them 
+	SChangeFactory(HashMap<String, String> stf, HashMap<String,Integer> featInds, HashMap<String, String[]> featImpls, 
+			boolean memoizingFilters, boolean compilingAutomata)
 	{
+		this.memoizingFilters = memoizingFilters; 
+		this.compilingAutomata = compilingAutomata; 
 		boundsMatter = false; //TODO figure out how the user can specify if boundsMatter should be true
 		
 		symbToFeatVects = new HashMap<String, String>(stf);
@@ -73,7 +84,7 @@ public class SChangeFactory {
 		}
 		
 		featImplications = new HashMap<String, String[]>(featImpls); 
-		featsWithImplications = featImplications.keySet(); 
+		featImplTable = new FeatImplicationTable(ordFeatNames, featImplications); 
 		
 		featVectsToSymb = new HashMap<String, String>(); 
 		Set<String> stfKeys = stf.keySet(); 
@@ -251,6 +262,7 @@ public class SChangeFactory {
 			{
 				SChangeFeat thisShift = usingAlphFeats ? new SChangeFeatAlpha(getFeatMatrix(inputSource), theDest, boundsMatter, inp) :
 						new SChangeFeat(getFeatMatrix(inputSource), theDest, boundsMatter, inp); 
+				if (!compilingAutomata)	thisShift.useMatchersOnly(); 
 				if(priorSpecified) thisShift.setPriorContext(parseNewSeqFilter(inputPrior, boundsMatter)); 
 				if(postrSpecified) thisShift.setPostContext(parseNewSeqFilter(inputPostr, boundsMatter));
 				output.add(thisShift); 
@@ -384,7 +396,7 @@ public class SChangeFactory {
 			}
 			else if(symbToFeatVects.containsKey(inputLeft))
 			{
-				output.add(new Phone(symbToFeatVects.get(inputLeft), featIndices, symbToFeatVects));
+				output.add(Phone.intern(new Phone(symbToFeatVects.get(inputLeft), featIndices, symbToFeatVects)));
 				return output; 
 			}
 			else if(inputLeft.indexOf(phDelim) > 0)
@@ -392,7 +404,7 @@ public class SChangeFactory {
 				String toDelim = inputLeft.substring(0, inputLeft.indexOf(phDelim)); 
 				if(! symbToFeatVects.containsKey(toDelim) )	throw new RuntimeException(
 					"Tried to declare phone with illegitimate symbol : "+toDelim); 
-				output.add(new Phone(symbToFeatVects.get(toDelim), featIndices, symbToFeatVects));
+				output.add(Phone.intern(new Phone(symbToFeatVects.get(toDelim), featIndices, symbToFeatVects)));
 				inputLeft = inputLeft.substring(inputLeft.indexOf(phDelim)+1);
 			}
 			else if(inputLeft.indexOf('[') > 0)
@@ -401,7 +413,7 @@ public class SChangeFactory {
 				if(! symbToFeatVects.containsKey(toPhone) )	throw new RuntimeException(
 						"Tried to declare phone with illegitimate symbol : "+toPhone
 						+"\nAttempted rule was :"+input); 
-				output.add(new Phone(symbToFeatVects.get(toPhone), featIndices, symbToFeatVects));
+				output.add(Phone.intern(new Phone(symbToFeatVects.get(toPhone), featIndices, symbToFeatVects)));
 				inputLeft = inputLeft.substring(inputLeft.indexOf('['));
 			}
 			else
@@ -420,7 +432,7 @@ public class SChangeFactory {
 	{
 		if(inp.equals("∅"))	return new NullPhone(); 
 		if(symbToFeatVects.containsKey(inp))	
-			return new Phone(symbToFeatVects.get(inp),featIndices,symbToFeatVects);
+			return Phone.intern(new Phone(symbToFeatVects.get(inp), featIndices, symbToFeatVects));
 		String input = inp; 
 		if(input.charAt(0) == '[' && input.indexOf("]") == input.length() - 1)
 			input = input.substring(input.indexOf("[")+1, input.indexOf("]")); 
@@ -439,7 +451,7 @@ public class SChangeFactory {
 		{			
 			if(! symbToFeatVects.containsKey(toPhone) )	throw new RuntimeException(
 					"Tried to parse illegitimate phone symbol : "+toPhone); 
-			output.add(new Phone(symbToFeatVects.get(toPhone), featIndices, symbToFeatVects));
+			output.add(Phone.intern(new Phone(symbToFeatVects.get(toPhone), featIndices, symbToFeatVects)));
 		}
 		return output; 
 	}
@@ -499,7 +511,7 @@ public class SChangeFactory {
 			return new Boundary(("#".equals(curtp) ? "word " : "morph ") + "bound"); 
 		if(! symbToFeatVects.containsKey(curtp) ) throw new RuntimeException( "Error: tried to parse invalid symbol!"
 				+ " Symbol : "+curtp);
-		return new Phone(symbToFeatVects.get(curtp), featIndices, symbToFeatVects); 
+		return Phone.intern(new Phone(symbToFeatVects.get(curtp), featIndices, symbToFeatVects)); 
 	}
 	
 	/** parseNewContext 
@@ -570,7 +582,7 @@ public class SChangeFactory {
 				
 				parenMapInProgress.add("i"+thePlaceRestrs.size()) ;
 				if(symbToFeatVects.containsKey(curtp))
-					thePlaceRestrs.add(new Phone(symbToFeatVects.get(curtp), featIndices, symbToFeatVects));
+					thePlaceRestrs.add(Phone.intern(new Phone(symbToFeatVects.get(curtp), featIndices, symbToFeatVects)));
 				else if ("#+".contains(curtp))
 					thePlaceRestrs.add(new Boundary(("#".equals(curtp) ? "word " : "morph ") + "bound"));
 				else if ("@".equals(curtp))
@@ -594,7 +606,7 @@ public class SChangeFactory {
 		String[] theParenMap = new String[parenMapInProgress.size()];
 		theParenMap = parenMapInProgress.toArray(theParenMap); 
 		
-		return new SequentialFilter(thePlaceRestrs, theParenMap, boundsMatter) ;
+		return new SequentialFilter(thePlaceRestrs, theParenMap, boundsMatter, memoizingFilters, compilingAutomata) ;
 	}
 	
 	/** isValidFeatSpecList
@@ -663,12 +675,12 @@ public class SChangeFactory {
 		String theFeatSpecs = isInputDest ? applyImplications(featSpecs) : featSpecs+"";
 		
 		if(theFeatSpecs.contains("0") == false)
-			return new FeatMatrix(theFeatSpecs, ordFeatNames, featImplications); 
+			return new FeatMatrix(theFeatSpecs, ordFeatNames, featImplTable); 
 				
 		if(theFeatSpecs.contains("0") && !isInputDest)
 			throw new RuntimeException(
 			"Error : despecification used for a FeatMatrix that is not in the destination -- this is inappropriate."); 
-		return new FeatMatrix(theFeatSpecs, ordFeatNames, featImplications); 
+		return new FeatMatrix(theFeatSpecs, ordFeatNames, featImplTable); 
 	}
 	
 	/**	applyImplications
@@ -680,41 +692,7 @@ public class SChangeFactory {
 	{
 		if (! isValidFeatSpecList(featSpecs) )
 			throw new RuntimeException("Error : preempted attempt to apply implications to an invalid list of feature specifications"); 
-		String[] theFeatSpecs = featSpecs.trim().split(""+restrDelim); 
-		String output = ""+featSpecs; 
-		
-		for(int fsi = 0 ; fsi < theFeatSpecs.length; fsi++)
-		{
-			String currSpec = theFeatSpecs[fsi]; 
-			
-			if(featsWithImplications.contains(currSpec)) 
-			{
-				String[] implications = featImplications.get(currSpec); 
-				for (int ii = 0; ii < implications.length; ii++)
-				{	if (output.contains(implications[ii].substring(1)) == false)
-					{	
-						output += restrDelim + implications[ii];
-						theFeatSpecs = output.trim().split(""+restrDelim); 
-					}
-				}
-			}
-			if("+-".contains(currSpec.substring(0,1)))
-			{
-				if(featsWithImplications.contains(currSpec.substring(1)))
-				{
-					String[] implications = featImplications.get(currSpec.substring(1)); 
-					for (int ii=0; ii < implications.length; ii++)
-					{	if(output.contains(implications[ii]) == false)
-						{
-							output += restrDelim + implications[ii]; 
-							theFeatSpecs = output.trim().split(""+restrDelim); 
-						}
-					}
-				}
-			}
-		}
-		
-		return output; 
+		return featSpecs + featImplTable.impliedSpecs(featSpecs.trim().split(""+restrDelim), restrDelim); 
 	}
 	
 	//TODO abrogate this -- it doesn't seem necessary 
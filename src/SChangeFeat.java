@@ -1,25 +1,29 @@
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List; 
 
 public class SChangeFeat extends SChange {
 	protected RestrictPhone targSource, destination; 
+	private RuleAutomaton automaton; // null if this rule cannot have one, see compileAutomaton() 
+	private boolean compilingAutomaton = true; // false if this rule is to be matched by the matchers alone, see useMatchersOnly() 
 	
 	//auxiliary for constructors
 	public void initialize(List<String> orderedFeats, String targSpecs, String destSpecs, HashMap<String,String[]> featImplications)
 	{
+		FeatImplicationTable featImplTable = new FeatImplicationTable(orderedFeats, featImplications); 
 		if(!targSpecs.equals("") && !targSpecs.equals("∅"))
 		{
-			targSource = new FeatMatrix(targSpecs, orderedFeats, featImplications); 
+			targSource = new FeatMatrix(targSpecs, orderedFeats, featImplTable); 
 			minInputSize = 1; 
 		}
 		else //i.e. we know source-target is null if this is reachedpint. 
 			throw new Error("Insertion is not allowed for SChangeFeats -- please use an SChangePhone instead."); 
 		if(!destSpecs.equals("") && !destSpecs.equals("∅"))
 		{	
-			destination = new FeatMatrix(destSpecs, orderedFeats, featImplications);
+			destination = new FeatMatrix(destSpecs, orderedFeats, featImplTable);
 		}
 		else	destination = new NullPhone(); 
+		compileAutomaton(); 
 	}
 	
 	public void initialize(RestrictPhone source, RestrictPhone dest) 
@@ -31,8 +35,33 @@ public class SChangeFeat extends SChange {
 		if(dest.getClass().toString().contains("NullPhone") && minInputSize <= 0) 
 			throw new RuntimeException("Error: both target and destination are null!");  
 		destination = dest; 
+		compileAutomaton(); 
 	}
 	
+	//auxiliary for initialization and for setting contexts : build the automaton of the whole rule, if it can have one 
+	private void compileAutomaton()
+	{
+		SequentialFilter prior = minPriorSize > 0 ? priorContext : null, postr = minPostSize > 0 ? postContext : null; 
+		automaton = compilingAutomaton && minInputSize == 1 && RuleAutomaton.isCompilable(targSource, prior, postr) ? 
+				new RuleAutomaton(targSource, prior, postr) : null; 
+	}
+	
+	// drops the automaton of this rule, and builds none when its contexts are set, so it is matched by the matchers alone 
+		// -- for comparing with it, see SChangeFactory ; to be called as it is made, before it is shared 
+	void useMatchersOnly()
+	{
+		compilingAutomaton = false; 
+		automaton = null; 
+	}
+	
+	@Override
+	public void setPriorContext(SequentialFilter p)
+	{	super.setPriorContext(p); compileAutomaton();	}
+	
+	@Override
+	public void setPostContext(SequentialFilter p)
+	{	super.setPostContext(p); compileAutomaton();	}
+	
 	//constructors follow
 	public SChangeFeat(List<String> ordFts, String targSpecs, String destSpecs, String origForm,
 			HashMap<String, String[]> featImpls)
@@ -64,6 +93,10 @@ public class SChangeFeat extends SChange {
 	public SChangeFeat(RestrictPhone source, RestrictPhone dest, SequentialFilter priorContxt, SequentialFilter postContxt, boolean bm, String origForm)
 	{	super(priorContxt, postContxt, bm, origForm); initialize(source, dest);	}
 	
+	@Override
+	protected RuleSignature computeSignature()
+	{	return signatureFor(Collections.singletonList(Collections.singletonList(targSource)));	}
+	
 	//Realization
 	@Override
 	public List<SequentialPhonic> realize(List<SequentialPhonic> input)
@@ -71,7 +104,10 @@ public class SChangeFeat extends SChange {
 		//abort if too small
 		if (input.size() < minPriorSize + minInputSize + minPostSize)	return input; 
 		
-		List<SequentialPhonic> res = new ArrayList<SequentialPhonic>(input.subList(0, minPriorSize)); 
+		Realization res = new Realization(input, minPriorSize); 
+		// where the whole rule has an automaton, the places where it applies are all found at once, and looked up at each place instead 
+		long[] sites = automaton != null && input instanceof PhonSeq ? 
+				automaton.sites((PhonSeq) input) : null; 
 		int p = minPriorSize; 
 		int maxPlace = input.size() - minPostSize - minInputSize; 
 		/** check if target with correct context occurs at each index
@@ -85,7 +121,7 @@ public class SChangeFeat extends SChange {
 				while(!stopIncrement)
 				{
 					if(p >= input.size())	stopIncrement = true; 
-					else if(input.get(p).print().equals("#") && p == 0)
+					else if(p == 0 && input.get(p).getKind() == Phonic.Kind.WORD_BOUND)
 					{
 						res.add(input.get(p)); p++; 
 					}
@@ -94,9 +130,9 @@ public class SChangeFeat extends SChange {
 					else	stopIncrement = true; 
 				}
 			}
-			if(priorMatch(input, p))
+			if(sites != null ? SequentialFilter.isSite(sites, p) : priorMatch(input, p))
 			{
-				if(isMatch(input, p))	//test if both target and posterior specs are met
+				if(sites != null || isMatch(input, p))	//test if both target and posterior specs are met
 				{
 					// when destination is null, we add nothing,
 					// and increment p TWICE
@@ -123,7 +159,7 @@ public class SChangeFeat extends SChange {
 		if(p < input.size())
 			res.addAll(input.subList(p, input.size()));
 		
-		return res; 
+		return res.result(); 
 	}
 
 
@@ -1,64 +1,39 @@
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 public class SChangeFeatAlpha extends SChangeFeat {
 	
-	private boolean need_to_reset;
-	
 	public SChangeFeatAlpha(List<String> ordFts, String targSpecs, String destSpecs, String origForm, 
 			HashMap<String,String[]> featImpls)
-	{	super(ordFts, targSpecs, destSpecs, origForm, featImpls);	
-		ALPH_VARS = new HashMap<String, String>(); 
-		need_to_reset = false;
-	}
+	{	super(ordFts, targSpecs, destSpecs, origForm, featImpls);	}
 	
 	public SChangeFeatAlpha(List<String> ordFts, String targSpecs, String destSpecs, boolean bm, String origForm,
 			HashMap<String,String[]> featImpls)
-	{	super(ordFts, targSpecs, destSpecs, bm, origForm, featImpls);
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false;
-	}
+	{	super(ordFts, targSpecs, destSpecs, bm, origForm, featImpls);	}
 	
 	public SChangeFeatAlpha(List<String> ordFts, String targSpecs, String destSpecs, 
 			SequentialFilter priors, SequentialFilter postrs, String origForm, HashMap<String,String[]> featImpls)
-	{	super(ordFts, targSpecs, destSpecs, priors, postrs,  origForm, featImpls); 
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false;
-	}
+	{	super(ordFts, targSpecs, destSpecs, priors, postrs,  origForm, featImpls);	}
 	
 	public SChangeFeatAlpha(List<String> ordFts, String targSpecs, String destSpecs, 
 			boolean bm, SequentialFilter priorContxt, SequentialFilter postContxt, String origForm, HashMap<String,String[]> featImpls)
-	{	super(ordFts, targSpecs, destSpecs, bm, priorContxt, postContxt, origForm, featImpls);
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false; 
-	}
+	{	super(ordFts, targSpecs, destSpecs, bm, priorContxt, postContxt, origForm, featImpls);	}
 	
 	public SChangeFeatAlpha(RestrictPhone source, RestrictPhone dest, String origForm)
-	{	super(source, dest, origForm); 
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false; 
-	}
+	{	super(source, dest, origForm);	}
 	
 	public SChangeFeatAlpha(RestrictPhone source, RestrictPhone dest, boolean bm, String origForm)
 	{
 		super(source, dest, bm, origForm);
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false; 
 	}
 	
 	public SChangeFeatAlpha(RestrictPhone source, RestrictPhone dest, SequentialFilter priorContxt, SequentialFilter postContxt, String origForm)
 	{	
 		super(source, dest, priorContxt, postContxt, origForm); 
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false; 
 	}
 	
 	public SChangeFeatAlpha(RestrictPhone source, RestrictPhone dest, SequentialFilter priorContxt, SequentialFilter postContxt, boolean bm, String origForm)
-	{	super(source, dest, priorContxt, postContxt, bm, origForm); 
-		ALPH_VARS = new HashMap<String, String>();
-		need_to_reset = false; 
-	}
+	{	super(source, dest, priorContxt, postContxt, bm, origForm);	}
 	
 	//Realization
 	@Override
@@ -67,7 +42,8 @@ public class SChangeFeatAlpha extends SChangeFeat {
 		//abort if too small
 		if (input.size() < minPriorSize + minInputSize + minPostSize)	return input; 
 		
-		List<SequentialPhonic> res = new ArrayList<SequentialPhonic>(input.subList(0, minPriorSize)); 
+		Realization res = new Realization(input, minPriorSize); 
+		AlphaBindings alphas = AlphaBindings.forThisThread(); // the values bound at the place being matched, cleared before the next one
 		int p = minPriorSize; 
 		int maxPlace = input.size() - minPostSize - minInputSize; 
 		
@@ -79,17 +55,17 @@ public class SChangeFeatAlpha extends SChangeFeat {
 				while(!stopIncrement)
 				{
 					if(p >= input.size())	stopIncrement = true; 
-					else if(input.get(p).print().equals("#") && p == 0)
+					else if(p == 0 && input.get(p).getKind() == Phonic.Kind.WORD_BOUND)
 					{
 						res.add(input.get(p)); p++; 
 					}
-					else if(input.get(p).getType().contains("bound") && p < maxPlace)
+					else if(input.get(p).isBound() && p < maxPlace)
 						p++; 
 					else	stopIncrement = true; 
 				}
 			}
 			
-			if(isMatch(input,p))
+			if(isMatch(input,p,alphas))
 			{
 				// when destination is null, we add nothing,
 				// and increment p TWICE
@@ -104,21 +80,25 @@ public class SChangeFeatAlpha extends SChangeFeat {
 				}
 				else
 				{
-					res.add(destination.forceTruth(input, p).get(p));
+					res.add(alphas.of(destination).forceTruth(input, p).get(p));
 					p++; 
 				}
 			}
 			else	{	res.add(input.get(p)) ; p++;	}
-			if(need_to_reset)	reset_alphvals_everywhere();		
+			alphas.clear(); 
 		}
 		if(p < input.size())
 			res.addAll(input.subList(p, input.size()));
 		
-		return res; 
+		return res.result(); 
 	}
 	
 	@Override
 	public boolean isMatch(List<SequentialPhonic> input, int ind)
+	{	return isMatch(input, ind, new AlphaBindings());	}
+	
+	// isMatch(), binding the alpha values of the match in @param alphas
+	private boolean isMatch(List<SequentialPhonic> input, int ind, AlphaBindings alphas)
 	{		
 		//there is only one target, so within this method, minTargSize just equals 
 		// ... the constant target size. 
@@ -130,30 +110,19 @@ public class SChangeFeatAlpha extends SChangeFeat {
 		
 		if(targSource.has_alpha_specs())
 		{
-			if (!phHere.getType().equals("phone"))	
+			if (!phHere.isPhone())	
 			{	if(!phHere.print().equals(targSource.print()))	return false;	}
 			else if (targSource.check_for_alpha_conflict(phHere))	return false;
 			else if (!targSource.comparePreAlpha(phHere))	return false;
-			else 
-			{
-				ALPH_VARS.putAll(targSource.extractAndApplyAlphaValues(phHere));
-				targSource.applyAlphaValues(ALPH_VARS);
-				destination.applyAlphaValues(ALPH_VARS);
-				need_to_reset = true;
-			}
+			else	alphas.extract(targSource, phHere);
 		}
 		
-		if (!targSource.compare(phHere))
-		{
-			if (need_to_reset)	reset_alphvals_everywhere(); 
-			return false;
-		}
+		if (!alphas.of(targSource).compare(phHere))	return false;
 		
 		if(priorSpecd) {
 			// process alpha specs for prior if necessary...
 			if (priorContext.hasAlphaSpecs())
 			{
-				if (need_to_reset)	priorContext.applyAlphaValues(ALPH_VARS);
 				List<RestrictPhone> pripr = priorContext.getPlaceRestrs();
 				String[] pripm = priorContext.getParenMap(); 
 				int cpic = ind - 1, crp = pripr.size() - 1, cpim = pripm.length - 1; 
@@ -162,26 +131,16 @@ public class SChangeFeatAlpha extends SChangeFeat {
 				{
 					RestrictPhone pri = pripr.get(crp); 
 					
-					if(pri.first_unset_alpha() != '0')
+					if(alphas.of(pri).first_unset_alpha() != '0')
 					{
 						SequentialPhonic cpi = input.get(cpic); 
-						if (cpi.getType().equals("phone")) {
-							if (pri.check_for_alpha_conflict(cpi))
-							{	
-								if (need_to_reset)	reset_alphvals_everywhere(); 
-								return false;
-							}
+						if (cpi.isPhone()) {
+							if (pri.check_for_alpha_conflict(cpi))	return false;
 							//check also for conflict OUTSIDE the alpha values and return false if so
 								// as that will cause a downstream UnsetAlphaException otherwise
-							if (!pri.comparePreAlpha(cpi))	{
-								if (need_to_reset)	reset_alphvals_everywhere(); 
-								return false; 
-							}
+							if (!pri.comparePreAlpha(cpi))	return false; 
 							
-							ALPH_VARS.putAll(pri.extractAndApplyAlphaValues(input.get(cpic)));
-							need_to_reset = true;
-							priorContext.applyAlphaValues(ALPH_VARS);
-							pripr = priorContext.getPlaceRestrs();
+							alphas.extract(pri, cpi);
 						}
 					}					
 	
@@ -191,18 +150,13 @@ public class SChangeFeatAlpha extends SChangeFeat {
 				}
 			}}
 		
-		if (!priorMatch(input, ind))
-		{
-			if (need_to_reset)	reset_alphvals_everywhere(); 
-			return false;
-		}
+		if (!priorMatch(input, ind, alphas))	return false;
 		
 		if (postSpecd) {
 			
 			//process alpha specs for posterior if necessary...
 			if (postContext.hasAlphaSpecs())
 			{
-				if (need_to_reset)	postContext.applyAlphaValues(ALPH_VARS); 
 				List<RestrictPhone> popr = postContext.getPlaceRestrs();
 				String[] popm = postContext.getParenMap();
 				int cpic = ind + inpSize, crp = 0, cpim = 0; 
@@ -210,27 +164,16 @@ public class SChangeFeatAlpha extends SChangeFeat {
 				while(!halt)
 				{
 					RestrictPhone poi = popr.get(crp); 
-					if(poi.first_unset_alpha() != '0')
+					if(alphas.of(poi).first_unset_alpha() != '0')
 					{
 						SequentialPhonic cpi = input.get(cpic); 
-						if (cpi.getType().equals("phone")) {
-							if(poi.check_for_alpha_conflict(cpi))
-							{
-								if (need_to_reset)	reset_alphvals_everywhere(); 
-								return false;
-							}
+						if (cpi.isPhone()) {
+							if(poi.check_for_alpha_conflict(cpi))	return false;
 							//check also for conflict OUTSIDE the alpha values and return false if so
 								// as that will cause a downstream UnsetAlphaException otherwise
-							if (!poi.comparePreAlpha(cpi))	{
-								if (need_to_reset)	reset_alphvals_everywhere(); 
-								return false; 
-							}
-						
+							if (!poi.comparePreAlpha(cpi))	return false; 
 							
-							ALPH_VARS.putAll(poi.extractAndApplyAlphaValues(input.get(cpic)));
-							need_to_reset = true;
-							postContext.applyAlphaValues(ALPH_VARS); 
-							popr = postContext.getPlaceRestrs();
+							alphas.extract(poi, cpi);
 						}
 					}
 					cpic++; crp++; cpim++; 
@@ -241,25 +184,8 @@ public class SChangeFeatAlpha extends SChangeFeat {
 		}
 		
 		//TODO something here is bugged! UnsetAlphaErrorr gets thrown SequentialFilter.isPosteriorMatch (336) via .isPosteriorMatchHelper(:406) via FeatMatrix.compare(:107).
-		if (!posteriorMatch(input, ind+minInputSize)) // prior to Aug 22, was ind+inpSize, but that was likely a bug. 
-		{
-			if (need_to_reset)	reset_alphvals_everywhere(); 
-			return false;
-		}
-		
-		if (destination.has_alpha_specs() && need_to_reset)	destination.applyAlphaValues(ALPH_VARS); 
-		return true;
-		
-	}
-	
-	public void reset_alphvals_everywhere()
-	{
-		ALPH_VARS = new HashMap<String, String>();
-		targSource.resetAlphaValues();
-		destination.resetAlphaValues();
-		if (priorSpecd)	priorContext.resetAllAlphaValues();
-		if (postSpecd)	postContext.resetAllAlphaValues();
-		need_to_reset = false;
+		// prior to Aug 22, was ind+inpSize, but that was likely a bug. 
+		return posteriorMatch(input, ind+minInputSize, alphas); 
 	}
 
 }
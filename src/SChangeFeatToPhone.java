@@ -1,5 +1,6 @@
 import java.util.List; 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap; 
 
 //TODO Note: it is assumed when using this class, that bounds matter 
@@ -28,6 +29,10 @@ public class SChangeFeatToPhone extends SChange{
 			SequentialFilter prior, SequentialFilter postr, String origForm)
 	{	super(prior,postr, true, origForm); initialize(ftInds, targSpecs, dest); }
 	
+	@Override
+	protected RuleSignature computeSignature()
+	{	return signatureFor(Collections.singletonList(targSource));	}
+	
 	//Realization
 	public List<SequentialPhonic> realize (List<SequentialPhonic> input)
 	{
@@ -37,8 +42,8 @@ public class SChangeFeatToPhone extends SChange{
 		
 		int p = minPriorSize , 
 				maxPlace = inpSize - Math.max(minPostSize + minInputSize, 1); 
-		List<SequentialPhonic> res = (p == 0) ? 
-				new ArrayList<SequentialPhonic>() : new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		long[] priorSites = priorSites(input); 
 		
 
 		/** check if target with correct context occurs at each index 
@@ -49,7 +54,7 @@ public class SChangeFeatToPhone extends SChange{
 		 */
 		while (p <= maxPlace)
 		{
-			if (priorMatch(input, p))
+			if (priorMatchAt(input, p, priorSites))
 			{
 				//note that firstIndAfterMatchedWindow 
 				//determines both if we have a window match and a posterior match
@@ -68,7 +73,7 @@ public class SChangeFeatToPhone extends SChange{
 		}
 		if (p < inpSize)
 			res.addAll(input.subList(p, inpSize)); 
-		return res;
+		return res.result();
 	}
 	
 	
@@ -1,22 +1,16 @@
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 	
-	private boolean need_to_reset;
-	
 	public SChangeFeatToPhoneAlpha(HashMap<String, Integer> ftInds, List<RestrictPhone> targSpecs, List<Phone> dest, String origForm)
 	{
 		super(ftInds, targSpecs, dest, origForm);
-		ALPH_VARS = new HashMap<String,String>(); need_to_reset = false; 
 	}
 	
 	public SChangeFeatToPhoneAlpha(HashMap<String, Integer> ftInds, List<RestrictPhone> targSpecs, List<Phone> dest,
 			SequentialFilter prior, SequentialFilter postr, String origForm)
-	{	super (ftInds, targSpecs, dest,prior, postr, origForm);	
-		ALPH_VARS = new HashMap<String,String>(); need_to_reset = false;
-	}
+	{	super (ftInds, targSpecs, dest,prior, postr, origForm);	}
 	
 	@Override
 	public List<SequentialPhonic> realize (List<SequentialPhonic> input)
@@ -27,8 +21,8 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 		
 		int p = minPriorSize , 
 				maxPlace = inpSize - Math.max(minPostSize + minInputSize, 1); 
-		List<SequentialPhonic> res = (p == 0) ? 
-				new ArrayList<SequentialPhonic>() : new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		AlphaBindings alphas = AlphaBindings.forThisThread(); // the values bound at the place being matched, cleared before the next one
 		
 		while (p < maxPlace)
 		{
@@ -38,24 +32,14 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 			{
 				SequentialPhonic cand = input.get(p+i);
 				RestrictPhone test = targSource.get(i);
-				if (test.first_unset_alpha() != '0')
+				if (alphas.of(test).first_unset_alpha() != '0')
 				{
-					if(cand.getType().equals("phone")) {
+					if(cand.isPhone()) {
 						if(test.check_for_alpha_conflict(cand))
 							targMatchFail = true;
 						else if (!test.comparePreAlpha(cand))	targMatchFail = true; 
-						else
-						{
-							HashMap<String,String> alphHere = test.extractAndApplyAlphaValues(cand); 
-							need_to_reset = true;
-							test.applyAlphaValues(alphHere);
-							if (priorSpecd)
-								if (priorContext.hasAlphaSpecs())	priorContext.applyAlphaValues(alphHere);
-							if (postSpecd)
-								if (postContext.hasAlphaSpecs())	postContext.applyAlphaValues(alphHere);
-							for (int j = i; j < minInputSize; j++)	targSource.get(j).applyAlphaValues(alphHere);
-						}
-						targMatchFail = targMatchFail ? true : test.compare(cand); 
+						else	alphas.extract(test, cand); 
+						targMatchFail = targMatchFail ? true : alphas.of(test).compare(cand); 
 					}
 					else	targMatchFail = true; 
 				}
@@ -65,7 +49,7 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 				boolean isPriorMatch = !priorSpecd; 
 				if(!isPriorMatch) {
 					boolean priorPossible = true; 
-					if (priorContext.has_unset_alphas())
+					if (priorContext.has_unset_alphas(alphas))
 					{
 						List<RestrictPhone> pripr = priorContext.getPlaceRestrs();
 						String[] pripm = priorContext.getParenMap(); 
@@ -74,10 +58,10 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 						while (!halt)
 						{
 							RestrictPhone pri = pripr.get(crp);
-							if (pri.first_unset_alpha() != '0')
+							if (alphas.of(pri).first_unset_alpha() != '0')
 							{
 								SequentialPhonic cpi = input.get(cpic);
-								if(cpi.getType().equals("phone")) {
+								if(cpi.isPhone()) {
 									if(pri.check_for_alpha_conflict(cpi))
 									{
 										halt = true; 
@@ -89,21 +73,15 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 										halt = true; 
 										priorPossible = false; 
 									}
-									else
-									{
-										HashMap<String,String> alphHere = pri.extractAndApplyAlphaValues(input.get(cpic));
-										need_to_reset = true;
-										priorContext.applyAlphaValues(alphHere);
-										postContext.applyAlphaValues(alphHere);
-										pripr = priorContext.getPlaceRestrs();
-									}}
+									else	alphas.extract(pri, cpi);
+								}
 							}
 							cpic--; crp--; cpim--;
 							if(crp < 0)	halt = true;
 							else	halt = pripm[cpim].contains(")"); 		
 						}
 					}
-					isPriorMatch = priorPossible ? priorMatch(input,p) : false;
+					isPriorMatch = priorPossible ? priorMatch(input,p,alphas) : false;
 				}
 					
 				if(isPriorMatch)
@@ -114,7 +92,7 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 						int indAfter = p + minInputSize;
 						boolean postrPossible = true; 
 						boolean reachedEnd = false; 
-						if(postContext.has_unset_alphas())
+						if(postContext.has_unset_alphas(alphas))
 						{
 							List<RestrictPhone> popr = postContext.getPlaceRestrs();
 							String[] popm = postContext.getParenMap();
@@ -123,10 +101,10 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 							while (!halt)
 							{
 								RestrictPhone poi = popr.get(crp); 
-								if(poi.first_unset_alpha() != '0')
+								if(alphas.of(poi).first_unset_alpha() != '0')
 								{
 									SequentialPhonic cpi = input.get(cpic); 
-										if (cpi.getType().equals("phone")) {
+										if (cpi.isPhone()) {
 										if(poi.check_for_alpha_conflict(cpi))
 										{
 											halt = true; 
@@ -140,16 +118,8 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 										}
 										else
 										{
-											HashMap<String,String> alphHere = poi.extractAndApplyAlphaValues(cpi);
-											poi.applyAlphaValues(alphHere);
-											if(poi.compare(cpi))
-											{
-												postContext.applyAlphaValues(alphHere);
-												popr = postContext.getPlaceRestrs();
-												popm = postContext.getParenMap();
-												need_to_reset = true; 
-											}
-											else
+											alphas.extract(poi, cpi);
+											if(!alphas.of(poi).compare(cpi))
 											{
 												postrPossible = false;
 												halt = true; 
@@ -169,7 +139,7 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 							}
 						}
 						isPostrMatch = !postrPossible ? false : 
-							reachedEnd ? true : postContext.isPosteriorMatch(input, indAfter); 
+							reachedEnd ? true : postContext.isPosteriorMatch(input, indAfter, alphas); 
 					}
 					if (isPostrMatch)
 					{
@@ -179,21 +149,10 @@ public class SChangeFeatToPhoneAlpha extends SChangeFeatToPhone {
 				}
 			}
 			if ( p == p_if_match_fail)	res.add(input.get(p));
-			if (need_to_reset)	reset_alphvals_everywhere(); 
+			alphas.clear(); 
 		}
 		if (p < inpSize)	res.addAll(input.subList(p, inpSize)); 
 		
-		return res;
-	}
-	
-	public void reset_alphvals_everywhere()
-	{
-		for(int i = 0; i < targSource.size(); i++)
-			targSource.get(i).resetAlphaValues();
-		if (priorSpecd)	priorContext.resetAllAlphaValues();
-		if (postSpecd)	postContext.resetAllAlphaValues();
-		need_to_reset = false; 
+		return res.result();
 	}
-	
-	
 }
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 public class SChangePhone extends SChange {
 	protected List<List<SequentialPhonic>> targSources, destinations; 
 	protected int minTargSize; 
+	private TargetTrie targTrie; // targSources compiled, null if they cannot be -- see whichMatch()
 	
 	//auxiliary for constructors
 	private void initialize(List<List<SequentialPhonic>> targs, List<List<SequentialPhonic>> dests)
@@ -20,6 +21,7 @@ public class SChangePhone extends SChange {
 		minTargSize = targSources.get(0).size(); int i = 1; 
 		while(i < targSources.size())
 		{	minTargSize = Math.min(minTargSize, targSources.get(i).size()); i++; 	}
+		compileTargets(); 
 	}
 
 	private void initializeWithFeats(List<List<SequentialPhonic>> targs, ArrayList<RestrictPhone> mutations)
@@ -38,6 +40,13 @@ public class SChangePhone extends SChange {
 			
 			destinations.add(newDest);
 		}
+		compileTargets(); 
+	}
+	
+	//auxiliary for initialization : build the trie of the targets, if every element of them is a phone or a pseudo-phone
+	private void compileTargets()
+	{
+		if (TargetTrie.isCompilable(targSources))	targTrie = new TargetTrie(targSources); 
 	}
 
 	//default contextless constructor
@@ -59,6 +68,10 @@ public class SChangePhone extends SChange {
 	{	super(prior,postr, true, origForm); initializeWithFeats(targs, mutations); }
 		
 	
+	@Override
+	protected RuleSignature computeSignature()
+	{	return signatureFor(targSources);	}
+	
 	//Realization
 	public List<SequentialPhonic> realize(List<SequentialPhonic> input)
 	{
@@ -69,8 +82,8 @@ public class SChangePhone extends SChange {
 		if (inpSize < minPriorSize + minTargSize + minPostSize)	return input; 
 		int p = minPriorSize; 
 		
-		List<SequentialPhonic> res = (p==0) ? new ArrayList<SequentialPhonic>() :
-			new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		long[] priorSites = priorSites(input); 
 		
 		/** check if target with correct context occurs at each index. 
 		 * We iterate from the beginning to the end of the word. 
@@ -84,7 +97,7 @@ public class SChangePhone extends SChange {
 
 			if(currInpPh.toString().contains("bound"))	
 			{	res.add(currInpPh);	p++;	}
-			else if(priorMatch(input, p ))
+			else if(priorMatchAt(input, p, priorSites))
 			{ 
 				int matchInd = whichMatch(input, p);
 				if (matchInd != -1)
@@ -112,7 +125,7 @@ public class SChangePhone extends SChange {
 		if (p < inpSize)
 			res.addAll(input.subList(p, inpSize));
 		
-		return res; 
+		return res.result(); 
 	}
 	
 
@@ -124,24 +137,51 @@ public class SChangePhone extends SChange {
 	 * @precondition : only one targ segment starts at the index. This should be true if no targ segment is contained by another as a sublist.
 	 */
 	protected int whichMatch (List<SequentialPhonic> input, int ind)
+	{	return whichMatch(input, ind, null);	}
+	
+	// whichMatch(), with the posterior context as it is in the match attempt holding @param alphas -- for the alpha classes, null otherwise
+	protected int whichMatch (List<SequentialPhonic> input, int ind, AlphaBindings alphas)
 	{
+		if (targTrie != null)	return whichMatchInTrie(input, ind, alphas); 
+		
 		//check each of the possible targets. We arbitrarily go by the order they are placed in the targets list. 
 		for(int it=0; it < targSources.size(); it++)
-		{	if (isMatch(input, targSources.get(it), ind))	return it;}
+		{	if (isMatch(input, targSources.get(it), ind, alphas))	return it;}
 	
 		//if we have reached this point, none of the potential targets have been found to match. 
 		return -1; 
 	}
 	
+	/** whichMatch(), with the targets found at @param ind by one walk along the trie of the targets, 
+	 * 	rather than by isMatch() trying each in turn : 
+	 * 	those found are then checked for the posterior context in the same order isMatch() would be called on them, 
+	 * 	so that the same target is chosen -- and posteriorMatch() is called on the same ones, for the alpha classes. 
+	 */
+	private int whichMatchInTrie (List<SequentialPhonic> input, int ind, AlphaBindings alphas)
+	{
+		int inpSize = input.size(); 
+		if (ind < 0 || ind >= inpSize)	return -1; 
+		//as in isMatch(), no target with more than this many phones fits before the posterior context
+		for (long found : targTrie.matchesAt(input, ind, inpSize - minPostSize - ind, boundsMatter))
+		{
+			int indAfter = (int) found; 
+			if (indAfter < 1)	continue; //as in isMatch() : an empty target is never found at the very start 
+			if (minPostSize == 0)	return (int) (found >>> 32); 
+			if (minPostSize <= inpSize - indAfter && posteriorMatch(input, indAfter, alphas))	return (int) (found >>> 32); 
+		}
+		return -1; 
+	}
+	
 	/**
 	 * method isMatch
 	 * @param input -- phonological representation of the input,
 	 * @param targSeg -- which of our target segments we are checking for 
 	 * @param ind -- start index in the input word for the target segment for which we are checking 
+	 * @param alphas -- the alpha values of the match attempt, for the alpha classes -- null otherwise
 	 * @precondition : priorMatch(inpWord, ind) == true 
 	 * @return true iff a proper target lies at this index and it's posterior context reqs are fulfilled (prior reqs should have already been checked for.)
 	 */
-	protected boolean isMatch(List<SequentialPhonic> input, List<SequentialPhonic> targSeg, int ind)
+	protected boolean isMatch(List<SequentialPhonic> input, List<SequentialPhonic> targSeg, int ind, AlphaBindings alphas)
 	{
 		int inpSize = input.size(), targSize=targSeg.size();
 		//return false in case of invalid index
@@ -159,7 +199,7 @@ public class SChangePhone extends SChange {
 		// we now check for the posterior 
 		if (minPostSize == 0)	return true;  //i.e. there is no posterior context requirement necessary -- so can skip what follows next
 		if (minPostSize > inpSize - indAfter)	return false;
-		return posteriorMatch(input, indAfter); 
+		return posteriorMatch(input, indAfter, alphas); 
 	}
 	
 	/** method foundTargetLastIndex
@@ -187,7 +227,7 @@ public class SChangePhone extends SChange {
 		while(targInd < targSize)
 		{
 			// if pseudophone and pseudosMatter is false, pass it
-			if(!input.get(wdInd).getType().equals("phone") && !boundsMatter)	wdInd++; 
+			if(!input.get(wdInd).isPhone() && !boundsMatter)	wdInd++; 
 			else
 			{
 				//if compared objects are unequal at current index, return false (-1)
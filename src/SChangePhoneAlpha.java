@@ -1,33 +1,26 @@
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 public class SChangePhoneAlpha extends SChangePhone {
 
-	private boolean need_to_reset; 
-	
 	public SChangePhoneAlpha(List<List<SequentialPhonic>> targs, List<List<SequentialPhonic>> dests, String origForm)
 	{
 		super(targs, dests, origForm);
-		need_to_reset = false;
 	}
 	
 	public SChangePhoneAlpha(List<List<SequentialPhonic>> targs, List<List<SequentialPhonic>> dests, SequentialFilter priors, SequentialFilter postrs, String origForm)
 	{
 		super(targs, dests, priors, postrs, origForm);
-		need_to_reset = false; 
 	}
 	
 	public SChangePhoneAlpha(List<List<SequentialPhonic>> targs, ArrayList<RestrictPhone> mutations, String origForm)
 	{
 		super(targs, mutations, origForm);
-		need_to_reset = false; 
 	}
 	
 	public SChangePhoneAlpha(List<List<SequentialPhonic>> targs, ArrayList<RestrictPhone> mutations, SequentialFilter prior, SequentialFilter postr, String origForm)
 	{
 		super(targs, mutations, prior, postr, origForm); 
-		need_to_reset = false; 
 	}
 	
 	@Override
@@ -39,8 +32,8 @@ public class SChangePhoneAlpha extends SChangePhone {
 		if (inpSize < minPriorSize + minTargSize + minPostSize)	return input; 
 		int p = minPriorSize; 
 		
-		List<SequentialPhonic> res = (p==0) ? new ArrayList<SequentialPhonic>() :
-			new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		AlphaBindings alphas = AlphaBindings.forThisThread(); // the values bound at the place being matched, cleared before the next one
 		
 		while(p <= maxPlace) 
 		{
@@ -52,7 +45,7 @@ public class SChangePhoneAlpha extends SChangePhone {
 			{
 				boolean priorPossible = true; 
 				if (priorSpecd) {
-					if (priorContext.has_unset_alphas())
+					if (priorContext.has_unset_alphas(alphas))
 					{
 						List<RestrictPhone> pripr = priorContext.getPlaceRestrs();
 						String[] pripm = priorContext.getParenMap(); 
@@ -61,32 +54,24 @@ public class SChangePhoneAlpha extends SChangePhone {
 						while (!halt)
 						{
 							RestrictPhone pri = pripr.get(crp);
-							if (pri.first_unset_alpha() != '0')
+							if (alphas.of(pri).first_unset_alpha() != '0')
 							{
 								SequentialPhonic cpi = input.get(cpic);
-								if (cpi.getType().equals("phone")) {
+								if (cpi.isPhone()) {
 									
 									if(pri.check_for_alpha_conflict(cpi))
 									{
-										if(need_to_reset)	reset_alphvals_everywhere();
 										halt = true; 
 										priorPossible = false; 
 									}
 									else if (!pri.comparePreAlpha(cpi))	
 									{	//check also for conflict OUTSIDE the alpha values and return false if so
 											// as that will cause a downstream UnsetAlphaException otherwise
-										if(need_to_reset)	reset_alphvals_everywhere();
 										halt = true; 
 										priorPossible = false; 
 									}
-									else
-									{
-										ALPH_VARS.putAll(pri.extractAndApplyAlphaValues(input.get(cpic)));
-										need_to_reset = true;
-										priorContext.applyAlphaValues(ALPH_VARS);
-										pripr = priorContext.getPlaceRestrs();
-										pripm = priorContext.getParenMap(); 
-									}}
+									else	alphas.extract(pri, cpi);
+								}
 							}
 							cpic--; crp--; cpim--;
 							if(crp < 0)	halt = true;
@@ -95,11 +80,10 @@ public class SChangePhoneAlpha extends SChangePhone {
 						}	
 					}}
 				
-				boolean isPriorMatch = priorPossible ? priorMatch(input,p) : false;
+				boolean isPriorMatch = priorPossible ? priorMatch(input,p,alphas) : false;
 				if (isPriorMatch)
 				{
-					if (need_to_reset && postSpecd)	postContext.applyAlphaValues(ALPH_VARS);
-					int matchInd = whichMatch(input, p);
+					int matchInd = whichMatch(input, p, alphas);
 					if (matchInd != -1)
 					{
 						int indAfter = foundTargetIndAfter(input, targSources.get(matchInd), p); 
@@ -123,23 +107,25 @@ public class SChangePhoneAlpha extends SChangePhone {
 				else
 				{	res.add(currInpPh);	p++;	}		
 			}
+			alphas.clear(); 
 		}
 		
 
 		if (p < inpSize)
 			res.addAll(input.subList(p, inpSize));
 		
-		return res; 
+		return res.result(); 
 		
 	}
 	
+	// the values bound in the posterior context are bound only for the target being checked, in a scratch frame of their own
 	@Override
-	protected boolean posteriorMatch(List<SequentialPhonic> input, int indAfter)
+	protected boolean posteriorMatch(List<SequentialPhonic> input, int indAfter, AlphaBindings alphas)
 	{
 		if(minPostSize == 0)	return true;
-		if (postContext.has_unset_alphas())
+		if (alphas != null && postContext.has_unset_alphas(alphas))
 		{
-			HashMap<String,String> temp_alph_vals = new HashMap<String,String> (ALPH_VARS);
+			AlphaBindings temp_alph_vals = alphas.scratchCopy(); 
 			
 			List<RestrictPhone> popr = postContext.getPlaceRestrs();
 			String[] popm = postContext.getParenMap();
@@ -148,43 +134,23 @@ public class SChangePhoneAlpha extends SChangePhone {
 			while(!halt)
 			{
 				RestrictPhone poi = popr.get(crp);
-				if(poi.first_unset_alpha() != '0')
+				if(temp_alph_vals.of(poi).first_unset_alpha() != '0')
 				{
 					SequentialPhonic cpi = input.get(cpic); 
-						if(cpi.getType().equals("phone")) {
-							if(poi.check_for_alpha_conflict(cpi))
-							{
-								postContext.resetAllAlphaValues();
-								return false;
-							}
-							else if (!poi.comparePreAlpha(cpi))	
-							{	//check also for conflict OUTSIDE the alpha values and return false if so
-									// as that will cause a downstream UnsetAlphaException otherwise
-								postContext.resetAllAlphaValues();
-								return false;
-							}
-							else
-							{
-								temp_alph_vals.putAll(poi.extractAndApplyAlphaValues(cpi));
-								postContext.applyAlphaValues(temp_alph_vals);
-								popr = postContext.getPlaceRestrs();
-								popm = postContext.getParenMap(); 
-							}}
+						if(cpi.isPhone()) {
+							if(poi.check_for_alpha_conflict(cpi))	return false;
+							//check also for conflict OUTSIDE the alpha values and return false if so
+								// as that will cause a downstream UnsetAlphaException otherwise
+							else if (!poi.comparePreAlpha(cpi))	return false;
+							else	temp_alph_vals.extract(poi, cpi);
+						}
 				}
 				cpic++; crp++; cpim++;
 				if (crp >= popr.size())	halt = true;
 				else	halt = popm[cpim].contains("(");
 			}
+			return postContext.isPosteriorMatch(input, indAfter, temp_alph_vals); 
 		}
-		return postContext.isPosteriorMatch(input, indAfter); 
-	}
-	
-	public void reset_alphvals_everywhere()
-	{
-		ALPH_VARS = new HashMap<String, String>();
-		if (priorSpecd)	priorContext.resetAllAlphaValues();
-		if (postSpecd)	postContext.resetAllAlphaValues();
-		need_to_reset = false;
+		return postContext.isPosteriorMatch(input, indAfter, alphas); 
 	}
 }
-
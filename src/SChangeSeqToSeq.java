@@ -1,5 +1,6 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap; 
 
 /** SChangeSeqToSeq
@@ -41,6 +42,10 @@ public class SChangeSeqToSeq  extends SChange
 			SequentialFilter prior, SequentialFilter postr, String origForm)
 	{	super(prior,postr, true, origForm); initialize(ftInds, symb_map, trgsrc, dstSpcs); }
 	
+	@Override
+	protected RuleSignature computeSignature()
+	{	return signatureFor(Collections.singletonList(targSource));	}
+	
 	//Realization
 	public List<SequentialPhonic> realize (List<SequentialPhonic> input)
 	{
@@ -50,8 +55,8 @@ public class SChangeSeqToSeq  extends SChange
 		
 		int p = minPriorSize , 
 				maxPlace = inpSize - Math.min(minPostSize + minInputSize, 1); 
-		List<SequentialPhonic> res = (p == 0) ? 
-				new ArrayList<SequentialPhonic>() : new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		long[] priorSites = priorSites(input); 
 		
 		/** check if target with correct context occurs at each index 
 		 * We iterate from the beginning to the end of the word
@@ -61,7 +66,7 @@ public class SChangeSeqToSeq  extends SChange
 		 */
 		while (p < maxPlace)
 		{
-			if (priorMatch(input, p))
+			if (priorMatchAt(input, p, priorSites))
 			{
 				int candIndAfter = firstIndAfterMatchedWindow(input, inpSize, p);
 				if(candIndAfter != -1)
@@ -77,7 +82,7 @@ public class SChangeSeqToSeq  extends SChange
 		}
 		if ( p < inpSize )
 			res.addAll(input.subList(p, inpSize));
-		return res;
+		return res.result();
 	}
 	
 	//i.e. counting null phones in the list as 0.
@@ -98,7 +103,7 @@ public class SChangeSeqToSeq  extends SChange
 			if(targSource.get(targInd).print().equals("∅")) // a null phone -- must correspond to a proper Phone
 			{
 				String theSpecs = symbMap.get(destSpecs.get(targInd).print());
-				output.add(new Phone(theSpecs, featInds, symbMap));
+				output.add(Phone.intern(new Phone(theSpecs, featInds, symbMap)));
 			}
 			else
 			{
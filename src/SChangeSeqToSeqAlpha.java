@@ -1,13 +1,9 @@
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.function.Function;
 
 public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 	
-	private boolean need_to_reset;
-	
 	/**
 	 * In master class: 
 	 * protected List<RestrictPhone> targSource, destSpecs;
@@ -19,16 +15,11 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 	public SChangeSeqToSeqAlpha(HashMap<String, Integer> ftInds, HashMap<String,String> symb_map, List<RestrictPhone> trgsrc, List<RestrictPhone> dstSpcs, String origForm)
 	{
 		super(ftInds, symb_map, trgsrc, dstSpcs, origForm); 
-		ALPH_VARS = new HashMap<String,String>(); 
-		need_to_reset = false; 
 	}
 	
 	public SChangeSeqToSeqAlpha(HashMap<String, Integer> ftInds, HashMap<String,String> symb_map,  List<RestrictPhone> trgsrc, List<RestrictPhone> dstSpcs,
 			SequentialFilter prior, SequentialFilter postr, String origForm)
-	{	super(ftInds, symb_map, trgsrc, dstSpcs, prior, postr, origForm);
-		ALPH_VARS = new HashMap<String,String>(); 
-		need_to_reset = false;
-	}
+	{	super(ftInds, symb_map, trgsrc, dstSpcs, prior, postr, origForm);	}
 	
 	@Override
 	// note that this should always operate on an input headed by # and closed also by # 
@@ -41,8 +32,8 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 		// p -- place in input being operated on.
 		int p = minPriorSize , 
 				maxPlace = inpSize - Math.max(minPostSize + minInputSize, 1); 
-		List<SequentialPhonic> res = (p == 0) ? 
-				new ArrayList<SequentialPhonic>() : new ArrayList<SequentialPhonic>(input.subList(0, p));
+		Realization res = new Realization(input, p);
+		AlphaBindings alphas = AlphaBindings.forThisThread(); // the values bound at the place being matched, cleared before the next one
 		
 		while (p < maxPlace)
 		{
@@ -54,32 +45,19 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 				SequentialPhonic cand = input.get(p+i);
 				RestrictPhone test = targSource.get(i);
 				
-				if(!cand.getType().equals("phone"))
+				if(!cand.isPhone())
 					targMatchFail = !cand.print().equals(test.print()) ;
-				else if (test.first_unset_alpha() != '0')
+				else if (alphas.of(test).first_unset_alpha() != '0')
 				{
 					if(test.check_for_alpha_conflict(cand)) targMatchFail = true;
 					else if (!test.comparePreAlpha(cand))	targMatchFail = true; 
-					else
-					{
-						HashMap<String,String> alphHere = test.extractAndApplyAlphaValues(cand); 
-						// if there is no alpha conflict, and there is an unset alpha,
-						// the only case where the return of extractAndApplyAlphaValues() is empty
-							// is when there is a failure to meet a NON-alpha specified value. 
-							// so this is a targ match fail. 
-						
-						if (alphHere.size() == 0 )	targMatchFail = true; 
-						else
-						{
-							for (String alph: alphHere.keySet())  //there will be no replacements since check_for_alpha_conflict was false.
-								ALPH_VARS.put(alph,alphHere.get(alph)); 
-							need_to_reset = true;	
-							test.applyAlphaValues(ALPH_VARS);
-							mapAlphVals(); 
-						}
-					}
+					// if there is no alpha conflict, and there is an unset alpha,
+					// the only case where extract() binds nothing
+						// is when there is a failure to meet a NON-alpha specified value. 
+						// so this is a targ match fail. 
+					else if (!alphas.extract(test, cand))	targMatchFail = true; 
 				}
-				targMatchFail = targMatchFail ? true : !test.compare(cand); 
+				targMatchFail = targMatchFail ? true : !alphas.of(test).compare(cand); 
 			}
 			if (!targMatchFail) //target matched
 			{	
@@ -87,7 +65,7 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 				if(!isPriorMatch)	{
 					boolean priorPossible = true; 
 	
-					if (priorContext.has_unset_alphas())
+					if (priorContext.has_unset_alphas(alphas))
 					{
 						List<RestrictPhone> pripr = priorContext.getPlaceRestrs();
 						String[] pripm = priorContext.getParenMap(); 
@@ -96,10 +74,10 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 						while (!halt)
 						{
 							RestrictPhone pri = pripr.get(crp);
-							if (pri.first_unset_alpha() != '0')
+							if (alphas.of(pri).first_unset_alpha() != '0')
 							{
 								SequentialPhonic cpi = input.get(cpic);
-								if (cpi.getType().equals("phone"))
+								if (cpi.isPhone())
 								{	
 									if(pri.check_for_alpha_conflict(cpi))
 									{
@@ -112,16 +90,7 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 										halt = true; 
 										priorPossible = false;
 									}
-									else
-									{
-										HashMap<String,String> alphHere = pri.extractAndApplyAlphaValues(input.get(cpic));
-										need_to_reset = true;
-										priorContext.applyAlphaValues(alphHere);
-										if (postSpecd)	postContext.applyAlphaValues(alphHere);
-										for (int k = 0; k < destSpecs.size(); k++)	
-											destSpecs.get(k).applyAlphaValues(alphHere); //TODO need to check that this works here, I have suspicions it won't.
-										pripr = priorContext.getPlaceRestrs();
-									}
+									else	alphas.extract(pri, cpi);
 								}
 							}
 							cpic--; crp--; cpim--;
@@ -129,7 +98,7 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 							else	halt = pripm[cpim].contains(")"); 		
 						}
 					}
-					isPriorMatch = priorPossible ? priorMatch(input,p) : false;
+					isPriorMatch = priorPossible ? priorMatch(input,p,alphas) : false;
 				}
 				if(isPriorMatch)
 				{
@@ -139,7 +108,7 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 						int indAfter = p + minInputSize;
 						boolean postrPossible = true; 
 						boolean reachedEnd = false; 
-						if(postContext.has_unset_alphas())
+						if(postContext.has_unset_alphas(alphas))
 						{
 							List<RestrictPhone> popr = postContext.getPlaceRestrs();
 							String[] popm = postContext.getParenMap();
@@ -148,10 +117,10 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 							while (!halt)
 							{
 								RestrictPhone poi = popr.get(crp); 
-								if(poi.first_unset_alpha() != '0')
+								if(alphas.of(poi).first_unset_alpha() != '0')
 								{
 									SequentialPhonic cpi = input.get(cpic); 
-									if(cpi.getType().equals("phone"))	{
+									if(cpi.isPhone())	{
 										if(poi.check_for_alpha_conflict(cpi))
 										{
 											halt = true; 
@@ -165,16 +134,8 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 										}
 										else
 										{
-											HashMap<String,String> alphHere = poi.extractAndApplyAlphaValues(cpi);
-											poi.applyAlphaValues(alphHere);
-											if(poi.compare(cpi))
-											{
-												postContext.applyAlphaValues(alphHere);
-												popr = postContext.getPlaceRestrs();
-												popm = postContext.getParenMap();
-												need_to_reset = true; 
-											}
-											else
+											alphas.extract(poi, cpi);
+											if(!alphas.of(poi).compare(cpi))
 											{
 												postrPossible = false;
 												halt = true; 
@@ -195,11 +156,11 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 							}
 						}
 						isPostrMatch = !postrPossible ? false : 
-							reachedEnd ? true : postContext.isPosteriorMatch(input, indAfter); 
+							reachedEnd ? true : postContext.isPosteriorMatch(input, indAfter, alphas); 
 					}
 					if (isPostrMatch)
 					{
-						res.addAll(generateResult(input,p)); 
+						res.addAll(generateResult(input,p,alphas)); 
 						p += minInputSize; 
 					}
 				}
@@ -208,15 +169,15 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 			{	res.add(input.get(p));
 				p++; 
 			}
-			if (need_to_reset)	reset_alphvals_everywhere(); 
+			alphas.clear(); 
 		}
 		if (p < inpSize)	res.addAll(input.subList(p, inpSize)); 
 		
-		return res;
+		return res.result();
 	}
 
-	@Override
-	protected List<SequentialPhonic> generateResult(List<SequentialPhonic> input, int firstInd)
+	// generateResult(), with the destinations as they are in the match attempt holding @param alphas
+	private List<SequentialPhonic> generateResult(List<SequentialPhonic> input, int firstInd, AlphaBindings alphas)
 	{
 		List<SequentialPhonic> output = new ArrayList<SequentialPhonic>();
 		int checkInd = firstInd, targInd = 0 ;
@@ -224,57 +185,19 @@ public class SChangeSeqToSeqAlpha extends SChangeSeqToSeq{
 		{
 			if(targSource.get(targInd).print().equals("∅")) // a null phone -- must correspond to a proper Phone
 			{
-				String theSpecs = symbMap.get(destSpecs.get(targInd).print());
-				output.add(new Phone(theSpecs, featInds, symbMap));
+				String theSpecs = symbMap.get(alphas.of(destSpecs.get(targInd)).print());
+				output.add(Phone.intern(new Phone(theSpecs, featInds, symbMap)));
 			}
 			else
 			{
-				RestrictPhone thisDest = destSpecs.get(targInd); 
+				RestrictPhone thisDest = alphas.of(destSpecs.get(targInd)); 
 				if(!thisDest.compare(new NullPhone())) 
-					output.add( destSpecs.get(targInd).forceTruth(input, checkInd).get(checkInd));
+					output.add( thisDest.forceTruth(input, checkInd).get(checkInd));
 				checkInd++; 
 			}
 			targInd++; 
 		}
 		return output;
 	}
-	
-
-	private RestrictPhone applyAlph(RestrictPhone inp)
-	{
-		inp.applyAlphaValues(ALPH_VARS);
-		return inp; 
-	}
-	
-	private final Function<RestrictPhone,RestrictPhone> APPLY_ALPHAS = a -> applyAlph(a); 
-	
-	//uses global ALPH_VARS
-	public void mapAlphVals()
-	{
-		if(priorSpecd)	
-			if(priorContext.hasAlphaSpecs())	priorContext.applyAlphaValues(ALPH_VARS);
-		if(postSpecd)
-			if(postContext.hasAlphaSpecs())	postContext.applyAlphaValues(ALPH_VARS);
-		
-		targSource = targSource.stream().map(APPLY_ALPHAS).collect(Collectors.toList());
-		destSpecs = destSpecs.stream().map(APPLY_ALPHAS).collect(Collectors.toList()); 
-		
-	}
-	
-	
-	public void reset_alphvals_everywhere()
-	{
-		for(int i = 0; i < targSource.size(); i++)
-			targSource.get(i).resetAlphaValues();
-		for(int j = 0; j < destSpecs.size(); j++)
-			destSpecs.get(j).resetAlphaValues();
-		
-		if (priorSpecd)	priorContext.resetAllAlphaValues();
-		if (postSpecd) postContext.resetAllAlphaValues();
-		ALPH_VARS = new HashMap<String,String>(); 
-		need_to_reset = false;
-	}
-	
-	
 
 }
@@ -21,6 +21,7 @@ public class SChangeTester {
 	private static HashMap<String, String> phoneSymbToFeatsMap;
 	private static HashMap<String, String> phoneFeatsToSymbMap;
 	private static HashMap<String, String[]> featImplications;
+	private static FeatImplicationTable featImplTable; // compiled from featImplications, for the matrices made here
 	private static String featImplsLoc = "FeatImplications";
 
 	public static void main(String args[])
@@ -120,6 +121,8 @@ public class SChangeTester {
 			featImplications.put(fisides[0], fisides[1].split(""+FEAT_DELIM));
 		}
 		
+		featImplTable = new FeatImplicationTable(Arrays.asList(featsByIndex), featImplications); 
+		
 		//TODO debugging
 		System.out.println("Done extracting feature implications!");
 		
@@ -140,12 +143,12 @@ public class SChangeTester {
 		numCorrect += runTest(scfTest, testFactory.parseSeqPhSeg("n a b a n a"),
 				testFactory.parseSeqPhSeg("n ã b a n ã")) ? 1 : 0;
 		
-		scfTest = new SChangeFeat(new FeatMatrix("+syl,-cons", Arrays.asList(featsByIndex), featImplications), new NullPhone(), "DEBUG");
+		scfTest = new SChangeFeat(new FeatMatrix("+syl,-cons", Arrays.asList(featsByIndex), featImplTable), new NullPhone(), "DEBUG");
 		scfTest.setPriorContext(testFactory.parseNewSeqFilter("+son", false));
 		numCorrect += runTest(scfTest, testFactory.parseSeqPhSeg("r e a l e a"), 
 				testFactory.parseSeqPhSeg("r a l a")) ? 1 : 0; 
 		
-		scfTest = new SChangeFeat(new FeatMatrix("+syl", Arrays.asList(featsByIndex), featImplications), new NullPhone(), "DEBUG"); 
+		scfTest = new SChangeFeat(new FeatMatrix("+syl", Arrays.asList(featsByIndex), featImplTable), new NullPhone(), "DEBUG"); 
 		scfTest.setPriorContext(testFactory.parseNewSeqFilter("+syl", boundsMatter));
 		numCorrect += runTest(scfTest, testFactory.parseSeqPhSeg("r e a l e a"), 
 				testFactory.parseSeqPhSeg("r e l e")) ? 1 : 0;
@@ -154,7 +157,7 @@ public class SChangeTester {
 		numCorrect += runTest(scfTest, testFactory.parseSeqPhSeg("d i d e ð l a d d o n u r"),
 				testFactory.parseSeqPhSeg("t i t e ð l a t t o n u r")) ? 1 : 0; 
 		
-		scfTest = new SChangeFeat(new FeatMatrix("-cont,-nas,-lat,-delrel", Arrays.asList(featsByIndex), featImplications),
+		scfTest = new SChangeFeat(new FeatMatrix("-cont,-nas,-lat,-delrel", Arrays.asList(featsByIndex), featImplTable),
 				new Phone(phoneSymbToFeatsMap.get("q"), featIndices, phoneSymbToFeatsMap),"DEBUG");
 		numCorrect += runTest(scfTest, testFactory.parseSeqPhSeg("d i d e ð l a d d o n u r"),
 				testFactory.parseSeqPhSeg("q i q e ð l a q q o n u r")) ? 1 : 0 ;
@@ -256,7 +259,30 @@ public class SChangeTester {
 		numCorrect += runTest(scpTest, testFactory.parseSeqPhSeg("# b i t u #"), testFactory.parseSeqPhSeg("# b i t u #")) ? 1 : 0;
 		numCorrect += runTest(scpTest, testFactory.parseSeqPhSeg("# k o m # b i t u #"), testFactory.parseSeqPhSeg("# k o m # b i t u #")) ? 1 : 0 ;
 		
-		System.out.println("Done testing SChangePhone. Got "+numCorrect+" correct out of 17.");
+		// alternatives one of which begins another : the first listed that is found at a place is the one changed there
+		scpTest = new SChangePhone(
+				testFactory.parseSeqPhDisjunctSegs("t s ; t"), testFactory.parseSeqPhDisjunctSegs("t͡s ; d"), "DEBUG"); 
+		numCorrect += runTest(scpTest, testFactory.parseSeqPhSeg("# a t s a t a #"), testFactory.parseSeqPhSeg("# a t͡s a d a #")) ? 1 : 0; 
+		scpTest = new SChangePhone(
+				testFactory.parseSeqPhDisjunctSegs("t ; t s"), testFactory.parseSeqPhDisjunctSegs("d ; t͡s"), "DEBUG"); 
+		numCorrect += runTest(scpTest, testFactory.parseSeqPhSeg("# a t s a #"), testFactory.parseSeqPhSeg("# a d s a #")) ? 1 : 0; 
+		
+		// the trie of such alternatives itself : passing over bounds only when they do not matter, 
+		// and never pooling a phone of the input that is not pooled yet, as it cannot be in any alternative 
+		TargetTrie testTrie = new TargetTrie(testFactory.parseSeqPhDisjunctSegs("t s ; t")); 
+		List<SequentialPhonic> trieInp = testFactory.parseSeqPhSeg("t + s a"); 
+		if (Arrays.equals(testTrie.matchesAt(trieInp, 0, 4, false), new long[] {3, (1L << 32) | 1}))	numCorrect++; 
+		else	System.out.println("Error: the trie of t s ; t should find both at the start of t + s a when bounds do not matter."); 
+		if (Arrays.equals(testTrie.matchesAt(trieInp, 0, 4, true), new long[] {(1L << 32) | 1}))	numCorrect++; 
+		else	System.out.println("Error: the trie of t s ; t should find only t at the start of t + s a when bounds matter."); 
+		Phone unpooled = new Phone((Phone) trieInp.get(0)); 
+		unpooled.set("nas", 2); unpooled.set("lat", 2); unpooled.set("round", 2); 
+		trieInp.set(0, unpooled); 
+		int idBound = Phone.idBound(); 
+		if (Phone.findPooled(unpooled) == null && testTrie.matchesAt(trieInp, 0, 4, false).length == 0 && Phone.idBound() == idBound)	numCorrect++; 
+		else	System.out.println("Error: the trie should find nothing at a phone that is not pooled, without pooling it."); 
+		
+		System.out.println("Done testing SChangePhone. Got "+numCorrect+" correct out of 22.");
 		
 		System.out.println("Now testing SChangeSeqToSeq");
 		numCorrect = 0;
@@ -293,10 +319,26 @@ public class SChangeTester {
 		
 		System.out.println("Done testing SChangeSeqToSeq. Got "+numCorrect+" correct out of 8.");
 		
+		System.out.println("Now testing feature implications"); 
+		numCorrect = 0; 
+		// an implication keyed on a bare feature (delrel:-son,-cont) gives no value to a feature the specifications give already 
+			// -- it used to append -cont after +cont here. 
+		numCorrect += checkImplications(testFactory, "+delrel,+cont", "+delrel,+cont,-son") ? 1 : 0; 
+		// where they give none, it still does, followed by the implications of the values it gives, as before. 
+		numCorrect += checkImplications(testFactory, "-delrel", "-delrel,-son,-cont,+cons,0tense") ? 1 : 0; 
+		// forceTruth() also gives the values implied by those of a matrix made from specifications directly -- here 0delrel, by +cont
+		Phone stop = Phone.intern(new Phone(phoneSymbToFeatsMap.get("t"), featIndices, phoneSymbToFeatsMap)); 
+		Phone forced = newFM("+cont").forceTruth(stop); 
+		if (forced == testFactory.getFeatMatrix("+cont", true).forceTruth(stop) 
+				&& forced.getFeatString().charAt(featIndices.get("delrel")) == '0' + UNSPEC_INT)
+			numCorrect++; 
+		else	System.out.println("Error: forceTruth() of [+cont] on /t/ gave "+forced+", without the values implied."); 
+		System.out.println("Done testing feature implications. Got "+numCorrect+" correct out of 3."); 
+		
 		numCorrect = 0; 
 		System.out.println("\nNow testing alpha variable functionality."); 
 		System.out.println("First : testing alpha variable functionality of FeatMatrices and no alpha feats specified"); 
-		FeatMatrix fmtest = new FeatMatrix("+prim,+stres",Arrays.asList(featsByIndex),featImplications); 
+		FeatMatrix fmtest = new FeatMatrix("+prim,+stres",Arrays.asList(featsByIndex),featImplTable); 
 		
 		numCorrect += UTILS.checkBoolean(false, fmtest.has_alpha_specs(), 
 				"Error: system believes there to be alpha specs when there are none.") ? 1 : 0 ; 
@@ -307,7 +349,7 @@ public class SChangeTester {
 		
 		String prevFeatVect = fmtest.getFeatVect(); 
 		
-		int n_feats_extracted = fmtest.extractAndApplyAlphaValues(e_tense).keySet().size(); 
+		int n_feats_extracted = extractAlphas(fmtest, e_tense).size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 0, 
 				"Error: there should be zero features extracted since there are no alpha feats specified to begin with, "
@@ -320,7 +362,7 @@ public class SChangeTester {
 		numCorrect = 0; 
 				
 		System.out.println("\nNow for a feature matrix with one alpha value, without any feature implications (-tense,βhi)..."); 
-		fmtest = new FeatMatrix("-tense,βhi", Arrays.asList(featsByIndex), featImplications); 
+		fmtest = new FeatMatrix("-tense,βhi", Arrays.asList(featsByIndex), featImplTable); 
 		numCorrect += UTILS.checkBoolean(true, fmtest.getLocalAlphabet().equals("β"), 
 				"Error: the local alphabet should be 'β' but instead it is '"+fmtest.getLocalAlphabet()+"'") ? 1 : 0 ; 
 		numCorrect += UTILS.checkBoolean(true, fmtest.has_alpha_specs(),
@@ -343,8 +385,8 @@ public class SChangeTester {
 		
 		SequentialPhonic dummyPhone = testFactory.parseSeqPh("m"); // which is -hi, 0tense.
 		String initSpecs = ""+fmtest;
-		HashMap<String, String> alph_feats_extrd = fmtest.extractAndApplyAlphaValues(dummyPhone); 
-		n_feats_extracted = alph_feats_extrd.keySet().size(); 
+		AlphaBindings alph_feats_extrd = extractAlphas(fmtest, dummyPhone); 
+		n_feats_extracted = alph_feats_extrd.size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 0, 
 				"Error: there should be zero features extracted from ["+dummyPhone.print()+"] since tense is not specified for consonantals, "
@@ -357,8 +399,8 @@ public class SChangeTester {
 				"Error: feat specs should have been unchanged but it was changed from\n"+initSpecs+"\nto\n"+fmtest) ? 1 : 0; 
 		
 		dummyPhone = testFactory.parseSeqPh("x"); //+hi, 0tense
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(dummyPhone); 
-		n_feats_extracted = alph_feats_extrd.keySet().size(); 
+		alph_feats_extrd = extractAlphas(fmtest, dummyPhone); 
+		n_feats_extracted = alph_feats_extrd.size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 0, 
 				"Error: there should be zero features extracted from ["+dummyPhone.print()+"] since tense is not specified for consonantals, "
@@ -371,8 +413,8 @@ public class SChangeTester {
 				"Error: feat specs should have been unchanged but it was changed from\n"+initSpecs+"\nto\n"+fmtest) ? 1 : 0; 
 		
 		dummyPhone = testFactory.parseSeqPh("y"); //+hi, 0tense
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(dummyPhone); 
-		n_feats_extracted = alph_feats_extrd.keySet().size(); 
+		alph_feats_extrd = extractAlphas(fmtest, dummyPhone); 
+		n_feats_extracted = alph_feats_extrd.size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 0, 
 				"Error: there should be zero features extracted from [y] since [y] is tense, "
@@ -384,8 +426,8 @@ public class SChangeTester {
 		numCorrect += UTILS.checkBoolean(true, initSpecs.equals(""+fmtest), 
 				"Error: feat specs should have been unchanged but it was changed from\n"+initSpecs+"\nto\n"+fmtest) ? 1 : 0; 
 		
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(e_tense); 
-		n_feats_extracted = alph_feats_extrd.keySet().size(); 
+		alph_feats_extrd = extractAlphas(fmtest, e_tense); 
+		n_feats_extracted = alph_feats_extrd.size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 0, 
 				"Error: there should be zero features extracted from [e] since [e] is tense, "
@@ -402,8 +444,8 @@ public class SChangeTester {
 				+ " but instead we get "+fmtest.first_unset_alpha()) ? 1 : 0 ;
 		
 		dummyPhone = testFactory.parseSeqPh("ʌ"); //-hi, -tense 
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(dummyPhone); 
-		n_feats_extracted = alph_feats_extrd.keySet().size(); 
+		alph_feats_extrd = extractAlphas(fmtest, dummyPhone); 
+		n_feats_extracted = alph_feats_extrd.size(); 
 		numCorrect += UTILS.checkBoolean(true, 
 				n_feats_extracted == 1, 
 				"Error: there should be one feature extracted from ["+dummyPhone.print()+"] as it is [-tense] and [-hi], "
@@ -629,7 +671,7 @@ public class SChangeTester {
 		numCorrect = 0; 
 		
 		System.out.println("\nNow for a feat matrix with one alpha value, with a redundant feature implication; also testing UnsetAlphaError and the reset function here...");
-		fmtest = new FeatMatrix("ɑstres,-prim,+syl",Arrays.asList(featsByIndex),featImplications); 
+		fmtest = new FeatMatrix("ɑstres,-prim,+syl",Arrays.asList(featsByIndex),featImplTable); 
 
 		numCorrect += UTILS.checkBoolean(true, fmtest.has_alpha_specs(),
 				"Error: system believes there are no alpha specs, but there is one.") ? 1 : 0 ; 
@@ -648,10 +690,10 @@ public class SChangeTester {
 				+ " without initializing the alpha value should cause an UnsetAlphaError,"
 				+ " but none was detected!") ? 1 : 0;
 		
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(e_tense); // i.e. -stres
+		alph_feats_extrd = extractAlphas(fmtest, e_tense); // i.e. -stres
 		
-		numCorrect += UTILS.checkBoolean(true, alph_feats_extrd.keySet().size() == 1, 
-				"Error: one alpha variable was extracted, but "+alph_feats_extrd.keySet().size()+" were detected.") ? 1 :0 ; 
+		numCorrect += UTILS.checkBoolean(true, alph_feats_extrd.size() == 1, 
+				"Error: one alpha variable was extracted, but "+alph_feats_extrd.size()+" were detected.") ? 1 :0 ; 
 		numCorrect += UTILS.checkBoolean(true, fmtest.has_alpha_specs(),
 				"Error: system believes there are no alpha specs, but there is one.") ? 1 : 0 ; 
 		numCorrect += UTILS.checkBoolean(true, fmtest.first_unset_alpha() == '0', 
@@ -678,7 +720,7 @@ public class SChangeTester {
 		
 		actOn.add(testFactory.parseSeqPh("j")); 
 		
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(testFactory.parseSeqPh("ˌʌ")); // i.e. +stres, primary in fact. 
+		alph_feats_extrd = extractAlphas(fmtest, testFactory.parseSeqPh("ˌʌ")); // i.e. +stres, primary in fact. 
 		result = fmtest.forceTruth(actOn, 1); 
 		numCorrect += UTILS.checkBoolean(true,
 				UTILS.phonSeqsEqual(result.subList(1, 2), testFactory.parseSeqPhSeg("ˌi")),
@@ -734,7 +776,7 @@ public class SChangeTester {
 				"Error: [m] should have an alpha conflicts for both β and ɣ, but none are detected") ? 1 : 0; 
 		
 		prevFeatVect = fmtest.getFeatVect(); initSpecs = fmtest.toString();
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(o_tense_nas); 
+		alph_feats_extrd = extractAlphas(fmtest, o_tense_nas); 
 		numCorrect += UTILS.checkBoolean(true, alph_feats_extrd.isEmpty(), 
 				"Error: nothing should bbe extracted for [õ] since it violates [+hi], but something was...") ? 1 : 0 ; 
 		numCorrect += UTILS.checkBoolean(true, fmtest.getFeatVect().equals(prevFeatVect), 
@@ -748,7 +790,7 @@ public class SChangeTester {
 				"Error: after (non-)extraction, system fails to detects a multispecified alpha variable but there are twoǃ") ? 1 : 0; 
 		fmtest.resetAlphaValues(); 
 		
-		alph_feats_extrd = fmtest.extractAndApplyAlphaValues(testFactory.parseSeqPh("ɪ̃")); 
+		alph_feats_extrd = extractAlphas(fmtest, testFactory.parseSeqPh("ɪ̃")); 
 		
 		numCorrect += UTILS.checkBoolean(true, alph_feats_extrd.size() == 2, "Error: two alpha symbol values should be extracted for [ɪ̃], "
 				+ "but "+alph_feats_extrd.size()+" were.") ? 1 : 0 ;
@@ -830,15 +872,38 @@ public class SChangeTester {
 	 */
 	private static boolean runTest(SChange sc, List<SequentialPhonic> inp, List<SequentialPhonic> exp) {
 		List<SequentialPhonic> obs = sc.realize(inp);
+		// the prefilter must never rule out a word the rule changes
+		if (!UTILS.phonSeqsEqual(inp, obs) && !sc.getSignature().mayApply(PhonSeq.of(inp)))
+		{
+			System.out.print("Error: prefilter signature rules out a word this rule changes.\n" + generateErrorMessage(sc, inp, exp, obs));
+			return false;
+		}
 		if (UTILS.phonSeqsEqual(exp, obs))
 			return true;
 		System.out.print(generateErrorMessage(sc, inp, exp, obs));
 		return false;
 	}
 	
+	// whether applying the feature implications to @param specs gives @param expected
+	private static boolean checkImplications(SChangeFactory factory, String specs, String expected)
+	{
+		String observed = factory.applyImplications(specs); 
+		if (observed.equals(expected))	return true; 
+		System.out.println("Error in the application of feature implications to "+specs+"\n\tExpected: "+expected+"\n\tObserved: "+observed); 
+		return false; 
+	}
+	
+	// @return the alpha values @param fm extracts from, and applies for, @param ph
+	private static AlphaBindings extractAlphas(FeatMatrix fm, SequentialPhonic ph)
+	{
+		AlphaBindings extracted = new AlphaBindings(); 
+		fm.extractAndApplyAlphaValues(ph, extracted); 
+		return extracted; 
+	}
+	
 	private static FeatMatrix newFM(String specs)
 	{
-		return new FeatMatrix(specs, Arrays.asList(featsByIndex),featImplications);
+		return new FeatMatrix(specs, Arrays.asList(featsByIndex),featImplTable);
 	}
 	
 	/** for simulating the change of one feature in a feature vector as used in FeatMatrix
@@ -1,6 +1,6 @@
 import java.util.List; 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 
 /**
  * @date 1 June 2018
@@ -31,6 +31,54 @@ public class SequentialFilter {
 	 * 		are calculated using the auxiliary method 
 	 * 
 	*/
+	
+	/** parenMap compiled into a program of one cell each, so that matching parses no strings : 
+	 * 	ops holds what each cell is (PLACE, OPEN, STAR_OPEN, CLOSE, STAR_CLOSE), 
+	 * 	and args its argument -- the index in placeRestrs of a place, the index in parenMap of the matching paren of a paren. 
+	 * the rest is precomputed from these, so the jumps the matchers make are single lookups (see compileParenMap()) 
+	 */
+	private static final int PLACE = 0, OPEN = 1, STAR_OPEN = 2, CLOSE = 3, STAR_CLOSE = 4; 
+	private int[] ops, args; 
+	private int[] minInParen; // for parens : the min number of places inside, as marked by markParenMapForMinPlacesInEachWindow() 
+	private int[] placeCellAtOrBefore; // the last place cell at or before each cell, -1 if none
+	private int[] placeAtOrBefore, placeAtOrAfter; // index in placeRestrs of the last place at or before each cell, -1 if none; of the first at or after it, placeRestrs.size() if none
+	private boolean[] onlyOptionalBefore, onlyOptionalFrom; // whether all that is left going back from each cell (going forward from it) is optional paren structures
+	private Phonic.Kind[] restrBoundKinds; // the kind of each place restriction that is a Boundary, null for the others
+	
+	/** the state of the matchers within one match (see beginMatch()) -- all that changes while this filter is matched : 
+	 * 	everything else is fixed once it is built, so a filter, and the rule holding it, is shared between threads as it is, 
+	 * 	each thread matching with its own state (see matchStates). 
+	 * 
+	 * memoStamps and memoResults are the memo of the results of the matchers' recursive helpers, 
+	 * 	keyed on the place in the input and the place in parenMap -- which between them fix the place in placeRestrs (see compileParenMap()). 
+	 * the branches taken at optional windows, ()* above all, reach the same places over and over : 
+	 * 	with the memo each is explored once per match, so matching is polynomial in the length of the input rather than exponential
+	 * 	-- with k windows, exploring every way through them is O(n^k) otherwise. 
+	 * most matches branch only a few times though, and for those the memo costs more than it saves :
+	 * 	so a match only starts using it once its helpers have been called more than MEMO_AFTER_CALLS times. 
+	 * a cell holds a result only if its stamp is the stamp of the current match, so the memo is never cleared, only grown. 
+	 */
+	private static final class MatchState
+	{
+		int[] memoStamps; 
+		byte[] memoResults; 
+		int memoStamp; 
+		boolean memoOn; // whether the current match uses the memo by now
+		int matchLen, helperCalls; // length of the input of the current match, and calls to the helpers in it so far
+		AlphaBindings alphas; // the alpha values of the match attempt the current match is part of, see isPriorMatch() -- null if none 
+	}
+	private final ThreadLocal<MatchState> matchStates = ThreadLocal.withInitial(MatchState::new); 
+	private static final byte MEMO_FALSE = 0, MEMO_TRUE = 1, MEMO_OPEN = 2; // MEMO_OPEN : being explored 
+	private static final int MEMO_AFTER_CALLS = 32; 
+	private final boolean memoizing; // whether matches may use the memo -- only not to compare with it, as SequentialFilterBenchmark does (see SChangeFactory)
+	
+	/** compiled form of this filter, if it has neither parens nor alpha values (see ContextAutomaton), null otherwise : 
+	 * 	a realize() that asks about a prior context at nearly every place of its input in turn can instead scan the input once up front, 
+	 * 	with priorSites(), and look up each place in what it returns. see also RuleAutomaton, which fuses both contexts with the target. 
+	 */
+	private ContextAutomaton automaton; 
+	private final boolean compilingAutomaton; // false if this filter is to be matched by the matchers alone, to compare with them (see SChangeFactory)
+	
 	// bm = whether bounds matter. 
 	// pm = paren map. 
 	private void initialize(List<RestrictPhone> prs, String[] pm, boolean bm)
@@ -44,22 +92,142 @@ public class SequentialFilter {
 		markParenMapForMinPlacesInEachWindow();		
 		
 		minSize = generateMinSize(); 
+		compileParenMap(); 
 		
 		hasAlphSpecs = false; 
 		for(RestrictPhone pr : placeRestrs)
 			if (pr.has_alpha_specs())	hasAlphSpecs = true; 		
+		compileAutomaton(); 
 	}
 	
-	public SequentialFilter (List<RestrictPhone> prs, String[] pm)
+	//auxiliary for initialization, after everything else : build the automaton, if this filter can have one
+	private void compileAutomaton()
 	{
-		initialize(prs, pm, false); 
+		if (compilingAutomaton && ops.length == placeRestrs.size() && !hasAlphSpecs && !boundsMatter 
+				&& placeRestrs.size() > 0 && placeRestrs.size() <= ContextAutomaton.MAX_PLACES)
+			automaton = new ContextAutomaton(this); 
 	}
 	
+	public SequentialFilter (List<RestrictPhone> prs, String[] pm)
+	{	this(prs, pm, false, true, true);	}
+	
 	public SequentialFilter (List<RestrictPhone> prs, String[] pm, boolean bm)
+	{	this(prs, pm, bm, true, true);	}
+	
+	// @param memoizing -- whether matches may use the memo (see MatchState) 
+	// @param compilingAutomaton -- whether to build the automaton, if this filter can have one 
+	SequentialFilter (List<RestrictPhone> prs, String[] pm, boolean bm, boolean memoizing, boolean compilingAutomaton)
 	{
+		this.memoizing = memoizing; 
+		this.compilingAutomaton = compilingAutomaton; 
 		initialize(prs, pm, bm); 
 	}
 	
+	//auxiliary for initialization : compile parenMap, once it is marked with the min places of each window, into ops etc. (see above)
+	private void compileParenMap()
+	{
+		int mapSize = parenMap.length; 
+		ops = new int[mapSize]; 
+		args = new int[mapSize]; 
+		minInParen = new int[mapSize]; 
+		for (int i = 0; i < mapSize; i++)
+		{
+			String cell = parenMap[i]; 
+			if (cell.contains("("))	ops[i] = cell.charAt(0) == '*' ? STAR_OPEN : OPEN; 
+			else if (cell.contains(")"))	ops[i] = cell.charAt(1) == '*' ? STAR_CLOSE : CLOSE; 
+			else	ops[i] = PLACE; 
+			
+			if (ops[i] == PLACE)	args[i] = Integer.parseInt(cell.substring(1)); 
+			else
+			{
+				args[i] = Integer.parseInt(cell.split(":")[1].split(",")[0]); 
+				minInParen[i] = Integer.parseInt(cell.split(",")[1]); 
+			}
+		}
+		
+		placeCellAtOrBefore = new int[mapSize]; 
+		placeAtOrBefore = new int[mapSize]; 
+		for (int i = 0, lastCell = -1; i < mapSize; i++)
+		{
+			if (ops[i] == PLACE)	lastCell = i; 
+			placeCellAtOrBefore[i] = lastCell; 
+			placeAtOrBefore[i] = lastCell == -1 ? -1 : args[lastCell]; 
+		}
+		placeAtOrAfter = new int[mapSize]; 
+		for (int i = mapSize - 1, nextPlace = placeRestrs.size(); i >= 0; i--)
+		{
+			if (ops[i] == PLACE)	nextPlace = args[i]; 
+			placeAtOrAfter[i] = nextPlace; 
+		}
+		
+		onlyOptionalBefore = new boolean[mapSize]; 
+		onlyOptionalFrom = new boolean[mapSize]; 
+		for (int i = 0; i < mapSize; i++)
+		{
+			int proxypim = i; 
+			while (proxypim != -1 && isCloser(proxypim))	proxypim = args[proxypim] - 1; 
+			onlyOptionalBefore[i] = proxypim == -1; 
+			proxypim = i; 
+			while (proxypim != mapSize && isOpener(proxypim))	proxypim = args[proxypim] + 1; 
+			onlyOptionalFrom[i] = proxypim == mapSize; 
+		}
+		
+		restrBoundKinds = new Phonic.Kind[placeRestrs.size()]; 
+		for (int pri = 0; pri < restrBoundKinds.length; pri++)
+			if (placeRestrs.get(pri) instanceof Boundary)	restrBoundKinds[pri] = ((Boundary) placeRestrs.get(pri)).getKind(); 
+	}
+	
+	// the place restriction @param crp, as it is in the match attempt of the match @param m, if any (see AlphaBindings.of()) 
+	private RestrictPhone restrAt(int crp, MatchState m)
+	{	return m.alphas == null ? placeRestrs.get(crp) : m.alphas.of(placeRestrs.get(crp));	}
+	
+	private boolean isOpener(int cpim)	{	return ops[cpim] == OPEN || ops[cpim] == STAR_OPEN;	}
+	
+	private boolean isCloser(int cpim)	{	return ops[cpim] >= CLOSE;	}
+	
+	/** whether a bound at @param cand in the input is passed over, rather than matched against the place restriction @param crp
+	 * i.e. bounds do not matter, and the restriction is neither that same bound nor the non word bound (which matches any but a word bound)
+	 */
+	boolean passesOverBound(SequentialPhonic cand, int crp)
+	{
+		return !boundsMatter && cand.isBound() 
+				&& restrBoundKinds[crp] != cand.getKind() && restrBoundKinds[crp] != Phonic.Kind.NON_WORD_BOUND; 
+	}
+	
+	/** starts a new match on this thread, over an input of length @param seqLen, in the match attempt holding @param alphas if any (see MatchState) 
+	 * @return the state of the match 
+	 */
+	private MatchState beginMatch(int seqLen, AlphaBindings alphas)
+	{
+		MatchState m = matchStates.get(); 
+		m.memoOn = false; 
+		m.matchLen = seqLen; 
+		m.helperCalls = 0; 
+		m.alphas = hasAlphSpecs ? alphas : null; 
+		return m; 
+	}
+	
+	// @return whether the match of @param m uses the memo by now -- starting to if it has just made enough calls to the helpers (see MatchState)
+	private boolean usingMemo(MatchState m)
+	{
+		if (m.memoOn)	return true; 
+		if (!memoizing || ++m.helperCalls <= MEMO_AFTER_CALLS)	return false; 
+		int cells = m.matchLen * ops.length; 
+		if (m.memoStamps == null || m.memoStamps.length < cells)
+		{
+			m.memoStamps = new int[Math.max(cells, m.memoStamps == null ? 0 : 2 * m.memoStamps.length)]; 
+			m.memoResults = new byte[m.memoStamps.length]; 
+			m.memoStamp = 0; 
+		}
+		if (++m.memoStamp == Integer.MAX_VALUE)
+		{
+			Arrays.fill(m.memoStamps, 0); 
+			m.memoStamp = 1; 
+		}
+		m.memoOn = true; 
+		return true; 
+	}
+	
 	//auxiliary for initialization : mark all parenthetical cells in parenMap
 		// with the minimum number of places inside
 	// we assume they come in in the form *(:4 and )*:7 etc ... 
@@ -119,16 +287,23 @@ public class SequentialFilter {
 	 * @return true if so, otherwise false. 
 	 */
 	public boolean isPriorMatch (List<SequentialPhonic> phonSeq, int firstInd)
+	{	return isPriorMatch(phonSeq, firstInd, null);	}
+	
+	/** isPriorMatch(), with the place restrictions as they are in the match attempt holding @param alphas (see AlphaBindings.of()) 
+	 * 	-- null if none, for a rule without alpha values
+	 */
+	public boolean isPriorMatch (List<SequentialPhonic> phonSeq, int firstInd, AlphaBindings alphas)
 	{
 		if(minSize == 0)	return true;
 		if(minSize > firstInd)	return false; 
+		MatchState m = beginMatch(phonSeq.size(), alphas); 
 		int  currPlaceInCand = firstInd - 1 , currRestrPlace = placeRestrs.size()-1, 
 				currPlaceInMap = parenMap.length - 1; 
 		//TODO note: currPlaceInCand is also the maximum size of the possible prior, for obvious reasons-- 
 		/// this is important because if the postulated prior becomes greater than that size, we will return false. 
 		//this is relevant for the method deciding whether to investigate further possibilities due to 
 			//... parenthetical disjunctions 
-		return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap);
+		return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m);
 	}
 	
 	/** isPriorMatchHelper --  recursive helper method for isPriorMatch, with hopping counters and branching recursion to handle exclusion of parens 
@@ -136,6 +311,7 @@ public class SequentialFilter {
 	 * @param cpic -- current place being checked in the input 
 	 * @param crp -- current place in place restrictions array
 	 * @param cpim -- current place in parenMap 
+	 * @param m -- the state of the match (see MatchState)
 	 * 
 	 * CASES: 
 	 * 1) We have matched all places in placeRestrs from end to the beginning -- then @return true
@@ -161,7 +337,21 @@ public class SequentialFilter {
 	 *		5d) if ever case (3) is hit (presumably after the first loop) then do as described above for that case. 
 	 * 6) after the loop terminates, test for cases (1) and (2) in that order and behave accordingly as described above for those two cases
 	 */			
-	private boolean isPriorMatchHelper (List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim) 
+	private boolean isPriorMatchHelper (List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim, MatchState m) 
+	{
+		if(!usingMemo(m) || cpic < 0 || cpim < 0 || crp < 0 || crp != placeAtOrBefore[cpim])
+			return explorePriorMatch(phonSeq, cpic, crp, cpim, m); 
+		int key = cpic * ops.length + cpim; 
+		if(m.memoStamps[key] == m.memoStamp)	return m.memoResults[key] == MEMO_TRUE; // if still being explored, it was reached again without consuming anything -- which adds no match 
+		m.memoStamps[key] = m.memoStamp; 
+		m.memoResults[key] = MEMO_OPEN; 
+		boolean result = explorePriorMatch(phonSeq, cpic, crp, cpim, m); 
+		m.memoResults[key] = result ? MEMO_TRUE : MEMO_FALSE; 
+		return result; 
+	}
+	
+	// isPriorMatchHelper(), without the memo 
+	private boolean explorePriorMatch (List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim, MatchState m) 
 	{
 		if(crp < 0)	return true;
 		if(cpic < 0)	
@@ -171,66 +361,49 @@ public class SequentialFilter {
 			{	
 				throw new Error("Something is wrong, true should have been returned. Likely mismatch between placeRestrictions and parenMap.");
 			}
-			if(parenMap[cpim].contains(")"))
-			{
-				int proxypim = cpim; 
-				while(parenMap[proxypim].contains(")"))
-				{	
-					proxypim = Integer.parseInt(parenMap[proxypim].split(":")[1].split(",")[0]) - 1; 
-					if(proxypim == -1)	return true; 
-				}
-				return false; 
-			}
-			return false; 
+			return onlyOptionalBefore[cpim]; 
 		}
 		
 		int currPlaceInCand = cpic, currRestrPlace = crp, currPlaceInMap = cpim; 
 
 		while(currRestrPlace >= 0 && currPlaceInCand >= 0 && currPlaceInMap >= 0)
 		{			
-			if(parenMap[currPlaceInMap].contains(")"))
+			if(isCloser(currPlaceInMap))
 			{
-				int minContents = Integer.parseInt(parenMap[currPlaceInMap].split(",")[1]); 
+				int minContents = minInParen[currPlaceInMap]; 
 				//if we could not possibly include the contents of this paren structure because there are too many 
 					// for the space we have left in the input... 
 				if(minContents > currPlaceInCand || minContents > currRestrPlace)
 				{
-					return isPriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap);
+					return isPriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m);
 				}
 								
-				if(isPriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap))	return true; 
+				if(isPriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m))	return true; 
 								
-				return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap - 1); 
+				return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap - 1, m); 
 				
 			}
-			if (parenMap[currPlaceInMap].contains("("))
+			if (isOpener(currPlaceInMap))
 			{
-				if('*' == parenMap[currPlaceInMap].charAt(0))
+				if(ops[currPlaceInMap] == STAR_OPEN)
 				{
-					if(isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap -1 ))	return true; 
+					if(isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap -1 , m))	return true; 
 					
 					//find correct currRestrPlace to return to if we are going back to beginning of paren. 
 					int formerPlace = currPlaceInMap; 
-					currPlaceInMap = Integer.parseInt(parenMap[currPlaceInMap].split(":")[1].split(",")[0]); 
+					currPlaceInMap = args[currPlaceInMap]; 
 					
-					int proxyPlace = currPlaceInMap - 1; 
-					while(parenMap[proxyPlace].charAt(0) != 'i')	
-					{
-						proxyPlace--; 
-						if(proxyPlace <= formerPlace)
-							throw new Error("Something wrong: paren structure seems to have no actual phone restrictions inside");
-					}
-					currRestrPlace = Integer.parseInt(parenMap[proxyPlace].substring(1)); 
-					return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap); 
+					if(placeCellAtOrBefore[currPlaceInMap - 1] <= formerPlace)
+						throw new Error("Something wrong: paren structure seems to have no actual phone restrictions inside");
+					currRestrPlace = placeAtOrBefore[currPlaceInMap - 1]; 
+					return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m); 
 				}
-				return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap - 1); 
+				return isPriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap - 1, m); 
 			}
 			
-			if(!boundsMatter && phonSeq.get(currPlaceInCand).getType().contains("bound")
-					&& !placeRestrs.get(currRestrPlace).toString().equals(phonSeq.get(currPlaceInCand)+"")
-					&& !placeRestrs.get(currRestrPlace).print().equals("@"))
+			if(passesOverBound(phonSeq.get(currPlaceInCand), currRestrPlace))
 			{	currPlaceInCand--;	}
-			else if(!placeRestrs.get(currRestrPlace).compare(phonSeq.get(currPlaceInCand)))
+			else if(!restrAt(currRestrPlace, m).compare(phonSeq.get(currPlaceInCand)))
 				return false; 
 			else	{	currPlaceInCand--; currRestrPlace--; currPlaceInMap--; 	}
 		} 
@@ -242,17 +415,7 @@ public class SequentialFilter {
 			{	
 				throw new Error("Something is wrong, true should have been returned. Likely mismatch between placeRestrictions and parenMap.");
 			}
-			if(parenMap[currPlaceInMap].contains(")"))
-			{
-				int proxypim = currPlaceInMap; 
-				while(parenMap[proxypim].contains(")"))
-				{	
-					proxypim = Integer.parseInt(parenMap[proxypim].split(":")[1].split(",")[0]) - 1; 
-					if(proxypim == -1)	return true; 
-				}
-				return false; 
-			}
-			return false; 
+			return onlyOptionalBefore[currPlaceInMap]; 
 		}
 		
 		else	return false; 
@@ -260,20 +423,12 @@ public class SequentialFilter {
 
 	//auxiliary method for recursive calls that exclude the parenthesis ending at the current spot in parenMap
 	private boolean isPriorMatchHelperExcludeParen (List<SequentialPhonic> phonSeq, int cpic,
-			int crp, int cpim)
+			int crp, int cpim, MatchState m)
 	{
-		int mapSpotPreOpener = Integer.parseInt(parenMap[cpim].split(":")[1].split(",")[0]) - 1 ;
+		int mapSpotPreOpener = args[cpim] - 1 ;
 		if (mapSpotPreOpener < 0)	return true; 
 		
-		int placeBeforeOpener = -1, proxyMapSpot = mapSpotPreOpener; 
-		while (placeBeforeOpener == -1 && proxyMapSpot >= 0)
-		{
-			if(parenMap[proxyMapSpot].charAt(0) == 'i')
-				placeBeforeOpener = Integer.parseInt(parenMap[proxyMapSpot].substring(1));
-			else	proxyMapSpot--; 
-		}
-		
-		return isPriorMatchHelper(phonSeq, cpic, placeBeforeOpener, mapSpotPreOpener); 
+		return isPriorMatchHelper(phonSeq, cpic, placeAtOrBefore[mapSpotPreOpener], mapSpotPreOpener, m); 
 	}
 
 	//TODO possible error here that isPriorMatch(Helper) is... not called? 
@@ -287,7 +442,10 @@ public class SequentialFilter {
 		if(minSize == 0)	throw new Error("You shouldn't be using filtCheck with filter with no necessary length.");
 		if(minSize > pr.size())	return false;
 		for(int cpic = 0; cpic <= pr.size() - minSize; cpic++)
-			if(isPosteriorMatchHelper(pr,cpic,0,0))	return true;
+		{
+			MatchState m = beginMatch(pr.size(), null); 
+			if(isPosteriorMatchHelper(pr,cpic,0,0,m))	return true;
+		}
 		return false;
 	}
 	
@@ -308,13 +466,16 @@ public class SequentialFilter {
 
 		while (dummy.size() >= minSize) {
 			for (int cpic = 0 ; cpic < dummy.size() && currMatchStart == -1; cpic++)
-				if(isPosteriorMatchHelper(dummy,cpic,0,0))	currMatchStart = cpic;
+			{
+				MatchState m = beginMatch(dummy.size(), null); 
+				if(isPosteriorMatchHelper(dummy,cpic,0,0,m))	currMatchStart = cpic;
+			}
 			
 			if (currMatchStart == -1)	return out;	// this is an empty list at this point -- returning empty, as there is no match. 
 			else	{
 				int matchEnd = currMatchStart + minSize - 1; 
 				while(matchEnd < dummy.size() ? 
-						!isPriorMatchHelper(dummy,matchEnd,placeRestrs.size()-1,parenMap.length-1) : false)
+						!isPriorMatchHelper(dummy,matchEnd,placeRestrs.size()-1,parenMap.length-1,beginMatch(dummy.size(), null)) : false)
 					matchEnd++;
 				
 				out.add(new int[] {trueOnset + currMatchStart, 
@@ -329,15 +490,42 @@ public class SequentialFilter {
 	}
 	
 	public boolean isPosteriorMatch(List<SequentialPhonic> phonSeq, int indAfter)
+	{	return isPosteriorMatch(phonSeq, indAfter, null);	}
+	
+	// isPosteriorMatch(), with the place restrictions as they are in the match attempt holding @param alphas -- see isPriorMatch() 
+	public boolean isPosteriorMatch(List<SequentialPhonic> phonSeq, int indAfter, AlphaBindings alphas)
 	{
 		if (minSize == 0)	
 			return true; 
 		if (minSize > phonSeq.size() - indAfter)
 			return false; 
+		MatchState m = beginMatch(phonSeq.size(), alphas); 
 		int currPlaceInCand = indAfter, currRestrPlace = 0, currPlaceInMap = 0; 
-		return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap); 
+		return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m); 
 	}
 	
+	/**
+	 * @return for each place p of @param phonSeq, whether isPriorMatch(phonSeq, p) -- as bit p of the array, see ContextAutomaton.priorSites() -- 
+	 * 	found in one scan of it, or null if this filter has no automaton or phonSeq is not a PhonSeq, in which case each place is to be asked about instead. 
+	 */
+	public long[] priorSites(List<SequentialPhonic> phonSeq)
+	{
+		if (automaton == null || !(phonSeq instanceof PhonSeq))	return null; 
+		return automaton.priorSites((PhonSeq) phonSeq, null); 
+	}
+	
+	// as priorSites(), for isPosteriorMatch(phonSeq, p) 
+	public long[] posteriorSites(List<SequentialPhonic> phonSeq)
+	{
+		if (automaton == null || !(phonSeq instanceof PhonSeq))	return null; 
+		return automaton.posteriorSites((PhonSeq) phonSeq, null); 
+	}
+	
+	// whether bit @param ind of @param sites, as returned by priorSites() or posteriorSites(), is set 
+	public static boolean isSite(long[] sites, int ind)	{	return (sites[ind >>> 6] & (1L << ind)) != 0;	}
+	
+	ContextAutomaton getAutomaton()	{	return automaton;	}
+	
 	/**
 	 * @param phonSeq	phone sequence we are checking
 	 * @param cpic	location in phonSeq		("current place in candidate (sequence)")
@@ -345,7 +533,21 @@ public class SequentialFilter {
 	 * @param cpim	location in parenMap	("current place in (paren)map") 
 	 * @return
 	 */
-	private boolean isPosteriorMatchHelper(List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim)
+	private boolean isPosteriorMatchHelper(List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim, MatchState m)
+	{
+		if(!usingMemo(m) || cpic >= phonSeq.size() || cpim >= ops.length || crp >= placeRestrs.size() || crp != placeAtOrAfter[cpim])
+			return explorePosteriorMatch(phonSeq, cpic, crp, cpim, m); 
+		int key = cpic * ops.length + cpim; 
+		if(m.memoStamps[key] == m.memoStamp)	return m.memoResults[key] == MEMO_TRUE; // see isPriorMatchHelper()
+		m.memoStamps[key] = m.memoStamp; 
+		m.memoResults[key] = MEMO_OPEN; 
+		boolean result = explorePosteriorMatch(phonSeq, cpic, crp, cpim, m); 
+		m.memoResults[key] = result ? MEMO_TRUE : MEMO_FALSE; 
+		return result; 
+	}
+	
+	// isPosteriorMatchHelper(), without the memo
+	private boolean explorePosteriorMatch(List<SequentialPhonic> phonSeq, int cpic, int crp, int cpim, MatchState m)
 	{	
 		assert cpic <= phonSeq.size() && crp <= placeRestrs.size() && cpim <= parenMap.length: 
 			"Error in call to isPosteriorMatchHelper -- at least one of the counter params was way too high";
@@ -356,63 +558,45 @@ public class SequentialFilter {
 				// this statement will need to be modified so it doesn't apply to them. 
 			if(cpim >= parenMap.length)
 				throw new Error("Likely mismatch between placeRestrs and parenMap!");
-			if(parenMap[cpim].contains("("))
-			{
-				//check if all that's left is optional
-				int proxypim = cpim;
-				while(parenMap[proxypim].contains("("))
-				{
-					proxypim = Integer.parseInt(parenMap[proxypim].split(":")[1].split(",")[0]) + 1; 
-					if(proxypim == parenMap.length)	return true; 
-				}
-				return false; 
-			}
-			return false; 
+			//check if all that's left is optional
+			return onlyOptionalFrom[cpim]; 
 		}
 		
 		int currPlaceInCand = cpic, currRestrPlace = crp, currPlaceInMap = cpim,
 				lenPhonSeq = phonSeq.size(), numRestrPlaces = placeRestrs.size(), mapSize = parenMap.length; 
 		while( currPlaceInCand < lenPhonSeq && currRestrPlace < numRestrPlaces && currPlaceInMap < mapSize)
 		{
-			if(parenMap[currPlaceInMap].contains("("))
+			if(isOpener(currPlaceInMap))
 			{
-				int minPhonesInParen = Integer.parseInt(parenMap[currPlaceInMap].split(":")[1].split(",")[1]); 
+				int minPhonesInParen = minInParen[currPlaceInMap]; 
 
 				//if we could not possibly include the contents of this paren structure because there are too many 
 				// for the space we have left in the input... 
 				if(minPhonesInParen > lenPhonSeq - currPlaceInCand)
 				{	
-					return isPosteriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap); 
+					return isPosteriorMatchHelperExcludeParen(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m); 
 				}
 				
-				if(isPosteriorMatchHelperExcludeParen(phonSeq,currPlaceInCand, currRestrPlace, currPlaceInMap))
+				if(isPosteriorMatchHelperExcludeParen(phonSeq,currPlaceInCand, currRestrPlace, currPlaceInMap, m))
 					return true; 
-				return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1); 
+				return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1, m); 
 			}
-			if(parenMap[currPlaceInMap].contains(")"))
+			if(isCloser(currPlaceInMap))
 			{
-				if('*' == parenMap[currPlaceInMap].charAt(1))
+				if(ops[currPlaceInMap] == STAR_CLOSE)
 				{
-					if(isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1 ))		return true; 
-					int formerPlace = currPlaceInMap;
-					currPlaceInMap = Integer.parseInt(parenMap[currPlaceInMap].split(":")[1].split(",")[0]); 
-					int proxyPlace = currPlaceInMap + 1; 
-					while(parenMap[proxyPlace].charAt(0) != 'i') 
-					{
-						proxyPlace--; 
-						if(proxyPlace >= formerPlace)	throw new Error("Error: no actual place restriction inside paren structure");
-					}
-					currRestrPlace = Integer.parseInt(parenMap[proxyPlace].substring(1));
-					return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap); 
+					if(isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1 , m))		return true; 
+					currPlaceInMap = args[currPlaceInMap]; 
+					if(placeCellAtOrBefore[currPlaceInMap + 1] < 0)	throw new Error("Error: no actual place restriction inside paren structure");
+					currRestrPlace = placeAtOrBefore[currPlaceInMap + 1];
+					return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap, m); 
 				}
-				return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1); 
+				return isPosteriorMatchHelper(phonSeq, currPlaceInCand, currRestrPlace, currPlaceInMap + 1, m); 
 			}
 
-			if(!boundsMatter && phonSeq.get(currPlaceInCand).getType().contains("bound") 
-					&& !placeRestrs.get(currRestrPlace).print().equals(phonSeq.get(currPlaceInCand)+"")
-					&& !placeRestrs.get(currRestrPlace).print().equals("@"))	
+			if(passesOverBound(phonSeq.get(currPlaceInCand), currRestrPlace))	
 			{	currPlaceInCand++;	}
-			else if(!placeRestrs.get(currRestrPlace).compare(phonSeq.get(currPlaceInCand)))	
+			else if(!restrAt(currRestrPlace, m).compare(phonSeq.get(currPlaceInCand)))	
 				return false; 
 			else	{		
 				currPlaceInCand++; currRestrPlace++; currPlaceInMap++; 	}
@@ -425,44 +609,24 @@ public class SequentialFilter {
 				// this statement will need to be modified so it doesn't apply to them. 
 			if(currPlaceInMap >= parenMap.length)
 				throw new Error("Likely mismatch between placeRestrs and parenMap!");
-			if(parenMap[currPlaceInMap].contains("("))
-			{
-				//check if all that's left is optional
-				int proxypim = currPlaceInMap;
-				while(parenMap[proxypim].contains("("))
-				{
-					proxypim = Integer.parseInt(parenMap[proxypim].split(":")[1].split(",")[0]) + 1; 
-					if(proxypim == parenMap.length)	return true; 
-				}
-				return false; 
-			}
-			return false; 
+			//check if all that's left is optional
+			return onlyOptionalFrom[currPlaceInMap]; 
 		}
 		
 		return false; 
 	}
 	
 	private boolean isPosteriorMatchHelperExcludeParen(List<SequentialPhonic> phonSeq, int cpic,
-			int crp, int cpim)
+			int crp, int cpim, MatchState m)
 	{
-		int mapSpotPostCloser = Integer.parseInt(parenMap[cpim].split(":")[1].split(",")[0]) + 1 ;
+		int mapSpotPostCloser = args[cpim] + 1 ;
 		
 		if( mapSpotPostCloser > parenMap.length) throw new RuntimeException("Error: illegitimate closing index recorded!"); 
 		if (mapSpotPostCloser == parenMap.length)	
 			return true; 	
 		
-		// search for first non paren using proxyMapSpot and use its i# statement in parenMap to find the 
-			// place after the closing parenthesis in parenMap. 
-		int placeAfterCloser = placeRestrs.size(); //this spot is never checked -- and should not be.
-		int proxyMapSpot = mapSpotPostCloser; 
-		while (placeAfterCloser == placeRestrs.size() && proxyMapSpot < parenMap.length )
-		{
-			if(parenMap[proxyMapSpot].charAt(0) == 'i')
-				placeAfterCloser = Integer.parseInt(parenMap[proxyMapSpot].substring(1));
-			else	proxyMapSpot++; 
-		}		
-		
-		return isPosteriorMatchHelper(phonSeq, cpic, placeAfterCloser, mapSpotPostCloser); 
+		// the place after the closing parenthesis -- placeRestrs.size() if there is none, a spot that is never checked, and should not be.
+		return isPosteriorMatchHelper(phonSeq, cpic, placeAtOrAfter[mapSpotPostCloser], mapSpotPostCloser, m); 
 	}
 	
 	
@@ -501,6 +665,24 @@ public class SequentialFilter {
 	
 	public int getMinSize() 	{	return minSize;	}
 	
+	// place restrictions outside of any parentheses -- i.e. those that any match of this filter must include
+		// (these are the places counted by generateMinSize()) 
+	public List<RestrictPhone> getMandatoryPlaces()
+	{
+		List<RestrictPhone> out = new ArrayList<RestrictPhone>(); 
+		int i = 0; 
+		while (i < ops.length)
+		{
+			if (isOpener(i))	i = args[i] + 1; 
+			else
+			{
+				out.add(placeRestrs.get(args[i])); 
+				i++; 
+			}
+		}
+		return out; 
+	}
+	
 	@Override
 	public String toString()
 	{
@@ -539,25 +721,16 @@ public class SequentialFilter {
 		return output.trim();
 	}*/
 	
-	public void applyAlphaValues(HashMap<String, String> alphVals)
-	{
-		for (int pri = 0 ; pri < placeRestrs.size(); pri++)	placeRestrs.get(pri).applyAlphaValues(alphVals);
-	}
-	
-	public void resetAllAlphaValues()
-	{
-		for (int pri = 0 ; pri < placeRestrs.size() ; pri++)	placeRestrs.get(pri).resetAlphaValues(); 
-	}
-	
 	public boolean hasAlphaSpecs()
 	{
 		return hasAlphSpecs;
 	}
 	
-	public boolean has_unset_alphas()
+	// whether any place restriction still has an unset alpha value in the match attempt holding @param alphas
+	public boolean has_unset_alphas(AlphaBindings alphas)
 	{
 		for (RestrictPhone pri : placeRestrs)
-			if (pri.first_unset_alpha() != '0')	return true;
+			if (alphas.of(pri).first_unset_alpha() != '0')	return true;
 		return false; 
 	}
 	
@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/** SequentialFilterBenchmark -- times the rules of a cascade whose contexts have optional windows, e.g. ([-syl])*,
+ * 		applied to the words of a lexicon, with and without the memo of SequentialFilter's matchers
+ * 		-- on the rules among them that take longest without it.
+ * 		each rule is made twice for this, by a factory making contexts that use the memo, and by one making contexts that do not. 
+ * the words are the forms in the first column of the lexicon, so rules late in the cascade may seldom match them,
+ * 		but their contexts are still checked at every place.
+ * 		the rules are timed on them, and on long words made by joining every four of them (without the word bounds between) 
+ * 		-- on which the windows can match over many more places.
+ * then, for comparison, a made-up rule of a kind DiaCLEF has none of : adjacent windows that can all match the same places,
+ * 		on a long consonant cluster -- where, without the memo, every way of splitting the cluster among them is tried.
+ * usage: java SequentialFilterBenchmark [cascade location] [lexicon location] [symbol definitions location] [feature implications location] [number of rules] [rounds]
+ */
+public class SequentialFilterBenchmark {
+
+	public static void main(String args[])
+	{
+		String cascLoc = args.length > 0 ? args[0] : "DiaCLEF",
+				lexLoc = args.length > 1 ? args[1] : "FLLex.txt",
+				symbDefsLoc = args.length > 2 ? args[2] : "symbolDefs.csv",
+				featImplsLoc = args.length > 3 ? args[3] : "FeatImplications";
+		int numWorst = args.length > 4 ? Integer.parseInt(args[4]) : 10,
+				rounds = args.length > 5 ? Integer.parseInt(args[5]) : 20;
+
+		HashMap<String, Integer> featIndices = new HashMap<String, Integer>();
+		HashMap<String, String> symbsToFeatures = new HashMap<String, String>();
+		String[] feats = UTILS.readSymbolDefs(symbDefsLoc, featIndices, symbsToFeatures);
+		HashMap<String, String[]> featImplications = UTILS.readFeatImplications(featImplsLoc);
+
+		// the words : those of the first column whose symbols are all defined (diacritics are not handled here)
+		PhoneRegistry registry = new PhoneRegistry(symbsToFeatures, featIndices, null);
+		List<List<SequentialPhonic>> words = new ArrayList<List<SequentialPhonic>>();
+		for (String line : UTILS.readFileLines(lexLoc))
+		{
+			String form = uncommented(line).split(""+UTILS.LEX_DELIM)[0].trim();
+			if (form.equals("") || UTILS.PSEUDO_ETYM_REPRS.contains(form))	continue;
+			List<SequentialPhonic> phones = new ArrayList<SequentialPhonic>();
+			try
+			{
+				for (String symb : form.split(""+UTILS.PH_DELIM))
+					phones.add(symb.equals("#") || symb.equals("+") ?
+							new Boundary(symb.equals("#") ? "word bound" : "morph bound") : registry.get(symb, form));
+			}
+			catch (RuntimeException e)	{	continue;	}
+			words.add(new Etymon(phones).getPhonologicalRepresentation());
+		}
+
+		// the rules with optional windows in their contexts, with the memo and without it
+		SChangeFactory factory = new SChangeFactory(symbsToFeatures, featIndices, featImplications),
+				factoryWithoutMemo = new SChangeFactory(symbsToFeatures, featIndices, featImplications, false, true);
+		List<String> ruleLines = new ArrayList<String>();
+		List<List<SChange>> rules = new ArrayList<List<SChange>>(), rulesWithoutMemo = new ArrayList<List<SChange>>();
+		for (String line : UTILS.readFileLines(cascLoc))
+		{
+			String rule = uncommented(line).trim();
+			if (rule.equals("") || (""+UTILS.GOLD_STAGENAME_FLAG+UTILS.BLACK_STAGENAME_FLAG).contains(""+rule.charAt(0)))	continue;
+			if (!rule.contains("/") || !rule.substring(rule.indexOf("/")).contains("("))	continue;
+			ruleLines.add(rule);
+			rules.add(factory.generateSoundChangesFromRule(rule));
+			rulesWithoutMemo.add(factoryWithoutMemo.generateSoundChangesFromRule(rule));
+		}
+
+		List<List<SequentialPhonic>> longWords = new ArrayList<List<SequentialPhonic>>();
+		for (int wi = 0; wi + 4 <= words.size(); wi += 4)
+		{
+			List<SequentialPhonic> joined = new ArrayList<SequentialPhonic>();
+			for (List<SequentialPhonic> word : words.subList(wi, wi + 4))	joined.addAll(word.subList(1, word.size() - 1));
+			longWords.add(new Etymon(joined).getPhonologicalRepresentation());
+		}
+
+		System.out.println(""+words.size()+" words, "+longWords.size()+" long words, "+rules.size()+" rules with optional windows in their contexts");
+
+		// warm up both.
+		for (int r = 0; r < 3; r++)
+			for (int ri = 0; ri < rules.size(); ri++)
+			{
+				apply(rulesWithoutMemo.get(ri), words);
+				apply(rules.get(ri), words);
+			}
+
+		// the rules that take longest without the memo
+		long[] ruleNs = new long[rules.size()];
+		for (int ri = 0; ri < rules.size(); ri++)
+		{
+			long start = System.nanoTime();
+			for (int r = 0; r < 3; r++)	apply(rulesWithoutMemo.get(ri), words);
+			ruleNs[ri] = System.nanoTime() - start;
+		}
+		List<Integer> worst = new ArrayList<Integer>();
+		while (worst.size() < Math.min(numWorst, rules.size()))
+		{
+			int next = -1;
+			for (int ri = 0; ri < rules.size(); ri++)
+				if (!worst.contains(ri) && (next == -1 || ruleNs[ri] > ruleNs[next]))	next = ri;
+			worst.add(next);
+		}
+
+		// check that they agree.
+		for (int wri : worst)
+			for (List<List<SequentialPhonic>> wordSet : List.of(words, longWords))
+				if (!apply(rulesWithoutMemo.get(wri), wordSet).equals(apply(rules.get(wri), wordSet)))
+					throw new RuntimeException("ERROR: the results of rule '"+ruleLines.get(wri)+"' differ with the memo");
+
+		System.out.println("words :");
+		time(worst, rules, rulesWithoutMemo, ruleLines, words, rounds);
+		System.out.println("long words :");
+		time(worst, rules, rulesWithoutMemo, ruleLines, longWords, rounds);
+
+		String madeUpRule = "a > e / i ([-syl])* ([+cons])* ([-son])* ([-syl])* __";
+		List<SequentialPhonic> cluster = new ArrayList<SequentialPhonic>();
+		for (int pi = 0; pi < 24; pi++)	cluster.add(registry.get("t", madeUpRule));
+		cluster.add(registry.get("a", madeUpRule));
+		System.out.println("made-up rule, on /t t ... t a/ with 24 t :");
+		time(List.of(0), List.of(factory.generateSoundChangesFromRule(madeUpRule)), 
+				List.of(factoryWithoutMemo.generateSoundChangesFromRule(madeUpRule)), List.of(madeUpRule),
+				List.of(new Etymon(cluster).getPhonologicalRepresentation()), Math.max(rounds / 10, 1));
+	}
+
+	// times each of the rules of index @param worst on @param wordSet, without the memo (@param rulesWithoutMemo) and with it (@param rules), alternately
+	private static void time(List<Integer> worst, List<List<SChange>> rules, List<List<SChange>> rulesWithoutMemo, List<String> ruleLines, 
+			List<List<SequentialPhonic>> wordSet, int rounds)
+	{
+		long totalWithout = 0, totalWith = 0;
+		for (int wri : worst)
+		{
+			long withoutNs = 0, withNs = 0;
+			for (int r = 0; r < rounds; r++)
+			{
+				long start = System.nanoTime();
+				apply(rulesWithoutMemo.get(wri), wordSet);
+				withoutNs += System.nanoTime() - start;
+
+				start = System.nanoTime();
+				apply(rules.get(wri), wordSet);
+				withNs += System.nanoTime() - start;
+			}
+			totalWithout += withoutNs;
+			totalWith += withNs;
+			System.out.println(String.format("%8.2f ms without memo, %8.2f ms with (%.1fx) : ", withoutNs / 1e6 / rounds, withNs / 1e6 / rounds,
+					(double) withoutNs / withNs) + ruleLines.get(wri));
+		}
+		System.out.println("over the "+worst.size()+" slowest rules, "+rounds+" rounds : "
+				+ String.format("%.1f", (double) totalWithout / totalWith)+"x speedup with the memo");
+	}
+
+	// applies each of @param rule to each of @param words, @return the results, printed
+	private static String apply(List<SChange> rule, List<List<SequentialPhonic>> words)
+	{
+		StringBuilder out = new StringBuilder();
+		for (List<SequentialPhonic> word : words)
+			for (SChange sc : rule)
+			{
+				for (SequentialPhonic ph : sc.realize(word))	out.append(ph.print());
+				out.append(' ');
+			}
+		return out.toString();
+	}
+
+	private static String uncommented(String line)
+	{	return line.contains(""+UTILS.CMT_FLAG) ? line.substring(0, line.indexOf(UTILS.CMT_FLAG)) : line;	}
+}
@@ -7,6 +7,7 @@ public abstract class SequentialPhonic extends Phonic {
 	abstract public SequentialPhonic copy(); 
 	public boolean equals(Object other)
 	{
+		if (other == this)	return true; 
 		if (!other.getClass().equals(this.getClass()))	return false;
 		return other.toString().equals(this.toString()); 
 	}
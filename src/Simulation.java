@@ -1,6 +1,20 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class Simulation {
 	
@@ -26,17 +40,27 @@ public class Simulation {
 		// use stagesOrdered to get current stage in a way that prevents flipping of the order between the two if
 			// ever two stages at the same moment (point between rule steps)
 
-	private String[][] ruleEffects; 
-		// first index is rule number
-		// second index is etymon id number
-			// it will be null if the etymon is unaffected by the rule
-			// otherwise it will be of the form : /X/ > /Y/
-	private String[] etDerivations; 
+	private RuleEffectLog ruleEffects; 
+		// sparse log of each etymon changed by each rule, by rule number and etymon id number
+		// rendered on demand by getRuleEffect() as a row with, for each etymon, 
+			// null if the etymon is unaffected by the rule
+			// otherwise a string of the form : /X/ > /Y/
+	private DerivationLog derivations; 
 	//stores derivation (form at every time step), with stages delimited by line breaks, of each word 
+		// as a compact log of events, whose text is only rendered on demand (see DerivationLog) 
 	
 	private boolean opaque; 
 	private boolean goldOutput; 
 	
+	private ForkJoinPool workerPool; // null unless rules are to be applied to the lexicon by several threads at once
+	private boolean ownsWorkerPool; // whether workerPool was made by setNumThreads() here, rather than shared from a baseline -- only then is it shut down here
+	private RealizationCache realizationCache; // null (the default) if disabled -- otherwise each distinct form is realized only once per rule
+	private boolean etymonMajor; // if true, simulateToEnd() pushes each etymon through the whole cascade in turn -- see simulateToEndEtymonMajor()
+	private File checkpointFile; // null (the default) unless checkpoints are to be written -- see setCheckpointing()
+	private int checkpointEvery; // if > 0, a checkpoint is also written every that many rules
+	private PrefixStateCache prefixCache; // null (the default) unless states are to be cached for later runs -- see setPrefixCache()
+	private int prefixCacheEvery; 
+	
 	
 	public void initialize(Etymon[] inputForms, List<SChange> casc)
 	{
@@ -50,7 +74,7 @@ public class Simulation {
 		NUM_BLACK_STAGES = 0; 
 		stepPrinterval = 0; 
 		opaque = true; 
-		ruleEffects = new String[CASCADE.size()][NUM_ETYMA];
+		ruleEffects = new RuleEffectLog(CASCADE.size(), NUM_ETYMA);
 		instant = 0; 
 		goldStageInd = 0; 
 		blackStageInd = 0; 
@@ -61,16 +85,17 @@ public class Simulation {
 	public Simulation(Etymon[] inputForms, List<SChange> casc, String[] initializedDerivations, String[] orderedStages)
 	{
 		initialize(inputForms, casc); 
-		etDerivations = initializedDerivations; 
+		derivations = new DerivationLog(initializedDerivations, ruleLabels()); 
 		stagesOrdered = orderedStages;
 	}
 	
 	public Simulation(Etymon[] inputForms, List<SChange> casc, String[] orderedStages)
 	{
 		initialize(inputForms,casc);
-		etDerivations = new String[NUM_ETYMA];
+		String[] initDerivations = new String[NUM_ETYMA];
 		for (int eti = 0; eti < NUM_ETYMA ; eti++)
-			etDerivations[eti] = inputForms[eti].print(); 
+			initDerivations[eti] = inputForms[eti].print(); 
+		derivations = new DerivationLog(initDerivations, ruleLabels()); 
 		stagesOrdered = orderedStages; 
 	}
 	
@@ -80,9 +105,10 @@ public class Simulation {
 		Etymon[] inputForms = baseline.getInput().getWordList();
 		this.stagesOrdered = baseline.stagesOrdered; 
 		initialize(inputForms, propCasc); 
-		etDerivations = new String[NUM_ETYMA];
+		String[] initDerivations = new String[NUM_ETYMA];
 		for (int eti = 0; eti < NUM_ETYMA ; eti++)
-			etDerivations[eti] = inputForms[eti].print(); 
+			initDerivations[eti] = inputForms[eti].print(); 
+		derivations = new DerivationLog(initDerivations, ruleLabels()); 
 		if (baseline.hasGoldOutput())	{
 			goldOutputLexicon = baseline.goldOutputLexicon;
 			goldOutput = true; 
@@ -100,6 +126,18 @@ public class Simulation {
 			NUM_GOLD_STAGES = goldStageNames.length;
 		}	
 		this.inputStageName = baseline.inputStageName; 
+		this.workerPool = baseline.workerPool; // shared, so not owned here (see shutdownWorkers())
+		this.etymonMajor = baseline.etymonMajor; 
+		// not shared, as the rules of the two cascades have different indices
+		this.realizationCache = baseline.realizationCache == null ? null : new RealizationCache(baseline.realizationCache.getCapacity()); 
+	}
+	
+	// printed form of each rule in the cascade, for the derivation log
+	private String[] ruleLabels()
+	{
+		String[] out = new String[TOTAL_STEPS]; 
+		for (int ri = 0; ri < TOTAL_STEPS; ri++)	out[ri] = ""+CASCADE.get(ri); 
+		return out; 
 	}
 	
 	public void setOpacity(boolean opa)	{	opaque = opa;		}
@@ -138,27 +176,206 @@ public class Simulation {
 	
 	public void setStepPrinterval(int newsp)	{	stepPrinterval = newsp;	}
 	
+	// number of threads each rule is applied to the lexicon with (see Lexicon.applyRuleAndGetChangedWords(SChange, ForkJoinPool)) 
+		// or, for simulateToEndEtymonMajor(), the number of threads the etyma are simulated with
+		// 1 (the default) is the plain serial application. 
+	public void setNumThreads(int numThreads)
+	{
+		if (numThreads < 1)	throw new RuntimeException("Error: number of threads must be at least 1, but it was "+numThreads); 
+		shutdownWorkers(); 
+		workerPool = numThreads == 1 ? null : new ForkJoinPool(numThreads); 
+		ownsWorkerPool = workerPool != null; 
+	}
+	
+	/** shuts down the threads made by setNumThreads() here, if any -- after which this simulation is serial, until setNumThreads() is called again. 
+	 * simulations made from this one as their baseline share its threads, so they must not be run after this either. 
+	 */
+	public void shutdownWorkers()
+	{
+		if (ownsWorkerPool)	workerPool.shutdown(); 
+		workerPool = null; 
+		ownsWorkerPool = false; 
+	}
+	
+	public void setEtymonMajor(boolean em)	{	etymonMajor = em;	}
+	
+	// maximum number of (rule, form) realization results cached -- 0 (the default) disables the cache (see RealizationCache)
+		// worthwhile when many etyma share forms; with mostly distinct forms the hashing costs more than it saves. 
+	public void setRealizationCacheSize(int size)
+	{
+		if (size < 0)	throw new RuntimeException("Error: realization cache size cannot be negative, but it was "+size); 
+		realizationCache = size == 0 ? null : new RealizationCache(size); 
+	}
+	
+	public RealizationCache getRealizationCache()	{	return realizationCache;	}
+	
+	/**
+	 * have iterate() write a checkpoint of the state of the simulation (see writeCheckpoint()) to @param file
+	 * 		upon hitting each gold or black stage, and, if @param everyNRules > 0, after every that many rules as well
+	 * 		each checkpoint replaces the previous one. none is written once the simulation is complete. 
+	 * 	the etymon-major simulation has no point at which all etyma are at the same rule, so it writes none. 
+	 * @param file -- null to stop checkpointing
+	 */
+	public void setCheckpointing(File file, int everyNRules)
+	{
+		if (everyNRules < 0)	throw new RuntimeException("Error: checkpoint interval cannot be negative, but it was "+everyNRules); 
+		checkpointFile = file; 
+		checkpointEvery = everyNRules; 
+	}
+	
+	/**
+	 * have iterate() store the state of the simulation in @param cache (see PrefixStateCache)
+	 * 		upon hitting each gold or black stage, and, if @param everyNRules > 0, after every that many rules as well
+	 * 	so that later runs whose cascades share a prefix with this one can resume from it. 
+	 * 	like checkpoints, no state is stored by the etymon-major simulation. 
+	 * @param cache -- null to stop caching
+	 */
+	public void setPrefixCache(PrefixStateCache cache, int everyNRules)
+	{
+		if (everyNRules < 0)	throw new RuntimeException("Error: prefix cache interval cannot be negative, but it was "+everyNRules); 
+		prefixCache = cache; 
+		prefixCacheEvery = everyNRules; 
+	}
+	
+	private final static int CHECKPOINT_MAGIC = 0x44534350, CHECKPOINT_VERSION = 2; // "DSCP"
+	
+	/**
+	 * write the complete state of the simulation so far to @param file, in a compact binary format, so it can be resumed later (see restoreCheckpoint())
+	 * 		that is, the current instant and stage indices, the current lexicon, the result lexica of the stages hit so far (see SimulationCheckpoint),
+	 * 		the derivations and the rule effects. 
+	 * 	it is preceded by a fingerprint of what led to this state (see prefixFingerprint()), so it can only be restored into a simulation 
+	 * 		that would have reached the very same state -- the rest of its cascade may differ (see PrefixStateCache)
+	 * 	the file is written under a temporary name first, then renamed, so an interrupted write never leaves a truncated checkpoint behind.
+	 */
+	public void writeCheckpoint(File file) throws IOException
+	{
+		File tmp = new File(file.getPath()+".tmp"); 
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+		{
+			out.writeInt(CHECKPOINT_MAGIC); 
+			out.writeInt(CHECKPOINT_VERSION); 
+			out.writeInt(NUM_ETYMA); 
+			out.writeInt(instant); 
+			out.writeInt(currStageInd); 
+			out.write(prefixFingerprint(instant, currStageInd)); 
+			
+			out.writeInt(goldStageInd); 
+			out.writeInt(blackStageInd); 
+			Lexicon[] lexica = new Lexicon[1 + goldStageInd + blackStageInd]; 
+			lexica[0] = currLexicon; 
+			for (int gsi = 0; gsi < goldStageInd; gsi++)	lexica[1 + gsi] = goldStageResultLexica[gsi]; 
+			for (int bsi = 0; bsi < blackStageInd; bsi++)	lexica[1 + goldStageInd + bsi] = blackStageResultLexica[bsi]; 
+			SimulationCheckpoint.writeLexica(out, lexica); 
+			derivations.writeTo(out);
+			ruleEffects.writeTo(out);
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING); 
+	}
+	
+	/**
+	 * resume from the checkpoint in @param file, written by writeCheckpoint() for a simulation with the same input and stages, 
+	 * 	and the same cascade up to the instant of the checkpoint -- all of which must have been set up on this one beforehand. 
+	 * 	simulating on from there gives the same results as if the simulation had never been interrupted. 
+	 */
+	public void restoreCheckpoint(File file) throws IOException
+	{
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != CHECKPOINT_MAGIC)	throw new RuntimeException("Error: "+file+" is not a simulation checkpoint"); 
+			int version = in.readInt(); 
+			if (version != CHECKPOINT_VERSION)	
+				throw new RuntimeException("Error: checkpoint "+file+" is of version "+version+", but only version "+CHECKPOINT_VERSION+" can be read"); 
+			int numEtyma = in.readInt(), ckInstant = in.readInt(), ckStageInd = in.readInt(); 
+			byte[] fingerprint = new byte[FINGERPRINT_LENGTH]; 
+			in.readFully(fingerprint); 
+			if (numEtyma != NUM_ETYMA || ckInstant > TOTAL_STEPS || ckStageInd > stagesOrdered.length 
+					|| !Arrays.equals(fingerprint, prefixFingerprint(ckInstant, ckStageInd)))
+				throw new RuntimeException("Error: checkpoint "+file+" was made for a simulation with a different cascade, input or stages"); 
+			
+			instant = ckInstant; 
+			currStageInd = ckStageInd; 
+			goldStageInd = in.readInt(); 
+			blackStageInd = in.readInt(); 
+			
+			Phone model = null; 
+			for (int ei = 0; ei < NUM_ETYMA && model == null; ei++)
+				if (UTILS.etymonIsPresent(inputLexicon.getByID(ei)))
+					for (SequentialPhonic ph : inputLexicon.getByID(ei).getPhonologicalRepresentation())
+						if (ph instanceof Phone)	model = (Phone) ph; 
+			Lexicon[] lexica = SimulationCheckpoint.readLexica(in, model); 
+			currLexicon = lexica[0]; 
+			for (int gsi = 0; gsi < goldStageInd; gsi++)	goldStageResultLexica[gsi] = lexica[1 + gsi]; 
+			for (int bsi = 0; bsi < blackStageInd; bsi++)	blackStageResultLexica[bsi] = lexica[1 + goldStageInd + bsi]; 
+			derivations.readFrom(in);
+			ruleEffects.readFrom(in); 
+		}
+	}
+	
+	private final static int FINGERPRINT_LENGTH = 32; // bytes of a SHA-256 digest
+	
+	/**
+	 * SHA-256 digest, as for the keys of the PrefixStateCache, 
+	 * 		of what determines the state of the simulation upon reaching instant @param upTo, having hit the first @param stagesHit stages :
+	 * 		the input forms, the rules before that instant (as written and as parsed), 
+	 * 		and the names, instants and (for gold stages) forms of the stages hit.
+	 */
+	private byte[] prefixFingerprint(int upTo, int stagesHit)
+	{
+		MessageDigest md = PrefixStateCache.sha256(); 
+		for (int ei = 0; ei < NUM_ETYMA; ei++)	md.update((inputLexicon.getByID(ei).print()+"\n").getBytes(StandardCharsets.UTF_8)); 
+		for (int ri = 0; ri < upTo; ri++)	
+			md.update((CASCADE.get(ri).getOrig()+"\t"+CASCADE.get(ri)+"\n").getBytes(StandardCharsets.UTF_8)); 
+		for (int si = 0; si < stagesHit; si++)
+		{
+			boolean isGold = stagesOrdered[si].charAt(0) == 'g'; 
+			int stn = Integer.parseInt(stagesOrdered[si].substring(1)); 
+			md.update((stagesOrdered[si]+"\t"+(isGold ? goldStageNames : blackStageNames)[stn]+"\t"+stageInstantAt(si)+"\n")
+					.getBytes(StandardCharsets.UTF_8)); 
+			if (isGold)
+				for (int ei = 0; ei < NUM_ETYMA; ei++)	
+					md.update((goldStageGoldLexica[stn].getByID(ei).print()+"\n").getBytes(StandardCharsets.UTF_8)); 
+		}
+		return md.digest(); 
+	}
+	
+	/**
+	 * @return report of how many words each rule of the cascade was checked against, and how many of them it skipped 
+	 * 		as it could not possibly change them (see RuleSignature)
+	 * 	counts are kept by the rules themselves, so if a rule is also in another simulation (e.g. a hypothesis cascade), they include its words too. 
+	 */
+	public String prefilterReport()
+	{
+		String out = "Rule prefilter skip rates :"; 
+		long totChecked = 0, totSkipped = 0; 
+		for (int ri = 0; ri < TOTAL_STEPS; ri++)
+		{
+			RuleSignature sig = CASCADE.get(ri).getSignature(); 
+			totChecked += sig.getNumChecked(); 
+			totSkipped += sig.getNumSkipped(); 
+			out += "\n"+ri+" : "+sig.getNumSkipped()+" of "+sig.getNumChecked()+" skipped ("
+					+String.format("%.3f", sig.getSkipRate())+")"+(sig.isSelective() ? "" : " [no prefilter]")+" | "+CASCADE.get(ri); 
+		}
+		return out + "\nIn all : "+totSkipped+" of "+totChecked+" skipped ("
+				+String.format("%.3f", totChecked == 0 ? 0.0 : (double) totSkipped / totChecked)+")"; 
+	}
+	
 	public void iterate()
 	{
 		if (stepPrinterval == 0 ? false : instant % stepPrinterval == 0 && instant != 0)	System.out.println("Simulated to rule number "+instant); 
 		SChange thisShift = CASCADE.get(instant); 
 		
-		// need to make clones here as doing sometihng like 
-			// Etymon[] prevForms = currLexicon.getWordList(); 
-		// ... will just have the prevForms modified due to pointers when applyRuleAndGetChangedWords() operates. 
-		Etymon[] prevForms = new Etymon[NUM_ETYMA]; 
+		// Etymon.applyRule() replaces rather than modifies the (immutable) phonological representation of a changed etymon, 
+			// so holding on to the previous ones is enough to have the previous forms -- no need to clone every etymon. 
+		List<List<SequentialPhonic>> prevReps = new ArrayList<List<SequentialPhonic>>(NUM_ETYMA); 
 		for (int pfi = 0 ; pfi < NUM_ETYMA; pfi++)
-			prevForms[pfi] = currLexicon.cloneLexemeAt(pfi);
+			prevReps.add(currLexicon.getByID(pfi).getPhonologicalRepresentation());
 		
-		boolean[] etChanged = currLexicon.applyRuleAndGetChangedWords(thisShift); 
+		boolean[] etChanged = currLexicon.applyRuleAndGetChangedWords(thisShift, instant, realizationCache, workerPool); 
 		for (int ei = 0; ei< NUM_ETYMA; ei++)
 		{	if(etChanged[ei])
 			{
-				etDerivations[ei] += "\n"+currLexicon.getByID(ei)+" | "+instant+" : "+thisShift; 
-				ruleEffects[instant][ei] = prevForms[ei].print()+ " > "+currLexicon.getByID(ei).print()
-						+ "             (et."+ei+"; "+inputLexicon.getByID(ei)
-						+ (goldOutput ? " > ... > " + goldOutputLexicon.getByID(ei) : "") 
-						+ ")"; 
+				derivations.logRuleEffect(ei, instant, ""+currLexicon.getByID(ei)); 
+				ruleEffects.log(instant, ei, new Etymon(prevReps.get(ei)).print(), currLexicon.getByID(ei).print()); 
 			}
 		}
 		
@@ -176,6 +393,7 @@ public class Simulation {
 		assert NUM_GOLD_STAGES + NUM_BLACK_STAGES == stagesOrdered.length : 
 			"Error: illegal construction of class variable Simulation.stagesOrdered";
 		
+		int prevStageInd = currStageInd; 
 		//while not if for scenario that two stages are at same moment-- but ordered within that.
 		while(currStageInd >= stagesOrdered.length ? false : instant == getNextStageInd())     
 		{
@@ -187,7 +405,7 @@ public class Simulation {
 				//TODO need to fix here 
         		goldStageResultLexica[goldStageInd] = new Lexicon(currLexicon.getWordList());
         		for (int ei = 0 ; ei < NUM_ETYMA ; ei++)
-        			etDerivations[ei] += "\n"+goldStageNames[goldStageInd]+" stage form : "+currLexicon.getByID(ei);
+        			derivations.logStageForm(ei, goldStageNames[goldStageInd], ""+currLexicon.getByID(ei));
         		currLexicon.updateAbsence(goldStageGoldLexica[goldStageInd].getWordList());
         		//TODO this is likely still highly insufficient! Because the haltMenu and errorAnalysis do not happen within this class.
         			//TODO will need to handle this somewhere else -- but where, and how to ensure correct behavior here? 
@@ -199,7 +417,7 @@ public class Simulation {
         	{
         		blackStageResultLexica[blackStageInd] = new Lexicon(currLexicon.getWordList());
         		for (int ei = 0; ei < NUM_ETYMA; ei++)
-        			etDerivations[ei] += "\n"+blackStageNames[blackStageInd]+" stage form : "+currLexicon.getByID(ei);
+        			derivations.logStageForm(ei, blackStageNames[blackStageInd], ""+currLexicon.getByID(ei));
         		blackStageInd++;
         	}
         	currStageInd++; 
@@ -208,7 +426,26 @@ public class Simulation {
 		if (instant == TOTAL_STEPS)
 		{
 			for (int ei = 0 ; ei < NUM_ETYMA; ei++)
-				etDerivations[ei] += "\nFinal form : "+currLexicon.getByID(ei); 
+				derivations.logFinalForm(ei, ""+currLexicon.getByID(ei)); 
+		}
+		else
+		{
+			// a failed checkpoint or cache write should not cost the run itself.
+			boolean stageHit = currStageInd != prevStageInd; 
+			if (checkpointFile != null && (stageHit || checkpointEvery > 0 && instant % checkpointEvery == 0))
+			{
+				try {	writeCheckpoint(checkpointFile);	}
+				catch (IOException e) {
+					System.out.println("Warning: could not write checkpoint to "+checkpointFile+" after rule "+(instant-1)+" : "+e.getMessage()); 
+				}
+			}
+			if (prefixCache != null && (stageHit || prefixCacheEvery > 0 && instant % prefixCacheEvery == 0))
+			{
+				try {	prefixCache.store(this);	}
+				catch (IOException e) {
+					System.out.println("Warning: could not cache state after rule "+(instant-1)+" : "+e.getMessage()); 
+				}
+			}
 		}
 	}
 	
@@ -223,7 +460,173 @@ public class Simulation {
 	
 	public void simulateToEnd()
 	{
-		while (instant < TOTAL_STEPS)	iterate(); 
+		if (etymonMajor)	simulateToEndEtymonMajor(); 
+		else	while (instant < TOTAL_STEPS)	iterate(); 
+	}
+	
+	/**
+	 * alternative to the rule-major simulateToEnd() : rather than applying each rule to the whole lexicon in turn, 
+	 * 		each etymon is pushed through the rest of the cascade on its own, so no lexicon needs to be cloned at each step.
+	 * if setNumThreads() was given more than one thread, the etyma are split into chunks handled in parallel, 
+	 * 		each chunk with its own buffers for the logs, merged once all are done -- the rules themselves are shared, as realizing them only reads them
+	 * stages are hit at the same instants and in the same order as in iterate(), 
+	 * 		so the final lexicon, stage result lexica, derivations and rule effects are the same as those of the rule-major simulation.
+	 * the printouts of the words changed by each rule (when not opaque) only make sense rule by rule, 
+	 * 		so in that case this falls back to the rule-major simulation.
+	 */
+	public void simulateToEndEtymonMajor()
+	{
+		if (!opaque)
+		{	
+			while (instant < TOTAL_STEPS)	iterate(); 
+			return; 
+		}
+		if (instant >= TOTAL_STEPS)	return; 
+		
+		assert NUM_GOLD_STAGES + NUM_BLACK_STAGES == stagesOrdered.length : 
+			"Error: illegal construction of class variable Simulation.stagesOrdered";
+		
+		// first work out which stages are hit after each step, as iterate() would.
+			// the stages (indices in stagesOrdered) hit upon reaching instant t are those from stagesThrough[t-1] up to stagesThrough[t] 
+			// stageNums holds the index of each among the gold or black stages. 
+		int[] stagesThrough = new int[TOTAL_STEPS + 1], stageNums = new int[stagesOrdered.length]; 
+		int csi = currStageInd, gsi = goldStageInd, bsi = blackStageInd; 
+		stagesThrough[instant] = csi; 
+		for (int t = instant + 1; t <= TOTAL_STEPS; t++)
+		{
+			while(csi >= stagesOrdered.length ? false : t == stageInstantAt(csi))
+			{
+				char type = stagesOrdered[csi].charAt(0); 
+				if (!"gb".contains(""+type)) throw new RuntimeException( "Error: illegal typing of stage number "+csi+
+		        		" in stagesOrdered : '"+type+"'");
+				stageNums[csi] = type == 'g' ? gsi++ : bsi++; 
+				csi++; 
+			}
+			stagesThrough[t] = csi; 
+		}
+		
+		Etymon[][] stageForms = new Etymon[stagesOrdered.length][]; 
+		for (int si = currStageInd; si < csi; si++)	stageForms[si] = new Etymon[NUM_ETYMA]; 
+		
+		EtymonMajorTask allEtyma = new EtymonMajorTask(instant, stagesThrough, stageNums, stageForms, 0, NUM_ETYMA, 
+				workerPool == null ? NUM_ETYMA : Math.max(MIN_ETYMA_CHUNK_SIZE, 
+						NUM_ETYMA / (workerPool.getParallelism() * ETYMA_CHUNKS_PER_WORKER) + 1)); 
+		if (workerPool == null || workerPool.getParallelism() <= 1)	allEtyma.simulateRange(ruleEffects, derivations); 
+		else
+		{
+			workerPool.invoke(allEtyma); 
+			List<RuleEffectLog> effectsBuffers = new ArrayList<RuleEffectLog>(); 
+			List<DerivationLog> derivationsBuffers = new ArrayList<DerivationLog>(); 
+			allEtyma.collectBuffers(effectsBuffers, derivationsBuffers); 
+			ruleEffects.merge(effectsBuffers); 
+			derivations.merge(derivationsBuffers); 
+		}
+		
+		currLexicon.noteEtymaChanged(); 
+		
+		for (int si = currStageInd; si < csi; si++)
+		{
+			if (stagesOrdered[si].charAt(0) == 'g')	goldStageResultLexica[stageNums[si]] = new Lexicon(stageForms[si]); 
+			else	blackStageResultLexica[stageNums[si]] = new Lexicon(stageForms[si]); 
+		}
+		
+		instant = TOTAL_STEPS; 
+		currStageInd = csi; 
+		goldStageInd = gsi; 
+		blackStageInd = bsi; 
+	}
+	
+	// for parallel etymon-major simulation 
+		// as each etymon goes through the whole cascade, small chunks are fine. 
+	private static final int ETYMA_CHUNKS_PER_WORKER = 4, MIN_ETYMA_CHUNK_SIZE = 8; 
+	
+	// simulates the etyma with indices from "from" (inclusive) to "to" (exclusive) from rule number "start" to the end of the cascade
+		// the stage plan (stagesThrough, stageNums) and the arrays for stage forms are shared by all tasks, 
+		// but each task only ever writes to the slots of its own etyma. 
+	private class EtymonMajorTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		private final int start, from, to, chunkSize; 
+		private final int[] stagesThrough, stageNums; 
+		private final Etymon[][] stageForms; 
+		
+		EtymonMajorTask(int start, int[] stagesThrough, int[] stageNums, Etymon[][] stageForms, int from, int to, int chunkSize)
+		{
+			this.start = start; this.stagesThrough = stagesThrough; this.stageNums = stageNums; this.stageForms = stageForms; 
+			this.from = from; this.to = to; this.chunkSize = chunkSize; 
+		}
+		
+		// leaves only : the logs this task's etyma were logged into, to be merged into those of the simulation (see collectBuffers())
+		private RuleEffectLog effectsBuffer; 
+		private DerivationLog derivationsBuffer; 
+		private EtymonMajorTask firstHalf, secondHalf; 
+		
+		@Override
+		protected void compute()
+		{
+			if (to - from <= chunkSize)
+			{
+				effectsBuffer = ruleEffects.newBuffer(); 
+				derivationsBuffer = derivations.newBuffer(); 
+				simulateRange(effectsBuffer, derivationsBuffer); 
+			}
+			else
+			{
+				int mid = (from + to) >>> 1; 
+				firstHalf = new EtymonMajorTask(start, stagesThrough, stageNums, stageForms, from, mid, chunkSize); 
+				secondHalf = new EtymonMajorTask(start, stagesThrough, stageNums, stageForms, mid, to, chunkSize); 
+				invokeAll(firstHalf, secondHalf); 
+			}
+		}
+		
+		// adds the buffers of the leaves under this task, once it is done, in order of their etyma, as RuleEffectLog.merge() needs. 
+		void collectBuffers(List<RuleEffectLog> effectsBuffers, List<DerivationLog> derivationsBuffers)
+		{
+			if (firstHalf == null)
+			{
+				effectsBuffers.add(effectsBuffer); 
+				derivationsBuffers.add(derivationsBuffer); 
+			}
+			else
+			{
+				firstHalf.collectBuffers(effectsBuffers, derivationsBuffers); 
+				secondHalf.collectBuffers(effectsBuffers, derivationsBuffers); 
+			}
+		}
+		
+		void simulateRange(RuleEffectLog effects, DerivationLog derivs)
+		{
+			for (int ei = from; ei < to; ei++)	simulateEtymonToEnd(ei, effects, derivs); 
+		}
+		
+		// does for the single etymon @param ei what iterate() does for every etymon, at every step from start onward
+			// @param effects, derivs -- the logs to log into : those of the simulation, or this task's buffers. 
+		private void simulateEtymonToEnd(int ei, RuleEffectLog effects, DerivationLog derivs)
+		{
+			for (int ri = start; ri < TOTAL_STEPS; ri++)
+			{
+				Etymon et = currLexicon.getByID(ei); 
+				if (et.isPseudo() && !et.isAbsent())
+					throw new RuntimeException("Alert: tried to implement a rule on a PseudoEtymon instance (index = "+ei+"). Check this.");
+				
+				// Etymon.applyRule() replaces rather than modifies the (immutable) phonological representation, so holding on to it is enough here. 
+				List<SequentialPhonic> prevRep = et.getPhonologicalRepresentation(); 
+				if (et.applyRule(CASCADE.get(ri), ri, realizationCache))
+				{
+					derivs.logRuleEffect(ei, ri, ""+et); 
+					effects.log(ri, ei, new Etymon(prevRep).print(), et.print()); 
+				}
+				
+				for (int si = stagesThrough[ri]; si < stagesThrough[ri+1]; si++)
+				{
+					boolean isGold = stagesOrdered[si].charAt(0) == 'g'; 
+					stageForms[si][ei] = currLexicon.cloneLexemeAt(ei); 
+					derivs.logStageForm(ei, (isGold ? goldStageNames : blackStageNames)[stageNums[si]], ""+currLexicon.getByID(ei)); 
+					if (isGold)	currLexicon.updateAbsence(ei, goldStageGoldLexica[stageNums[si]].getByID(ei)); 
+				}
+			}
+			derivs.logFinalForm(ei, ""+currLexicon.getByID(ei)); 
+		}
 	}
 	
 	//accessors follow
@@ -247,10 +650,46 @@ public class Simulation {
 	
 	public Lexicon getGoldStageGold(int stagenum)	{	return goldStageGoldLexica[stagenum]; 	}	
 	
-	public String[] getAllDerivations()	{	return etDerivations;	}
-	public String getDerivation (int etID)	{	return etDerivations[etID];	}
-	public String[][] getAllRuleEffects()	{	return ruleEffects;	}
-	public String[] getRuleEffect(int instant)	{	return ruleEffects[instant];	}
+	public String[] getAllDerivations()	{	return derivations.renderAll();	}
+	public String getDerivation (int etID)	{	return derivations.render(etID);	}
+	
+	// dense [rule][etymon] matrix of rendered rule effects -- see getRuleEffect() 
+		// NB: for large cascades and lexica this is very large; prefer getRuleEffect() or getRuleEffectsOnEtymon()
+	public String[][] getAllRuleEffects()	
+	{
+		String[][] out = new String[TOTAL_STEPS][]; 
+		for (int ri = 0; ri < TOTAL_STEPS; ri++)	out[ri] = getRuleEffect(ri); 
+		return out; 
+	}
+	
+	// @return array indexed by etymon id, with null for the etyma unaffected by rule @param instant, 
+		// and for the others a string of the form /X/ > /Y/ (followed by the input form and gold output form, if any) 
+	public String[] getRuleEffect(int instant)	
+	{
+		String[] out = new String[NUM_ETYMA]; 
+		for (int evi : ruleEffects.getEventsOfRule(instant))
+			out[ruleEffects.getEtymon(evi)] = renderRuleEffect(evi); 
+		return out; 
+	}
+	
+	// @return effects of each rule that changed etymon @param etID, in the order of the cascade, 
+		// in the same format as getRuleEffect() 
+	public String[] getRuleEffectsOnEtymon(int etID)
+	{
+		int[] evIDs = ruleEffects.getEventsOfEtymon(etID); 
+		String[] out = new String[evIDs.length]; 
+		for (int evi = 0; evi < evIDs.length; evi++)	out[evi] = renderRuleEffect(evIDs[evi]); 
+		return out; 
+	}
+	
+	private String renderRuleEffect(int evID)
+	{
+		int ei = ruleEffects.getEtymon(evID); 
+		return ruleEffects.getPrevForm(evID)+ " > "+ruleEffects.getNewForm(evID)
+				+ "             (et."+ei+"; "+inputLexicon.getByID(ei)
+				+ (goldOutput ? " > ... > " + goldOutputLexicon.getByID(ei) : "") 
+				+ ")"; 
+	}
 	
 	public boolean hasGoldOutput()	{	return goldOutput;	}
 	public boolean hasGoldStages()	{	return NUM_GOLD_STAGES > 0;	}
@@ -359,8 +798,12 @@ public class Simulation {
 	}
 	
 	public int getNextStageInd()
+	{	return stageInstantAt(currStageInd);	}
+	
+	// instant of the stage at index @param csi in stagesOrdered
+	private int stageInstantAt(int csi)
 	{
-		int si = Integer.parseInt(stagesOrdered[currStageInd].substring(1));
+		int si = Integer.parseInt(stagesOrdered[csi].substring(1));
 
 		//TODO debugging
 		// System.out.println("stagesOrdered exists? "+stagesOrdered);
@@ -370,7 +813,7 @@ public class Simulation {
 		// System.out.println("blackStageInstants exists? "+blackStageInstants);
 		// System.out.println("goldStages.... ? "+goldStageInstants);
 
-		return (stagesOrdered[currStageInd].charAt(0) == 'g' ?
+		return (stagesOrdered[csi].charAt(0) == 'g' ?
 	                goldStageInstants : blackStageInstants)[si]; 
 	}
 
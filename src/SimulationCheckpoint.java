@@ -0,0 +1,141 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * binary encoding of lexica for checkpoints of a Simulation (see Simulation.writeCheckpoint())
+ * the lexica are written together, as :
+ * 		a table of the distinct phonic elements found in any of them, each written once :
+ * 			a kind byte, then the feature string and symbol for a Phone, the type for a Boundary, nothing for a NullPhone
+ * 		then, for each lexicon, a flag (whether there is one), and if so, for each etymon :
+ * 			a kind byte (present, absent or unattested), then for a present one its length and the table index of each element.
+ * on reading, each element of the table is rebuilt only once, and shared by all the forms containing it,
+ * 		which is safe as phonological representations are never modified (see PhonSeq).
+ * 		phones are rebuilt from their feature string and a model phone (see Phone.pooled()), with the symbol checked.
+ */
+public class SimulationCheckpoint {
+
+	private final static byte PHONE = 0, BOUNDARY = 1, NULL_PHONE = 2;
+	private final static byte PRESENT = 0, ABSENT = 1, UNATTESTED = 2;
+
+	/**
+	 * @param lexica -- lexica to write, any of which may be null
+	 */
+	public static void writeLexica(DataOutputStream out, Lexicon[] lexica) throws IOException
+	{
+		// first pass : table of distinct elements.
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		List<SequentialPhonic> table = new ArrayList<SequentialPhonic>();
+		for (Lexicon lex : lexica)
+		{
+			if (lex == null)	continue;
+			for (Etymon et : lex.getWordList())
+				if (!(et instanceof PseudoEtymon))
+					for (SequentialPhonic ph : et.getPhonologicalRepresentation())
+					{
+						String key = keyOf(ph);
+						if (!ids.containsKey(key))
+						{
+							ids.put(key, table.size());
+							table.add(ph);
+						}
+					}
+		}
+		out.writeInt(table.size());
+		for (SequentialPhonic ph : table)
+		{
+			if (ph instanceof Phone)
+			{
+				out.writeByte(PHONE);
+				out.writeUTF(ph.getFeatString());
+				out.writeUTF(ph.print());
+			}
+			else if (ph instanceof Boundary)
+			{
+				out.writeByte(BOUNDARY);
+				out.writeUTF(ph.getType());
+			}
+			else	out.writeByte(NULL_PHONE);
+		}
+
+		// second pass : the lexica themselves.
+		out.writeInt(lexica.length);
+		for (Lexicon lex : lexica)
+		{
+			out.writeBoolean(lex != null);
+			if (lex == null)	continue;
+			out.writeInt(lex.totalEtyma());
+			for (Etymon et : lex.getWordList())
+			{
+				if (et instanceof PseudoEtymon)
+					out.writeByte(et.isAbsent() ? ABSENT : UNATTESTED);
+				else
+				{
+					out.writeByte(PRESENT);
+					List<SequentialPhonic> rep = et.getPhonologicalRepresentation();
+					out.writeInt(rep.size());
+					for (SequentialPhonic ph : rep)	out.writeInt(ids.get(keyOf(ph)));
+				}
+			}
+		}
+	}
+
+	private static String keyOf(SequentialPhonic ph)
+	{
+		if (ph instanceof Phone)	return "p"+ph.toString();
+		if (ph instanceof Boundary)	return "b"+ph.getType();
+		if (ph instanceof NullPhone)	return "n";
+		throw new RuntimeException("Error: cannot write phonic element of unforeseen class to checkpoint : "+ph.getClass().getName());
+	}
+
+	/**
+	 * @return the lexica written by writeLexica(), null where none was written
+	 * @param model -- any phone with the feature indices and symbol map of the simulation, from which phones are rebuilt
+	 * 		may be null only if there are no phones to rebuild.
+	 */
+	public static Lexicon[] readLexica(DataInputStream in, Phone model) throws IOException
+	{
+		SequentialPhonic[] table = new SequentialPhonic[in.readInt()];
+		for (int ti = 0; ti < table.length; ti++)
+		{
+			byte kind = in.readByte();
+			if (kind == PHONE)
+			{
+				String featString = in.readUTF(), symb = in.readUTF();
+				if (model == null)	throw new RuntimeException("Error: no model phone to rebuild phones of checkpoint with");
+				table[ti] = Phone.pooled(model, featString);
+				if (!table[ti].print().equals(symb))
+					throw new RuntimeException("Error: phone /"+symb+"/ of checkpoint rebuilt as /"+table[ti].print()
+						+"/ -- was the checkpoint made with different symbol definitions?");
+			}
+			else if (kind == BOUNDARY)	table[ti] = new Boundary(in.readUTF());
+			else if (kind == NULL_PHONE)	table[ti] = new NullPhone();
+			else	throw new RuntimeException("Error: illegal phonic element kind in checkpoint : "+kind);
+		}
+
+		Lexicon[] out = new Lexicon[in.readInt()];
+		for (int li = 0; li < out.length; li++)
+		{
+			if (!in.readBoolean())	continue;
+			Etymon[] words = new Etymon[in.readInt()];
+			for (int wi = 0; wi < words.length; wi++)
+			{
+				byte kind = in.readByte();
+				if (kind == ABSENT)	words[wi] = new PseudoEtymon(UTILS.ABSENT_REPR);
+				else if (kind == UNATTESTED)	words[wi] = new PseudoEtymon(UTILS.UNATTD_REPR);
+				else
+				{
+					SequentialPhonic[] rep = new SequentialPhonic[in.readInt()];
+					for (int pi = 0; pi < rep.length; pi++)	rep[pi] = table[in.readInt()];
+					words[wi] = new Etymon(PhonSeq.of(Arrays.asList(rep)));
+				}
+			}
+			out[li] = new Lexicon(Arrays.asList(words));
+		}
+		return out;
+	}
+}
@@ -8,7 +8,9 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -210,6 +212,161 @@ public class SimulationTester {
 		checker = standardChecker(testSimul.getCurrentResult(), goldOutputLexicon); 
 		System.out.println(UTILS.fillSpaceToN("Output",24)+UTILS.stdMetricReport(checker)); 
 		
+		totalErrorCount += errorCount;
+		errorCount = 0; 
+		System.out.println("Checking that a multithreaded simulation agrees with the serial one."); 
+		
+		Simulation threadedSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+		threadedSimul.setBlackStages(blackStageNames, blackStageInstants);
+		threadedSimul.setGoldOutput(goldOutputLexicon.getWordList());
+		threadedSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+		threadedSimul.setStepPrinterval(UTILS.PRINTERVAL); 
+		threadedSimul.setNumThreads(2); 
+		threadedSimul.setNumThreads(3); // the threads of the first call are shut down
+		threadedSimul.simulateToEnd(); 
+		threadedSimul.shutdownWorkers(); 
+		errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getCurrentResult().getWordList(), threadedSimul.getCurrentResult().getWordList()); 
+		for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, testSimul.getDerivation(eti).equals(threadedSimul.getDerivation(eti)), 
+					"ERROR: derivation of etymon "+eti+" differs between serial and multithreaded simulation."); 
+		
+		UTILS.errorSummary(errorCount); 
+		
+		System.out.println("Checking that the etymon-major simulation agrees with the rule-major one."); 
+		
+		Simulation etymMajorSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+		etymMajorSimul.setBlackStages(blackStageNames, blackStageInstants);
+		etymMajorSimul.setGoldOutput(goldOutputLexicon.getWordList());
+		etymMajorSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+		etymMajorSimul.setNumThreads(2); 
+		etymMajorSimul.setEtymonMajor(true); 
+		etymMajorSimul.simulateToEnd(); 
+		etymMajorSimul.shutdownWorkers(); 
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, etymMajorSimul.isComplete(), "ERROR: etymon-major simulation not complete after simulateToEnd()"); 
+		errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getCurrentResult().getWordList(), etymMajorSimul.getCurrentResult().getWordList()); 
+		for (int gsi = 0 ; gsi < NUM_GOLD_STAGES; gsi++)
+			errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getStageResult(true, gsi).getWordList(), etymMajorSimul.getStageResult(true, gsi).getWordList()); 
+		for (int bsi = 0 ; bsi < NUM_BLACK_STAGES; bsi++)
+			errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getStageResult(false, bsi).getWordList(), etymMajorSimul.getStageResult(false, bsi).getWordList()); 
+		for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, testSimul.getDerivation(eti).equals(etymMajorSimul.getDerivation(eti)), 
+					"ERROR: derivation of etymon "+eti+" differs between rule-major and etymon-major simulation."); 
+		for (int ri = 0 ; ri < CASCADE.size() ; ri++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, Arrays.equals(testSimul.getRuleEffect(ri), etymMajorSimul.getRuleEffect(ri)), 
+					"ERROR: effects of rule "+ri+" differ between rule-major and etymon-major simulation."); 
+		
+		UTILS.errorSummary(errorCount); 
+		
+		System.out.println("Checking that a simulation with a realization cache agrees with one without."); 
+		
+		Simulation cachedSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+		cachedSimul.setBlackStages(blackStageNames, blackStageInstants);
+		cachedSimul.setGoldOutput(goldOutputLexicon.getWordList());
+		cachedSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+		cachedSimul.setNumThreads(2); 
+		cachedSimul.setRealizationCacheSize(4); // small, so that entries get evicted too.
+		cachedSimul.simulateToEnd(); 
+		cachedSimul.shutdownWorkers(); 
+		errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getCurrentResult().getWordList(), cachedSimul.getCurrentResult().getWordList()); 
+		for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, testSimul.getDerivation(eti).equals(cachedSimul.getDerivation(eti)), 
+					"ERROR: derivation of etymon "+eti+" differs between simulation with and without realization cache."); 
+		RealizationCache theCache = cachedSimul.getRealizationCache(); 
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, theCache.getHits() + theCache.getMisses() > 0 && theCache.numCachedResults() <= 4, 
+				"ERROR: realization cache not used or not bounded : "+theCache.statsReport()); 
+		
+		UTILS.errorSummary(errorCount); 
+		
+		System.out.println("Checking that a simulation resumed from a checkpoint agrees with an uninterrupted one."); 
+		
+		Simulation interruptedSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+		interruptedSimul.setBlackStages(blackStageNames, blackStageInstants);
+		interruptedSimul.setGoldOutput(goldOutputLexicon.getWordList());
+		interruptedSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+		interruptedSimul.simulateToNextStage(); 
+		Simulation resumedSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+		resumedSimul.setBlackStages(blackStageNames, blackStageInstants);
+		resumedSimul.setGoldOutput(goldOutputLexicon.getWordList());
+		resumedSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+		try {
+			File checkpoint = File.createTempFile("simTesterCheckpoint", ".bin"); 
+			checkpoint.deleteOnExit();
+			interruptedSimul.writeCheckpoint(checkpoint);
+			resumedSimul.restoreCheckpoint(checkpoint);
+		}
+		catch (IOException e) {
+			System.out.println("IO Exception!");
+			e.printStackTrace();
+		}
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, interruptedSimul.getInstant() == resumedSimul.getInstant(), 
+				"ERROR: simulation resumed from checkpoint at rule "+resumedSimul.getInstant()+" rather than "+interruptedSimul.getInstant()); 
+		resumedSimul.simulateToEnd(); 
+		errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getCurrentResult().getWordList(), resumedSimul.getCurrentResult().getWordList()); 
+		for (int gsi = 0 ; gsi < NUM_GOLD_STAGES; gsi++)
+			errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getStageResult(true, gsi).getWordList(), resumedSimul.getStageResult(true, gsi).getWordList()); 
+		for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, testSimul.getDerivation(eti).equals(resumedSimul.getDerivation(eti)), 
+					"ERROR: derivation of etymon "+eti+" differs between resumed and uninterrupted simulation."); 
+		for (int ri = 0 ; ri < CASCADE.size() ; ri++)
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, Arrays.equals(testSimul.getRuleEffect(ri), resumedSimul.getRuleEffect(ri)), 
+					"ERROR: effects of rule "+ri+" differ between resumed and uninterrupted simulation."); 
+		
+		UTILS.errorSummary(errorCount); 
+		
+		System.out.println("Checking that a simulation resumed from the prefix state cache agrees with one simulated from the start."); 
+		
+		try {
+			File cacheDir = Files.createTempDirectory("simTesterCache").toFile(); 
+			PrefixStateCache stateCache = new PrefixStateCache(cacheDir, 1L << 30, 
+					PrefixStateCache.digestContext(Arrays.asList(LEX_LOC, SYMBS_LOC, FI_LOC), "")); 
+			Simulation cachingSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+			cachingSimul.setBlackStages(blackStageNames, blackStageInstants);
+			cachingSimul.setGoldOutput(goldOutputLexicon.getWordList());
+			cachingSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+			cachingSimul.setPrefixCache(stateCache, 1);
+			cachingSimul.simulateToEnd(); 
+			
+			Simulation cacheResumedSimul = new Simulation(inputForms, CASCADE, STAGE_ORDER); 
+			cacheResumedSimul.setBlackStages(blackStageNames, blackStageInstants);
+			cacheResumedSimul.setGoldOutput(goldOutputLexicon.getWordList());
+			cacheResumedSimul.setGoldStages(goldStageGoldWordlists, goldStageNames, goldStageInstants);
+			int resumedAt = stateCache.resume(cacheResumedSimul); 
+			errorCount += chBoolPrIncIfError(getLineNumber(), true, resumedAt == CASCADE.size() - 1, 
+					"ERROR: simulation should have resumed from the cache at the last rule, but resumed at "+resumedAt); 
+			cacheResumedSimul.simulateToEnd(); 
+			errorCount += UTILS.aggregateErrorsCheckWordLists(testSimul.getCurrentResult().getWordList(), cacheResumedSimul.getCurrentResult().getWordList()); 
+			for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+				errorCount += chBoolPrIncIfError(getLineNumber(), true, testSimul.getDerivation(eti).equals(cacheResumedSimul.getDerivation(eti)), 
+						"ERROR: derivation of etymon "+eti+" differs between simulation resumed from the cache and uninterrupted one."); 
+			
+			for (File cached : cacheDir.listFiles())	cached.delete(); 
+			cacheDir.delete(); 
+		}
+		catch (IOException e) {
+			System.out.println("IO Exception!");
+			e.printStackTrace();
+		}
+		
+		UTILS.errorSummary(errorCount); 
+		
+		System.out.println("Checking lexicon index queries against full scans of the lexicon."); 
+		
+		Lexicon resLex = etymMajorSimul.getCurrentResult(); // its etyma were changed without going through the index
+		Phone[] resInventory = resLex.getPhonemicInventory(); 
+		for (Phone ph : resInventory)
+		{
+			boolean[] presence = resLex.getPhonePresenceByEt(ph); 
+			for (int eti = 0 ; eti < NUM_ETYMA ; eti++)
+				errorCount += chBoolPrIncIfError(getLineNumber(), 
+						UTILS.etymonIsPresent(resLex.getByID(eti)) && resLex.getByID(eti).findPhone(ph) != -1, presence[eti], 
+						"ERROR: presence of /"+ph.print()+"/ in etymon "+eti+" misreported by the lexicon index."); 
+		}
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, 
+				resInventory.length == testSimul.getCurrentResult().getPhonemicInventory().length, 
+				"ERROR: phonemic inventories of identical lexica differ in size."); 
+		
+		UTILS.errorSummary(errorCount); 
+		
 		totalErrorCount += errorCount;
 		errorCount = 0; 
 		System.out.println("In all, there were "+totalErrorCount+" errors checking the debugging set using the debugging gold cascade\n"
@@ -234,6 +391,11 @@ public class SimulationTester {
 		String observedDerBitten = testSimul.getDerivation(0); 
 		errorCount += chBoolPrIncIfError(getLineNumber(), true, bittenCorrectBaselineDeriv.equals(observedDerBitten), "ERROR: baseline derivation for 'bitten' not matched."
 				+ "correct:\n"+bittenCorrectBaselineDeriv+"\nobserved:\n"+observedDerBitten) ;
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, ("" + testSimul.getRuleEffect(0)[0]).startsWith("/bˈɪtən/ > /bˈɪɾən/"), 
+				"ERROR: effect of rule 0 on 'bitten' not matched : "+testSimul.getRuleEffect(0)[0]); 
+		String[] bittenRuleEffs = testSimul.getRuleEffectsOnEtymon(0); 
+		errorCount += chBoolPrIncIfError(getLineNumber(), true, bittenRuleEffs.length == 2 && bittenRuleEffs[1].equals(testSimul.getRuleEffect(1)[0]), 
+				"ERROR: rule effects on 'bitten' should be those of rules 0 and 1, but there were "+bittenRuleEffs.length); 
 		
 		System.out.print("Performance of baseline cascade before edits...\n"
 				+ UTILS.stdMetricHeader()+"\n"); 
@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * the targets of an SChangePhone -- the alternatives of a disjunction, e.g. {p;t;k} -- compiled into a trie
+ * 		over the codes their elements have in a PhonSeq (for phones, their ids in the pool of phones -- see Phone.intern()),
+ * 		so that all the alternatives found at a place of an input are found in one walk along it, no longer than the longest of them,
+ * 		rather than by comparing each alternative with the input in turn.
+ * two elements have the same code iff they are equal (see Phone.equals() and PseudoPhone.equals()),
+ * 		so an alternative is found where SChangePhone.foundTargetIndAfter() would find it, ending at the same place.
+ * it is only read once built, so a rule holding one can be realized on several threads at once.
+ */
+public class TargetTrie {
+
+	private static final int CODE_OFFSET = 4; // so that the codes of pseudo-phones, from PhonSeq.NULL_PHONE (-4) up, index children too
+	private static final int NO_CODE = -CODE_OFFSET - 1; // that of no element, see codeOf()
+	private static final long[] NONE = new long[0];
+
+	private static class TrieNode
+	{
+		TrieNode[] children = new TrieNode[0]; // by code + CODE_OFFSET
+		int[] ends = new int[0]; // indices of the alternatives ending here, ascending
+	}
+
+	private final TrieNode root = new TrieNode();
+
+	/**
+	 * @param targs -- the alternatives, each of which must be compilable (see isCompilable())
+	 */
+	public TargetTrie(List<List<SequentialPhonic>> targs)
+	{
+		for (int ti = 0; ti < targs.size(); ti++)
+		{
+			TrieNode node = root;
+			for (SequentialPhonic ph : targs.get(ti))
+			{
+				if (!isCompilable(ph))
+					throw new RuntimeException("ERROR: tried to compile a target with an element of type '"+ph.getType()+"' into a trie");
+				int ci = PhonSeq.codeOf(ph) + CODE_OFFSET;
+				if (ci >= node.children.length)	node.children = Arrays.copyOf(node.children, ci + 1);
+				if (node.children[ci] == null)	node.children[ci] = new TrieNode();
+				node = node.children[ci];
+			}
+			node.ends = Arrays.copyOf(node.ends, node.ends.length + 1);
+			node.ends[node.ends.length - 1] = ti;
+		}
+	}
+
+	// whether @param ph has a code in a PhonSeq, and is equal to exactly the elements with the same code
+	public static boolean isCompilable(SequentialPhonic ph)
+	{
+		return ph.isPhone() || ph.getKind() == Phonic.Kind.WORD_BOUND || ph.getKind() == Phonic.Kind.MORPH_BOUND
+				|| ph.getKind() == Phonic.Kind.NON_WORD_BOUND || ph.getKind() == Phonic.Kind.NULL_PHONE;
+	}
+
+	// whether every element of every alternative of @param targs is compilable
+	public static boolean isCompilable(List<List<SequentialPhonic>> targs)
+	{
+		for (List<SequentialPhonic> targ : targs)
+			for (SequentialPhonic ph : targ)
+				if (!isCompilable(ph))	return false;
+		return true;
+	}
+
+	/**
+	 * @return the alternatives found starting at @param ind of @param input, with at most @param maxLen elements,
+	 * 		each as (index of the alternative << 32) | (index in the input after it), in ascending order of the alternatives
+	 * @param boundsMatter -- if false, bounds in the input are passed over before each element of an alternative, as foundTargetIndAfter() does
+	 */
+	public long[] matchesAt(List<SequentialPhonic> input, int ind, int maxLen, boolean boundsMatter)
+	{
+		if (maxLen < 0)	return NONE;
+		PhonSeq seq = input instanceof PhonSeq ? (PhonSeq) input : null;
+		long[] found = NONE;
+		int numFound = 0, wdInd = ind, inpSize = input.size();
+		TrieNode node = root;
+		for (int depth = 0; node != null; depth++)
+		{
+			for (int ti : node.ends)
+			{
+				if (numFound == found.length)	found = Arrays.copyOf(found, Math.max(2 * numFound, 2));
+				found[numFound++] = ((long) ti << 32) | wdInd;
+			}
+			if (depth == maxLen)	break;
+			if (!boundsMatter)
+				while (wdInd < inpSize && !input.get(wdInd).isPhone())	wdInd++;
+			if (wdInd >= inpSize)	break;
+			node = child(node, seq != null ? seq.codeAt(wdInd) : codeOf(input.get(wdInd)));
+			wdInd++;
+		}
+		if (numFound < 2)	return numFound == found.length ? found : Arrays.copyOf(found, numFound);
+		found = Arrays.copyOf(found, numFound);
+		Arrays.sort(found);
+		return found;
+	}
+
+	private static TrieNode child(TrieNode node, int code)
+	{
+		int ci = code + CODE_OFFSET;
+		return ci >= 0 && ci < node.children.length ? node.children[ci] : null;
+	}
+
+	/**
+	 * @return the code of @param ph, or NO_CODE, which no alternative has, if it has none
+	 * 		-- a phone that is not pooled is not pooled for this : no alternative can have it, as those are all pooled when the trie is built.
+	 */
+	private static int codeOf(SequentialPhonic ph)
+	{
+		if (!isCompilable(ph))	return NO_CODE;
+		if (!(ph instanceof Phone))	return PhonSeq.codeOf(ph);
+		Phone pooled = Phone.findPooled((Phone) ph);
+		return pooled != null ? pooled.getId() : NO_CODE;
+	}
+}
@@ -34,7 +34,7 @@ public class UTILS {
 	public static final int PRINTERVAL = 100; 
 	
 	public static boolean etymonIsPresent (Etymon etym)	
-	{	return !PSEUDO_ETYM_REPRS.contains(etym.print()); 	}
+	{	return !etym.isPseudo(); 	}
 	
 	public static char getFeatspecMarkFromInt (int ftInt)
 	{
@@ -433,6 +433,42 @@ public class UTILS {
 		return lns;
 	}
 	
+	/**
+	 * read the symbol definitions in the file at @param loc (e.g. symbolDefs.csv) 
+	 * 		into @param featIndices, the index of each feature, and @param symbsToFeatures, the feature values of each symbol as a string of ints 
+	 * @return the names of the features, in order
+	 */
+	public static String[] readSymbolDefs(String loc, HashMap<String, Integer> featIndices, HashMap<String, String> symbsToFeatures)
+	{
+		List<String> lines = readFileLines(loc); 
+		String[] feats = lines.get(0).replace("SYMB,","").split(","); 
+		for (int fi = 0; fi < feats.length; fi++)	featIndices.put(feats[fi], fi); 
+		
+		for (int li = 1; li < lines.size(); li++)
+		{
+			String line = lines.get(li).replaceAll("\\s+", ""); 
+			if (line.equals(""))	continue; 
+			int ind1stComma = line.indexOf(FEAT_DELIM); 
+			String intFeatVals = ""; 
+			for (String fv : line.substring(ind1stComma+1).split(""+FEAT_DELIM))
+				intFeatVals += fv.equals(""+MARK_POS) ? POS_INT : (fv.equals(""+MARK_NEG) ? NEG_INT : UNSPEC_INT); 
+			symbsToFeatures.put(line.substring(0, ind1stComma), intFeatVals); 
+		}
+		return feats; 
+	}
+	
+	// @return the feature implications in the file at @param loc (e.g. FeatImplications), by the feature value that implies them
+	public static HashMap<String, String[]> readFeatImplications(String loc)
+	{
+		HashMap<String, String[]> featImplications = new HashMap<String, String[]>(); 
+		for (String line : readFileLines(loc))
+		{
+			String[] sides = line.split(""+IMPLICATION_DELIM); 
+			featImplications.put(sides[0], sides[1].split(""+FEAT_DELIM)); 
+		}
+		return featImplications; 
+	}
+	
 	// check if two files (i.e. cascade files) have the exact same contents
 	public static boolean compareFiles(String loc1, String loc2)
 	{